@@ -0,0 +1,48 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.TokenStream;
+import optimizer.ConstantFolder;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import parser.Expr;
+import parser.ExprArena;
+import parser.Parser;
+
+/**
+ * Eingabe aller Benchmarks: ein generiertes Programm, dazu Tokens und AST.
+ * Die Parameter lassen sich mit -p überschreiben, z.B. -p shape=DEEP -p depth=64.
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+
+    @Param({"FLAT", "DEEP", "COMMENT_HEAVY", "STRING_HEAVY"})
+    public CorpusGenerator.Shape shape;
+
+    @Param("200000")
+    public int size;
+
+    @Param("8")
+    public int depth;
+
+    @Param("42")
+    public long seed;
+
+    public String source;
+    public TokenStream tokens;
+    public Expr.Program ast;
+    public ExprArena arena;
+    public int nodes;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        source = new CorpusGenerator(seed).generate(shape, size, depth);
+        tokens = new Lexer(source).tokenize();
+        ast = new Parser(tokens).parse();
+        arena = new Parser(tokens).parseArena();
+        nodes = ConstantFolder.countNodes(ast);
+    }
+}
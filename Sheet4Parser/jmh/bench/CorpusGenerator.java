@@ -0,0 +1,198 @@
+package bench;
+
+import java.util.SplittableRandom;
+
+/**
+ * Erzeugt deterministisch (fester Seed) grammatikgültige Programme für die Benchmarks.
+ * Gleiche Parameter ergeben immer denselben Text, Messungen bleiben so über die Zeit vergleichbar.
+ *
+ * FLAT          viele kleine Top-Level-Formen
+ * DEEP          wenige Formen, jeweils bis maxDepth verschachtelt
+ * COMMENT_HEAVY kleine Formen, dazwischen viele lange ;;-Kommentare
+ * STRING_HEAVY  Aufrufe mit langen String-Literalen
+ */
+public final class CorpusGenerator {
+
+    public enum Shape { FLAT, DEEP, COMMENT_HEAVY, STRING_HEAVY }
+
+    private static final String[] OPERATORS = {"+", "-", "*", "<", ">", "="};
+    private static final String[] WORDS = {
+            "alpha", "beta", "gamma", "delta", "liste", "wert", "summe", "zaehler", "kopf", "rest"};
+
+    private final long seed;
+    private SplittableRandom random;
+    private StringBuilder out;
+
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Programm mit mindestens targetChars Zeichen (es wird nach der Form abgebrochen,
+     * die die Grenze überschreitet); maxDepth begrenzt die Verschachtelung je Form.
+     */
+    public String generate(Shape shape, int targetChars, int maxDepth) {
+        if (targetChars < 0 || maxDepth < 1) {
+            throw new IllegalArgumentException("targetChars >= 0 and maxDepth >= 1 required");
+        }
+        random = new SplittableRandom(seed ^ shape.ordinal() * 0x9E3779B97F4A7C15L);
+        out = new StringBuilder(targetChars + 256);
+        int form = 0;
+        while (out.length() < targetChars) {
+            switch (shape) {
+                case FLAT -> topLevel(form, Math.min(maxDepth, 3));
+                case DEEP -> {
+                    out.append("(defn deep").append(form).append(" (x y) ");
+                    deep(maxDepth);
+                    out.append(')');
+                }
+                case COMMENT_HEAVY -> {
+                    comment();
+                    if (random.nextBoolean()) comment();
+                    topLevel(form, Math.min(maxDepth, 2));
+                }
+                case STRING_HEAVY -> {
+                    out.append("(print (str ");
+                    int parts = 2 + random.nextInt(4);
+                    for (int i = 0; i < parts; i++) {
+                        if (i > 0) out.append(' ');
+                        string(20 + random.nextInt(100));
+                    }
+                    out.append("))");
+                }
+            }
+            out.append('\n');
+            form++;
+        }
+        String result = out.toString();
+        out = null;
+        return result;
+    }
+
+    // --- Formen ---
+
+    private void topLevel(int index, int depth) {
+        switch (random.nextInt(4)) {
+            case 0 -> {
+                out.append("(def v").append(index).append(' ');
+                expr(depth);
+                out.append(')');
+            }
+            case 1 -> {
+                out.append("(defn f").append(index).append(" (a b) ");
+                expr(depth);
+                out.append(')');
+            }
+            default -> expr(depth);
+        }
+    }
+
+    private void expr(int depth) {
+        if (depth <= 1) {
+            atom();
+            return;
+        }
+        switch (random.nextInt(6)) {
+            case 0 -> {
+                out.append("(let (");
+                int count = 1 + random.nextInt(2);
+                for (int i = 0; i < count; i++) {
+                    out.append(name()).append(' ');
+                    expr(depth - 1);
+                    out.append(' ');
+                }
+                out.append(") ");
+                expr(depth - 1);
+                out.append(')');
+            }
+            case 1 -> {
+                out.append("(if ");
+                expr(depth - 1);
+                out.append(' ');
+                expr(depth - 1);
+                out.append(' ');
+                expr(depth - 1);
+                out.append(')');
+            }
+            case 2 -> {
+                out.append("(do ");
+                expr(depth - 1);
+                out.append(' ');
+                expr(depth - 1);
+                out.append(')');
+            }
+            default -> {
+                out.append('(').append(random.nextInt(3) == 0 ? "list" : OPERATORS[random.nextInt(OPERATORS.length)]);
+                int count = 1 + random.nextInt(3);
+                for (int i = 0; i < count; i++) {
+                    out.append(' ');
+                    expr(depth - 1);
+                }
+                out.append(')');
+            }
+        }
+    }
+
+    // Eine Kette bis zur vollen Tiefe: jede Ebene hat ein tiefes und ein flaches Kind
+    private void deep(int depth) {
+        if (depth <= 1) {
+            atom();
+            return;
+        }
+        switch (random.nextInt(3)) {
+            case 0 -> {
+                out.append("(let (").append(name()).append(' ');
+                atom();
+                out.append(") ");
+                deep(depth - 1);
+                out.append(')');
+            }
+            case 1 -> {
+                out.append("(if ");
+                atom();
+                out.append(' ');
+                deep(depth - 1);
+                out.append(' ');
+                atom();
+                out.append(')');
+            }
+            default -> {
+                out.append('(').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+                deep(depth - 1);
+                out.append(' ');
+                atom();
+                out.append(')');
+            }
+        }
+    }
+
+    private void atom() {
+        switch (random.nextInt(5)) {
+            case 0 -> out.append(random.nextInt(2000) - 1000);
+            case 1 -> out.append(random.nextBoolean() ? "true" : "false");
+            case 2 -> string(3 + random.nextInt(10));
+            default -> out.append(name());
+        }
+    }
+
+    private String name() {
+        return WORDS[random.nextInt(WORDS.length)] + (random.nextBoolean() ? "" : "-" + random.nextInt(10));
+    }
+
+    private void string(int length) {
+        out.append('"');
+        for (int i = 0; i < length; i++) {
+            out.append(random.nextInt(6) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+        }
+        out.append('"');
+    }
+
+    private void comment() {
+        out.append(";;");
+        int length = 40 + random.nextInt(80);
+        for (int i = 0; i < length; i++) {
+            out.append(random.nextInt(5) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+        }
+        out.append('\n');
+    }
+}
@@ -0,0 +1,61 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.Token;
+import lexer.TokenStream;
+import lexer.TokenType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexer-Durchsatz; der Zähler "tokens" liefert Tokens pro Sekunde.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class LexerBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Tokens {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+
+    @Benchmark
+    public void nextToken(Corpus corpus, Tokens counter, Blackhole blackhole) {
+        Lexer lexer = new Lexer(corpus.source);
+        long count = 0;
+        for (Token t = lexer.nextToken(); t.type() != TokenType.EOF; t = lexer.nextToken()) {
+            blackhole.consume(t);
+            count++;
+        }
+        counter.tokens += count;
+    }
+
+    @Benchmark
+    public TokenStream tokenize(Corpus corpus, Tokens counter) {
+        TokenStream tokens = new Lexer(corpus.source).tokenize();
+        counter.tokens += tokens.size();
+        return tokens;
+    }
+}
@@ -0,0 +1,67 @@
+package bench;
+
+import lexer.Lexer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.Expr;
+import parser.ExprArena;
+import parser.Parser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser-Durchsatz auf fertigen Tokens bzw. zusammen mit dem Lexer;
+ * der Zähler "nodes" liefert AST-Knoten pro Sekunde.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ParserBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Benchmark
+    public Expr.Program parse(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return new Parser(corpus.tokens).parse();
+    }
+
+    @Benchmark
+    public Expr.Program parseIterative(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return new Parser(corpus.tokens).parseIterative();
+    }
+
+    @Benchmark
+    public ExprArena parseArena(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return new Parser(corpus.tokens).parseArena();
+    }
+
+    @Benchmark
+    public Expr.Program lexAndParse(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return new Parser(new Lexer(corpus.source)).parse();
+    }
+}
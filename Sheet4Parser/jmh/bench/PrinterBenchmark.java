@@ -0,0 +1,72 @@
+package bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import prettyprint.ASTPrettyPrint;
+import prettyprint.ASTTreePrinter;
+import prettyprint.LayoutPrinter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durchsatz der Printer auf demselben AST, als Expr und als ExprArena;
+ * der Zähler "nodes" liefert ausgegebene Knoten pro Sekunde.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class PrinterBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Benchmark
+    public String prettyPrint(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return new ASTPrettyPrint().print(corpus.ast);
+    }
+
+    @Benchmark
+    public String treePrinter(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return new ASTTreePrinter().print(corpus.ast);
+    }
+
+    @Benchmark
+    public String prettyPrintArena(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return new ASTPrettyPrint().print(corpus.arena);
+    }
+
+    @Benchmark
+    public String treePrinterArena(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return new ASTTreePrinter().print(corpus.arena);
+    }
+
+    @Benchmark
+    public String layoutPrinter(Corpus corpus, Nodes counter) {
+        counter.nodes += corpus.nodes;
+        return LayoutPrinter.print(corpus.ast, LayoutPrinter.DEFAULT_WIDTH);
+    }
+}
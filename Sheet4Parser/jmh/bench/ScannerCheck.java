@@ -0,0 +1,237 @@
+package bench;
+
+import lexer.CharScanner;
+import lexer.Diagnostics;
+import lexer.Lexer;
+import lexer.Token;
+import lexer.TokenStream;
+import lexer.TokenType;
+
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+/**
+ * Differenzieller Vergleich von skalarem und vektorisiertem CharScanner: beide
+ * müssen dieselben Stoppstellen und damit dieselben Tokens liefern. Geprüft werden
+ * find() direkt für alle Startversätze und Längen über mehrere Vektorbreiten sowie
+ * ganze Tokenströme über generierte Eingaben, auch im Streaming-Modus mit kleinen
+ * Puffern (Tokens über Nachladegrenzen) und im Diagnosemodus.
+ *
+ *     mvn -Pjmh package
+ *     java --add-modules jdk.incubator.vector -cp target/benchmarks.jar bench.ScannerCheck [eingaben] [seed]
+ *
+ * Bei der ersten Abweichung wird sie ausgegeben und mit Exit-Code 1 beendet.
+ */
+public final class ScannerCheck {
+    // Mehr Lanes als jede Vektorbreite (512 Bit = 32 chars), damit alle Grenzen vorkommen
+    private static final int MAX_LANES = 64;
+    private static final int[] OFFSETS = {0, 1, 2, 3, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 63, 64, 65};
+    private static final int[] BUFFER_SIZES = {1, 2, 3, 7, 8, 9, 15, 16, 17, 31, 32, 33, 63, 64, 65, 4096};
+
+    private ScannerCheck() {}
+
+    public static void main(String[] args) {
+        int inputs = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        if (!CharScanner.vectorAvailable()) {
+            System.err.println("Benchmark Error: Vector API nicht verfügbar (--add-modules jdk.incubator.vector)");
+            System.exit(1);
+        }
+        CharScanner scalar = CharScanner.scalar();
+        CharScanner vector = CharScanner.vector();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        long calls = checkFind(scalar, vector);
+        System.out.println("find(): " + calls + " Aufrufe gleich");
+
+        for (int i = 0; i < inputs; i++) {
+            String input = i % 4 == 0 ? corpus(random) : fragments(random);
+            checkTokens(input, scalar, vector);
+        }
+        System.out.println("Tokens: " + inputs + " Eingaben gleich (" + BUFFER_SIZES.length + " Puffergrößen)");
+    }
+
+    // --- find() ---
+
+    private static long checkFind(CharScanner scalar, CharScanner vector) {
+        long calls = 0;
+        for (CharScanner.Stop stop : CharScanner.Stop.values()) {
+            for (int length = 0; length <= 3 * MAX_LANES; length++) {
+                // Hinter 'to' nur Stoppzeichen: ein Scanner darf dort nichts finden
+                char[] buf = new char[length + MAX_LANES];
+                for (int from : OFFSETS) {
+                    if (from > length) break;
+                    // Kein Stoppzeichen, dann genau eines an jeder Position
+                    for (int at = from - 1; at < length; at++) {
+                        fill(buf, stop, length);
+                        if (at >= from) buf[at] = stopChar(stop, at);
+                        int expected = scalar.find(stop, buf, from, length);
+                        int actual = vector.find(stop, buf, from, length);
+                        if (expected != actual) {
+                            fail("find(" + stop + ", from=" + from + ", to=" + length + ", stop bei " + at + "): skalar "
+                                    + expected + ", vektor " + actual);
+                        }
+                        calls++;
+                    }
+                }
+            }
+        }
+        return calls;
+    }
+
+    // Füllzeichen, die für 'stop' keine Stoppzeichen sind, variiert über die Position
+    private static void fill(char[] buf, CharScanner.Stop stop, int to) {
+        String background = switch (stop) {
+            case NON_WHITESPACE -> " \t\r\n";
+            case NEWLINE -> "a \"\t\r(;é";
+            case QUOTE -> "a \n\t\r(;é\\";
+        };
+        for (int i = 0; i < to; i++) {
+            buf[i] = background.charAt(i % background.length());
+        }
+        for (int i = to; i < buf.length; i++) {
+            buf[i] = stopChar(stop, i);
+        }
+    }
+
+    private static char stopChar(CharScanner.Stop stop, int i) {
+        return switch (stop) {
+            case NON_WHITESPACE -> i % 2 == 0 ? 'x' : '(';
+            case NEWLINE -> i % 2 == 0 ? '\n' : '\0';
+            case QUOTE -> i % 2 == 0 ? '"' : '\0';
+        };
+    }
+
+    // --- Tokenströme ---
+
+    private static void checkTokens(String input, CharScanner scalar, CharScanner vector) {
+        for (boolean diagnostics : new boolean[]{false, true}) {
+            // nextToken() liefert vor einem Fehler schon Tokens, tokenize() nicht: eigene Referenz
+            String expected = bulk(new Lexer(input), scalar, diagnostics);
+            String expectedSteps = stepwise(new Lexer(input), scalar, diagnostics);
+            compare(input, "vektor, Quelle im Speicher", expected, bulk(new Lexer(input), vector, diagnostics));
+            compare(input, "vektor, nextToken()", expectedSteps, stepwise(new Lexer(input), vector, diagnostics));
+            for (int size : BUFFER_SIZES) {
+                compare(input, "vektor, Puffer " + size, expected,
+                        bulk(new Lexer(new StringReader(input), size), vector, diagnostics));
+                compare(input, "skalar, Puffer " + size, expected,
+                        bulk(new Lexer(new StringReader(input), size), scalar, diagnostics));
+                compare(input, "vektor, Puffer " + size + ", nextToken()", expectedSteps,
+                        stepwise(new Lexer(new StringReader(input), size), vector, diagnostics));
+            }
+        }
+    }
+
+    private static void compare(String input, String mode, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            fail("Tokens weichen ab (" + mode + ") bei Eingabe:\n" + input.replace("\0", "\\0")
+                    + "\n--- skalar ---\n" + expected + "--- " + mode + " ---\n" + actual);
+        }
+    }
+
+    // Tokens als Text: Typ, Bereich und Lexem je Zeile, danach Fehler
+    private static String bulk(Lexer lexer, CharScanner scanner, boolean diagnostics) {
+        StringBuilder out = new StringBuilder();
+        Diagnostics errors = setUp(lexer, scanner, diagnostics);
+        try {
+            TokenStream tokens = lexer.tokenize();
+            for (int i = 0; i < tokens.size(); i++) {
+                line(out, tokens.type(i), tokens.start(i), tokens.end(i), tokens.lexeme(i));
+            }
+        } catch (RuntimeException e) {
+            out.append("! ").append(e.getMessage()).append('\n');
+        }
+        return errors(out, errors);
+    }
+
+    private static String stepwise(Lexer lexer, CharScanner scanner, boolean diagnostics) {
+        StringBuilder out = new StringBuilder();
+        Diagnostics errors = setUp(lexer, scanner, diagnostics);
+        try {
+            Token token;
+            do {
+                token = lexer.nextToken();
+                line(out, token.type(), lexer.tokenStart(), lexer.tokenEnd(), token.lexeme());
+            } while (token.type() != TokenType.EOF);
+        } catch (RuntimeException e) {
+            out.append("! ").append(e.getMessage()).append('\n');
+        }
+        return errors(out, errors);
+    }
+
+    private static Diagnostics setUp(Lexer lexer, CharScanner scanner, boolean diagnostics) {
+        lexer.setScanner(scanner);
+        if (!diagnostics) return null;
+        Diagnostics errors = new Diagnostics();
+        lexer.setDiagnostics(errors);
+        return errors;
+    }
+
+    private static void line(StringBuilder out, TokenType type, int start, int end, String lexeme) {
+        out.append(type).append(' ').append(start).append("..").append(end).append(' ').append(lexeme).append('\n');
+    }
+
+    private static String errors(StringBuilder out, Diagnostics errors) {
+        if (errors != null) {
+            for (int i = 0; i < errors.size(); i++) {
+                out.append("# ").append(errors.get(i)).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    // --- Eingaben ---
+
+    private static String corpus(SplittableRandom random) {
+        CorpusGenerator.Shape[] shapes = CorpusGenerator.Shape.values();
+        CorpusGenerator.Shape shape = shapes[random.nextInt(shapes.length)];
+        return new CorpusGenerator(random.nextLong()).generate(shape, 50 + random.nextInt(1500), 1 + random.nextInt(6));
+    }
+
+    // Zufallstext aus Stücken, deren Längen um die Vektorbreiten streuen
+    private static String fragments(SplittableRandom random) {
+        StringBuilder out = new StringBuilder();
+        int pieces = 1 + random.nextInt(12);
+        for (int p = 0; p < pieces; p++) {
+            int length = random.nextInt(3 * MAX_LANES);
+            switch (random.nextInt(9)) {
+                case 0 -> repeat(out, random, " \t\r\n", length);
+                case 1 -> out.append(" ".repeat(length));
+                case 2 -> {
+                    out.append(';');
+                    repeat(out, random, "ab \t\"();", length);
+                    out.append('\n');
+                }
+                case 3 -> {
+                    out.append('"');
+                    repeat(out, random, "ab \n\t;()", length);
+                    out.append('"');
+                }
+                case 4 -> out.append("(defn f (x) (+ x ").append(random.nextInt(1000)).append("))");
+                case 5 -> out.append(random.nextBoolean() ? "wert" : "true").append(' ').append(random.nextInt());
+                case 6 -> out.append(random.nextBoolean() ? "(" : ")");
+                case 7 -> out.append(random.nextBoolean() ? "#" : "99999999999");
+                default -> out.append(random.nextInt(20) == 0 ? "\0" : "x");
+            }
+        }
+        // Ab und zu ein offener String oder Kommentar bis zum Ende der Eingabe
+        switch (random.nextInt(6)) {
+            case 0 -> repeat(out.append('"'), random, "ab \n", random.nextInt(2 * MAX_LANES));
+            case 1 -> repeat(out.append(';'), random, "ab \"", random.nextInt(2 * MAX_LANES));
+            default -> { }
+        }
+        return out.toString();
+    }
+
+    private static StringBuilder repeat(StringBuilder out, SplittableRandom random, String chars, int length) {
+        for (int i = 0; i < length; i++) {
+            out.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return out;
+    }
+
+    private static void fail(String message) {
+        System.err.println("Benchmark Error: " + message);
+        System.exit(1);
+    }
+}
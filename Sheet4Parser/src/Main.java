@@ -1,6 +1,9 @@
+import interpreter.Interpreter;
 import lexer.Lexer;
 import lexer.Token;
 import lexer.TokenType;
+import optimizer.ConstantFolder;
+import optimizer.GlobalOptimizer;
 import parser.*;
 import prettyprint.ASTPrettyPrint;
 import prettyprint.ASTTreePrinter;
@@ -58,6 +61,9 @@ public class Main {
             ASTTreePrinter treePrinter = new ASTTreePrinter();
             System.out.println(treePrinter.print(ast));
 
+            System.out.println("\n--- Ausführung ---");
+            Interpreter interpreter = new Interpreter();
+            interpreter.run(new ConstantFolder().optimize(new GlobalOptimizer().optimize(ast)));
 
         } catch (RuntimeException e) {
             System.err.println("\n!!! FEHLER !!!");
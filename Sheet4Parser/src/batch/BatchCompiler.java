@@ -0,0 +1,313 @@
+package batch;
+
+import parser.AstCache;
+import server.CompileService;
+import server.CompileService.Operation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Verarbeitet viele Quelldateien parallel auf einem Pool fester Größe.
+ * Pro Datei laufen die gewählten Operationen des CompileService (parse, pretty,
+ * tree, eval); jede Ausgabe landet als eigene Datei im Ausgabeverzeichnis, dazu
+ * ein Bericht mit Zeiten pro Datei und Operation (report.tsv).
+ *
+ * Dateien, deren Inhalts-Hash (SHA-256) und Operationen im Manifest eines früheren
+ * erfolgreichen Laufs stehen und deren Ausgaben noch vorhanden sind, werden
+ * übersprungen. Fehlerhafte Dateien werden beim nächsten Lauf erneut verarbeitet.
+ *
+ * Aufruf: java batch.BatchCompiler [--out=Verzeichnis] [--threads=n] [--ops=parse,pretty,tree,eval]
+ *   [--ext=.lisp] [--force] Pfad|Verzeichnis|Glob...
+ */
+public final class BatchCompiler {
+
+    // Ergebnis einer Datei; nanos je ausgeführter Operation, leer wenn übersprungen
+    record FileResult(String path, long bytes, boolean ok, boolean skipped, Map<Operation, Long> nanos, String error) {}
+
+    // Eine Eingabedatei und ihr relativer Pfad im Ausgabeverzeichnis
+    record Input(Path file, String path) {}
+
+    private final Path outputDirectory;
+    private final Set<Operation> operations;
+    private final int threads;
+    private final boolean force;
+    private final CompileService service = new CompileService(null, CompileService.DEFAULT_CACHE_SIZE);
+
+    public BatchCompiler(Path outputDirectory, Set<Operation> operations, int threads, boolean force) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Keine Operationen angegeben");
+        }
+        this.outputDirectory = outputDirectory;
+        this.operations = EnumSet.copyOf(operations);
+        this.threads = threads;
+        this.force = force;
+    }
+
+    /**
+     * Verarbeitet alle Eingaben, schreibt Ausgaben, Bericht und Manifest.
+     * Ergebnisse in der Reihenfolge der Eingaben. Bericht und Manifest werden auch
+     * geschrieben, wenn der Lauf abbricht, dann mit den bis dahin fertigen Dateien.
+     */
+    public List<FileResult> run(List<Input> inputs) {
+        Manifest manifest = Manifest.load(outputDirectory.resolve("manifest.tsv"));
+        String operationNames = operations.stream().map(Enum::name).collect(Collectors.joining(","));
+        Map<String, FileResult> results = new LinkedHashMap<>();
+        inputs.forEach(input -> results.put(input.path(), null));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<FileResult> ordered = new ArrayList<>();
+        try {
+            ExecutorCompletionService<FileResult> completion = new ExecutorCompletionService<>(pool);
+            for (Input input : inputs) {
+                completion.submit(() -> process(input, manifest, operationNames));
+            }
+            for (int i = 0; i < inputs.size(); i++) {
+                FileResult result = completion.take().get();
+                results.put(result.path(), result);
+                System.out.println(line(result));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch abgebrochen", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch Error: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+            results.values().stream().filter(Objects::nonNull).forEach(ordered::add);
+            manifest.save();
+            writeReport(ordered);
+        }
+        return ordered;
+    }
+
+    // Fehler einer Datei (auch Stapelüberlauf oder nicht schreibbare Ausgabe) brechen den Lauf nicht ab
+    private FileResult process(Input input, Manifest manifest, String operationNames) {
+        Map<Operation, Long> nanos = new LinkedHashMap<>();
+        try {
+            return compile(input, manifest, operationNames, nanos);
+        } catch (RuntimeException | StackOverflowError e) {
+            manifest.failed(input.path());
+            String message = e.getMessage() != null ? e.getMessage() : "Batch Error: " + e;
+            return new FileResult(input.path(), 0, false, false, nanos, firstLine(message));
+        }
+    }
+
+    private FileResult compile(Input input, Manifest manifest, String operationNames, Map<Operation, Long> nanos) {
+        String source;
+        try {
+            source = Files.readString(input.file(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            manifest.failed(input.path());
+            return new FileResult(input.path(), 0, false, false, Map.of(), "Batch Error: " + e.getMessage());
+        }
+        long bytes = source.length();
+        String hash = AstCache.key(source);
+        if (!force && manifest.isCurrent(input.path(), hash, operationNames) && outputsExist(input.path())) {
+            return new FileResult(input.path(), bytes, true, true, Map.of(), null);
+        }
+
+        for (Operation operation : operations) {
+            long start = System.nanoTime();
+            CompileService.Result result = service.execute(operation, source);
+            nanos.put(operation, System.nanoTime() - start);
+            write(output(input.path(), operation), result.output());
+            if (!result.ok()) {
+                manifest.failed(input.path());
+                return new FileResult(input.path(), bytes, false, false, nanos, firstLine(result.output()));
+            }
+        }
+        manifest.succeeded(input.path(), hash, operationNames);
+        return new FileResult(input.path(), bytes, true, false, nanos, null);
+    }
+
+    private Path output(String path, Operation operation) {
+        return outputDirectory.resolve(path + "." + operation.name().toLowerCase(Locale.ROOT));
+    }
+
+    private boolean outputsExist(String path) {
+        return operations.stream().allMatch(operation -> Files.isRegularFile(output(path, operation)));
+    }
+
+    private static void write(Path file, String text) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, text, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Batch Error: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeReport(List<FileResult> results) {
+        StringBuilder sb = new StringBuilder("path\tstatus\tchars");
+        operations.forEach(operation -> sb.append('\t').append(operation.name().toLowerCase(Locale.ROOT)).append("_ms"));
+        sb.append("\ttotal_ms\terror\n");
+        for (FileResult r : results) {
+            sb.append(r.path()).append('\t').append(status(r)).append('\t').append(r.bytes());
+            long total = 0;
+            for (Operation operation : operations) {
+                Long nanos = r.nanos().get(operation);
+                sb.append('\t').append(nanos != null ? millis(nanos) : "");
+                total += nanos != null ? nanos : 0;
+            }
+            sb.append('\t').append(millis(total)).append('\t').append(r.error() != null ? r.error() : "").append('\n');
+        }
+        write(outputDirectory.resolve("report.tsv"), sb.toString());
+    }
+
+    private static String status(FileResult r) {
+        return r.skipped() ? "SKIPPED" : r.ok() ? "OK" : "FAILED";
+    }
+
+    private static String line(FileResult r) {
+        long total = r.nanos().values().stream().mapToLong(Long::longValue).sum();
+        return String.format(Locale.ROOT, "%-7s %9s ms  %s%s", status(r), r.skipped() ? "-" : millis(total), r.path(),
+                r.error() != null ? "  (" + r.error() + ")" : "");
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String firstLine(String text) {
+        int newline = text.indexOf('\n');
+        return newline < 0 ? text : text.substring(0, newline);
+    }
+
+    // --- Eingaben ---
+
+    /**
+     * Löst Argumente zu Dateien auf: Dateien direkt, Verzeichnisse rekursiv (nur Endung 'extension',
+     * leer für alle), Argumente mit *, ?, [ oder { als Glob relativ zum Arbeitsverzeichnis.
+     * Dateien im Ausgabeverzeichnis werden ausgelassen.
+     */
+    public static List<Input> resolve(List<String> arguments, String extension, Path outputDirectory) {
+        Map<String, Input> inputs = new LinkedHashMap<>();
+        Path excluded = outputDirectory.toAbsolutePath().normalize();
+        for (String argument : arguments) {
+            for (Input input : expand(argument, extension)) {
+                if (input.file().toAbsolutePath().normalize().startsWith(excluded)) continue;
+                Input previous = inputs.putIfAbsent(input.path(), input);
+                if (previous != null && !previous.file().equals(input.file())) {
+                    throw new IllegalArgumentException("Doppelter Ausgabepfad " + input.path() + ": "
+                            + previous.file() + " und " + input.file());
+                }
+            }
+        }
+        return new ArrayList<>(inputs.values());
+    }
+
+    private static List<Input> expand(String argument, String extension) {
+        if (isGlob(argument)) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + argument);
+            return walk(globBase(argument), matcher::matches, file -> file.normalize().toString());
+        }
+        Path path = Path.of(argument);
+        if (Files.isDirectory(path)) {
+            return walk(path, file -> file.getFileName().toString().endsWith(extension),
+                    file -> path.relativize(file).toString());
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("Datei nicht gefunden: " + argument);
+        }
+        return List.of(new Input(path, path.getFileName().toString()));
+    }
+
+    // Längster Anfang des Globs ohne Sonderzeichen
+    private static Path globBase(String glob) {
+        String[] segments = glob.split("/", -1);
+        StringBuilder base = new StringBuilder(glob.startsWith("/") ? "/" : "");
+        for (int i = 0; i < segments.length - 1 && !isGlob(segments[i]); i++) {
+            if (!segments[i].isEmpty()) base.append(segments[i]).append('/');
+        }
+        return Path.of(base.toString());
+    }
+
+    private static boolean isGlob(String text) {
+        return text.chars().anyMatch(c -> "*?[{".indexOf(c) >= 0);
+    }
+
+    private static List<Input> walk(Path root, Predicate<Path> include,
+                                    Function<Path, String> name) {
+        try (Stream<Path> files = Files.walk(root.toString().isEmpty() ? Path.of(".") : root)) {
+            return files.map(file -> root.toString().isEmpty() ? Path.of(".").relativize(file) : file)
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .filter(include)
+                    .sorted()
+                    .map(file -> new Input(file, name.apply(file)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Batch Error: " + e.getMessage(), e);
+        }
+    }
+
+    public static void main(String[] args) {
+        Path out = Path.of("sheet4-out");
+        int threads = Runtime.getRuntime().availableProcessors();
+        Set<Operation> operations = EnumSet.of(Operation.PARSE, Operation.PRETTY, Operation.TREE);
+        String extension = "";
+        boolean force = false;
+        List<String> paths = new ArrayList<>();
+
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            String value = parts.length > 1 ? parts[1] : "";
+            switch (parts[0]) {
+                case "--out" -> out = Path.of(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--ops" -> operations = Arrays.stream(value.split(","))
+                        .map(name -> Operation.valueOf(name.trim().toUpperCase(Locale.ROOT)))
+                        .collect(Collectors.toCollection(() -> EnumSet.noneOf(Operation.class)));
+                case "--ext" -> extension = value;
+                case "--force" -> force = true;
+                default -> {
+                    if (arg.startsWith("--")) throw new IllegalArgumentException("Unbekannte Option: " + arg);
+                    paths.add(arg);
+                }
+            }
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Aufruf: BatchCompiler [--out=Verzeichnis] [--threads=n] [--ops=parse,pretty,tree,eval] [--ext=.lisp] [--force] Pfad...");
+            System.exit(2);
+        }
+
+        List<Input> inputs = resolve(paths, extension, out);
+        long start = System.nanoTime();
+        List<FileResult> results = new BatchCompiler(out, operations, threads, force).run(inputs);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long ok = results.stream().filter(r -> r.ok() && !r.skipped()).count();
+        long skipped = results.stream().filter(FileResult::skipped).count();
+        long failed = results.stream().filter(r -> !r.ok()).count();
+        long chars = results.stream().filter(r -> !r.skipped()).mapToLong(FileResult::bytes).sum();
+        System.out.printf(Locale.ROOT, "%d Dateien: %d ok, %d übersprungen, %d fehlerhaft in %.2f s (%.1f MB/s, %d Threads)%n",
+                results.size(), ok, skipped, failed, seconds, chars / seconds / (1024 * 1024), threads);
+        System.exit(failed > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,83 @@
+package batch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ergebnisse früherer Läufe: pro Ausgabepfad der Inhalts-Hash der Quelle und die
+ * ausgeführten Operationen, nur für erfolgreich verarbeitete Dateien.
+ * Gespeichert als Textdatei, eine Zeile "hash TAB operationen TAB pfad".
+ */
+final class Manifest {
+    record Entry(String hash, String operations) {}
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private Manifest(Path file) {
+        this.file = file;
+    }
+
+    // Liest das Manifest; fehlt die Datei, ist es leer. Unlesbare Zeilen werden ignoriert.
+    static Manifest load(Path file) {
+        Manifest manifest = new Manifest(file);
+        if (Files.isRegularFile(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    String[] parts = line.split("\t", 3);
+                    if (parts.length == 3) {
+                        manifest.entries.put(parts[2], new Entry(parts[0], parts[1]));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Batch Error: " + e.getMessage(), e);
+            }
+        }
+        return manifest;
+    }
+
+    boolean isCurrent(String path, String hash, String operations) {
+        Entry entry = entries.get(path);
+        return entry != null && entry.hash().equals(hash) && entry.operations().equals(operations);
+    }
+
+    void succeeded(String path, String hash, String operations) {
+        entries.put(path, new Entry(hash, operations));
+    }
+
+    void failed(String path) {
+        entries.remove(path);
+    }
+
+    // Schreibt atomar über eine temporäre Datei, sortiert nach Pfad
+    void save() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(entries).forEach((path, entry) ->
+                sb.append(entry.hash()).append('\t').append(entry.operations()).append('\t').append(path).append('\n'));
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "manifest", ".tmp");
+            try {
+                Files.writeString(temp, sb, StandardCharsets.UTF_8);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Batch Error: " + e.getMessage(), e);
+        }
+    }
+
+    List<String> paths() {
+        return List.copyOf(entries.keySet());
+    }
+}
@@ -0,0 +1,202 @@
+package compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimaler Class-File-Writer: Konstantenpool, statische Felder und statische
+ * Methoden mit Code-Attribut. Erzeugt Version 49 (Java 5), dadurch prüft die JVM
+ * ohne StackMapTable und wir müssen keine Stack-Frames berechnen.
+ */
+final class ClassWriter {
+    private static final int VERSION = 49;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private final String name;
+    private final ConstantPool pool = new ConstantPool();
+    private final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private int fieldCount = 0;
+    private int methodCount = 0;
+
+    ClassWriter(String internalName) {
+        this.name = internalName;
+    }
+
+    ConstantPool pool() {
+        return pool;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void addField(int access, String fieldName, String descriptor) {
+        DataOutputStream out = new DataOutputStream(fields);
+        try {
+            out.writeShort(access);
+            out.writeShort(pool.utf8(fieldName));
+            out.writeShort(pool.utf8(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+    }
+
+    void addMethod(int access, String methodName, String descriptor, Code code) {
+        byte[] bytecode = code.toByteArray();
+        if (bytecode.length > 65535) {
+            throw JvmCompiler.error("Methode " + methodName + " ist zu groß (" + bytecode.length + " Bytes)");
+        }
+        DataOutputStream out = new DataOutputStream(methods);
+        try {
+            out.writeShort(access);
+            out.writeShort(pool.utf8(methodName));
+            out.writeShort(pool.utf8(descriptor));
+            out.writeShort(1);                      // ein Attribut: Code
+            out.writeShort(pool.utf8("Code"));
+            out.writeInt(12 + bytecode.length);
+            out.writeShort(code.maxStack());
+            out.writeShort(code.maxLocals());
+            out.writeInt(bytecode.length);
+            out.write(bytecode);
+            out.writeShort(0);                      // keine Exception-Tabelle
+            out.writeShort(0);                      // keine Attribute
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    byte[] toByteArray() {
+        int thisClass = pool.classRef(name);
+        int superClass = pool.classRef("java/lang/Object");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            pool.write(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);                      // keine Interfaces
+            out.writeShort(fieldCount);
+            fields.writeTo(out);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            out.writeShort(0);                      // keine Klassen-Attribute
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Konstantenpool mit Deduplizierung gleicher Einträge.
+     */
+    static final class ConstantPool {
+        private static final int UTF8 = 1, INTEGER = 3, CLASS = 7, STRING = 8,
+                FIELD_REF = 9, METHOD_REF = 10, NAME_AND_TYPE = 12;
+
+        private final List<byte[]> entries = new ArrayList<>();
+        private final Map<String, Integer> index = new HashMap<>();
+
+        int utf8(String value) {
+            return entry("U" + value, out -> {
+                out.writeByte(UTF8);
+                out.writeUTF(value);   // modifiziertes UTF-8, wie vom Class-File-Format verlangt
+            });
+        }
+
+        int integer(int value) {
+            return entry("I" + value, out -> {
+                out.writeByte(INTEGER);
+                out.writeInt(value);
+            });
+        }
+
+        int classRef(String internalName) {
+            int nameIndex = utf8(internalName);
+            return entry("C" + internalName, out -> {
+                out.writeByte(CLASS);
+                out.writeShort(nameIndex);
+            });
+        }
+
+        int string(String value) {
+            int valueIndex = utf8(value);
+            return entry("S" + value, out -> {
+                out.writeByte(STRING);
+                out.writeShort(valueIndex);
+            });
+        }
+
+        int fieldRef(String owner, String fieldName, String descriptor) {
+            return memberRef(FIELD_REF, owner, fieldName, descriptor);
+        }
+
+        int methodRef(String owner, String methodName, String descriptor) {
+            return memberRef(METHOD_REF, owner, methodName, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String memberName, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameIndex = utf8(memberName);
+            int typeIndex = utf8(descriptor);
+            int nameAndType = entry("N" + memberName + ":" + descriptor, out -> {
+                out.writeByte(NAME_AND_TYPE);
+                out.writeShort(nameIndex);
+                out.writeShort(typeIndex);
+            });
+            return entry("M" + tag + owner + "." + memberName + ":" + descriptor, out -> {
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private interface EntryWriter {
+            void write(DataOutputStream out) throws IOException;
+        }
+
+        private int entry(String key, EntryWriter writer) {
+            Integer existing = index.get(key);
+            if (existing != null) return existing;
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try {
+                writer.write(new DataOutputStream(bytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            entries.add(bytes.toByteArray());
+            int i = entries.size();          // Pool-Indizes beginnen bei 1
+            if (i > 65535) {
+                throw JvmCompiler.error("Konstantenpool ist voll");
+            }
+            index.put(key, i);
+            return i;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeShort(entries.size() + 1);
+            for (byte[] entry : entries) {
+                out.write(entry);
+            }
+        }
+    }
+}
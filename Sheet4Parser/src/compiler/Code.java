@@ -0,0 +1,295 @@
+package compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bytecode-Puffer einer Methode. Führt die Stacktiefe mit, damit max_stack
+ * ohne eigene Datenflussanalyse feststeht; Sprungziele werden über Labels nachgetragen.
+ */
+final class Code {
+    // Opcodes (JVMS Kapitel 6)
+    private static final int ACONST_NULL = 0x01, ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11,
+            LDC = 0x12, LDC_W = 0x13, ILOAD = 0x15, ALOAD = 0x19, ISTORE = 0x36, ASTORE = 0x3a,
+            AASTORE = 0x53, POP = 0x57, DUP = 0x59, IADD = 0x60, ISUB = 0x64, IMUL = 0x68, INEG = 0x74,
+            IFEQ = 0x99, IFNE = 0x9a, IF_ICMPEQ = 0x9f, IF_ICMPNE = 0xa0, IF_ICMPLT = 0xa1,
+            IF_ICMPGE = 0xa2, IF_ICMPGT = 0xa3, IF_ICMPLE = 0xa4, GOTO = 0xa7,
+            ARETURN = 0xb0, GETSTATIC = 0xb2, PUTSTATIC = 0xb3, INVOKESTATIC = 0xb8, ANEWARRAY = 0xbd;
+
+    static final class Label {
+        private Label() {}
+
+        private int position = -1;
+        private int stack = -1;
+        private final List<int[]> fixups = new ArrayList<>();   // {Opcode-Position, Operand-Position}
+    }
+
+    private final ClassWriter.ConstantPool pool;
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private final List<Label> labels = new ArrayList<>();
+    private int stack = 0;
+    private int maxStack = 0;
+    private int maxLocals;
+
+    Code(ClassWriter.ConstantPool pool, int parameterSlots) {
+        this.pool = pool;
+        this.maxLocals = parameterSlots;
+    }
+
+    int maxStack() {
+        return maxStack;
+    }
+
+    int maxLocals() {
+        return maxLocals;
+    }
+
+    // Reserviert einen neuen lokalen Slot (int und Referenzen belegen je einen)
+    int newLocal() {
+        return maxLocals++;
+    }
+
+    // --- Konstanten und Variablen ---
+
+    void iconst(int value) {
+        if (value >= -1 && value <= 5) {
+            op(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            op(BIPUSH);
+            u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            op(SIPUSH);
+            u2(value);
+        } else {
+            ldc(pool.integer(value));
+        }
+        push(1);
+    }
+
+    void sconst(String value) {
+        ldc(pool.string(value));
+        push(1);
+    }
+
+    private void ldc(int index) {
+        if (index <= 255) {
+            op(LDC);
+            u1(index);
+        } else {
+            op(LDC_W);
+            u2(index);
+        }
+    }
+
+    void aconstNull() {
+        op(ACONST_NULL);
+        push(1);
+    }
+
+    void aload(int slot) {
+        local(ALOAD, slot);
+        push(1);
+    }
+
+    void iload(int slot) {
+        local(ILOAD, slot);
+        push(1);
+    }
+
+    void astore(int slot) {
+        local(ASTORE, slot);
+        push(-1);
+    }
+
+    void istore(int slot) {
+        local(ISTORE, slot);
+        push(-1);
+    }
+
+    private void local(int opcode, int slot) {
+        if (slot > 255) {
+            throw JvmCompiler.error("Zu viele lokale Variablen");
+        }
+        op(opcode);
+        u1(slot);
+    }
+
+    // --- Stack und Arithmetik ---
+
+    void pop() {
+        op(POP);
+        push(-1);
+    }
+
+    void dup() {
+        op(DUP);
+        push(1);
+    }
+
+    void iadd() {
+        op(IADD);
+        push(-1);
+    }
+
+    void isub() {
+        op(ISUB);
+        push(-1);
+    }
+
+    void imul() {
+        op(IMUL);
+        push(-1);
+    }
+
+    void ineg() {
+        op(INEG);
+    }
+
+    // --- Arrays, Felder, Aufrufe ---
+
+    void anewarray(String internalName) {
+        op(ANEWARRAY);
+        u2(pool.classRef(internalName));
+    }
+
+    void aastore() {
+        op(AASTORE);
+        push(-3);
+    }
+
+    void getstatic(String owner, String name, String descriptor) {
+        op(GETSTATIC);
+        u2(pool.fieldRef(owner, name, descriptor));
+        push(1);
+    }
+
+    void putstatic(String owner, String name, String descriptor) {
+        op(PUTSTATIC);
+        u2(pool.fieldRef(owner, name, descriptor));
+        push(-1);
+    }
+
+    void invokestatic(String owner, String name, String descriptor) {
+        op(INVOKESTATIC);
+        u2(pool.methodRef(owner, name, descriptor));
+        push(-argumentSlots(descriptor) + (descriptor.endsWith(")V") ? 0 : 1));
+    }
+
+    void areturn() {
+        op(ARETURN);
+        push(-1);
+    }
+
+    // --- Sprünge ---
+
+    void ifeq(Label target) {
+        jump(IFEQ, target, -1);
+    }
+
+    void ifne(Label target) {
+        jump(IFNE, target, -1);
+    }
+
+    // Vergleich zweier ints, springt wenn die Bedingung gilt
+    void ifIcmp(Comparison comparison, Label target) {
+        int opcode = switch (comparison) {
+            case EQ -> IF_ICMPEQ;
+            case NE -> IF_ICMPNE;
+            case LT -> IF_ICMPLT;
+            case GE -> IF_ICMPGE;
+            case GT -> IF_ICMPGT;
+            case LE -> IF_ICMPLE;
+        };
+        jump(opcode, target, -2);
+    }
+
+    enum Comparison { EQ, NE, LT, GE, GT, LE }
+
+    void goTo(Label target) {
+        jump(GOTO, target, 0);
+        stack = -1;   // danach unerreichbar bis zum nächsten Label
+    }
+
+    void place(Label label) {
+        label.position = code.size();
+        if (label.stack >= 0) {
+            stack = label.stack;
+        }
+    }
+
+    private void jump(int opcode, Label target, int delta) {
+        push(delta);
+        if (target.stack < 0) {
+            target.stack = stack;
+        }
+        int at = code.size();
+        op(opcode);
+        target.fixups.add(new int[]{at, code.size()});
+        u2(0);
+    }
+
+    Label newLabel() {
+        Label label = new Label();
+        labels.add(label);
+        return label;
+    }
+
+    // Fertiger Bytecode mit eingetragenen Sprungweiten
+    byte[] toByteArray() {
+        byte[] bytes = code.toByteArray();
+        for (Label label : labels) {
+            patch(bytes, label);
+        }
+        return bytes;
+    }
+
+    private static void patch(byte[] bytes, Label label) {
+        if (label.position < 0 && !label.fixups.isEmpty()) {
+            throw new IllegalStateException("Label wurde nie platziert");
+        }
+        for (int[] fixup : label.fixups) {
+            int offset = label.position - fixup[0];
+            if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                throw JvmCompiler.error("Sprungweite zu groß: " + offset);
+            }
+            bytes[fixup[1]] = (byte) (offset >> 8);
+            bytes[fixup[1] + 1] = (byte) offset;
+        }
+    }
+
+    // --- Hilfsmethoden ---
+
+    private void op(int opcode) {
+        if (stack < 0) stack = 0;   // Code nach goto ohne Label: Tiefe neu beginnen
+        code.write(opcode);
+    }
+
+    private void u1(int value) {
+        code.write(value);
+    }
+
+    private void u2(int value) {
+        code.write(value >> 8);
+        code.write(value);
+    }
+
+    private void push(int delta) {
+        stack += delta;
+        if (stack > maxStack) maxStack = stack;
+    }
+
+    // Anzahl Stack-Slots der Parameter laut Deskriptor (nur I, Z, L...;, [...)
+    private static int argumentSlots(String descriptor) {
+        int slots = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            while (c == '[') c = descriptor.charAt(++i);
+            if (c == 'L') i = descriptor.indexOf(';', i);
+            slots++;
+            i++;
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,62 @@
+package compiler;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Ein vom JvmCompiler erzeugtes und geladenes Programm.
+ */
+public final class CompiledProgram {
+    // Wert eines def-Felds vor seiner Zuweisung; wird von der erzeugten Klasse gelesen
+    static final Object UNDEFINED = new Object();
+
+    private final Class<?> programClass;
+    private final MethodHandle run;
+    private final MethodHandle setOut;
+
+    CompiledProgram(MethodHandles.Lookup lookup) throws IllegalAccessException {
+        this.programClass = lookup.lookupClass();
+        try {
+            this.run = lookup.findStatic(programClass, "run", MethodType.methodType(Object.class));
+            this.setOut = lookup.findStaticSetter(programClass, "out", PrintStream.class);
+        } catch (NoSuchMethodException | NoSuchFieldException e) {
+            throw JvmCompiler.error("Erzeugte Klasse unvollständig: " + e.getMessage());
+        }
+    }
+
+    // Von der erzeugten Klasse beim Lesen eines def-Felds aufgerufen
+    static Object defined(Object value, String name) {
+        if (value == UNDEFINED) {
+            throw new RuntimeException("Runtime Error: Undefinierter Name: " + name);
+        }
+        return value;
+    }
+
+    public Class<?> programClass() {
+        return programClass;
+    }
+
+    public Object run() {
+        return run(System.out);
+    }
+
+    /**
+     * Führt die Top-Level-Ausdrücke aus; 'print' schreibt auf 'out'.
+     * Ergebnis ist der Wert des letzten Ausdrucks. Die def-Variablen beginnen bei
+     * jedem Aufruf undefiniert.
+     */
+    public synchronized Object run(PrintStream out) {
+        try {
+            setOut.invokeExact(out);
+            return (Object) run.invokeExact();
+        } catch (StackOverflowError e) {
+            throw new RuntimeException("Runtime Error: Stapelüberlauf (zu tiefe Rekursion)");
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Runtime Error: " + t.getMessage(), t);
+        }
+    }
+}
@@ -0,0 +1,566 @@
+package compiler;
+
+import lexer.Symbol;
+import parser.Expr;
+import parser.Expr.*;
+import parser.ExprVisitor;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Übersetzt ein Expr.Program in eine JVM-Klasse, die als Hidden Class geladen wird.
+ *
+ * - jedes (top-level) defn wird eine statische Methode (Object, ...)Object
+ * - jedes def wird ein statisches Feld vom Typ Object
+ * - die übrigen Ausdrücke landen der Reihe nach in run()
+ *
+ * Ausdrücke haben einen statischen Typ INT, BOOL oder OBJECT. Arithmetik und
+ * Vergleiche arbeiten direkt auf int (Operanden unbekannten Typs werden einmal
+ * ausgepackt), let-Variablen mit bekanntem Typ liegen als int in lokalen Slots.
+ * Geboxt wird erst, wo ein Object verlangt ist. So kann HotSpot den Code wie
+ * normales Java inlinen und optimieren.
+ *
+ * Ein Selbstaufruf in Tail-Position überschreibt die Parameter und springt an den
+ * Anfang der Methode, endrekursive Schleifen wachsen so nicht den Java-Stack.
+ * def-Felder stehen bis zu ihrer Zuweisung auf CompiledProgram.UNDEFINED, ein
+ * Lesen davor ist wie im Interpreter ein "Undefinierter Name".
+ *
+ * Nicht unterstützt (Compile Error): defn unterhalb der obersten Ebene und
+ * Funktionen als Werte (z.B. Aufruf über eine Variable).
+ */
+public class JvmCompiler implements ExprVisitor<JvmCompiler.Type> {
+
+    enum Type { INT, BOOL, OBJECT }
+
+    private static final String CLASS_NAME = "compiler/CompiledScript";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String OBJECT_DESC = "Ljava/lang/Object;";
+    private static final String VALUES = "interpreter/Values";
+    private static final String BUILTINS = "interpreter/Builtins";
+    private static final String PRINT_STREAM_DESC = "Ljava/io/PrintStream;";
+    private static final Set<String> ARRAY_BUILTINS = Set.of("list", "head", "tail", "str");
+
+    private record Local(Symbol name, Type type, int slot) {}
+
+    private final Map<Symbol, Defn> functions = new LinkedHashMap<>();
+    private final Set<Symbol> globals = new LinkedHashSet<>();
+    private final List<Local> scope = new ArrayList<>();
+    private final TypeInference inference = new TypeInference();
+    private ClassWriter classWriter;
+    private Code code;
+    private Defn currentFunction;     // gerade übersetzte Funktion, null in run()
+    private Code.Label functionStart;
+    private boolean tail = false;     // nächster Ausdruck steht in Tail-Position von 'currentFunction'
+
+    /**
+     * Übersetzt und lädt das Programm. Jeder Aufruf erzeugt eine eigene Klasse.
+     */
+    public CompiledProgram compile(Program program) {
+        functions.clear();
+        globals.clear();
+        collectDefinitions(program);
+
+        classWriter = new ClassWriter(CLASS_NAME);
+        classWriter.addField(ClassWriter.ACC_STATIC, "out", PRINT_STREAM_DESC);
+        for (Symbol global : globals) {
+            classWriter.addField(ClassWriter.ACC_STATIC, globalField(global), OBJECT_DESC);
+        }
+        for (Defn defn : functions.values()) {
+            compileFunction(defn);
+        }
+        compileRun(program);
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classWriter.toByteArray(), true);
+            return new CompiledProgram(lookup);
+        } catch (IllegalAccessException e) {
+            throw error("Klasse konnte nicht geladen werden: " + e.getMessage());
+        }
+    }
+
+    // Sammelt defn (nur oberste Ebene) und alle def-Namen, bevor Code erzeugt wird
+    private void collectDefinitions(Program program) {
+        for (Expr e : program.expressions()) {
+            if (e instanceof Defn defn) {
+                if (functions.put(defn.name(), defn) != null) {
+                    throw error("Funktion mehrfach definiert: " + defn.name());
+                }
+                defn.body().accept(new DefinitionCollector());
+            } else {
+                e.accept(new DefinitionCollector());
+            }
+        }
+        for (Symbol global : globals) {
+            if (functions.containsKey(global)) {
+                throw error("Name ist sowohl def als auch defn: " + global);
+            }
+        }
+    }
+
+    private void compileFunction(Defn defn) {
+        int arity = defn.params().size();
+        code = new Code(classWriter.pool(), arity);
+        scope.clear();
+        for (int i = 0; i < arity; i++) {
+            scope.add(new Local(defn.params().get(i), Type.OBJECT, i));
+        }
+        currentFunction = defn;
+        functionStart = code.newLabel();
+        code.place(functionStart);
+        tail = true;
+        compileAs(defn.body(), Type.OBJECT, null);
+        currentFunction = null;
+        code.areturn();
+        classWriter.addMethod(ClassWriter.ACC_STATIC, functionMethod(defn.name()), functionDescriptor(arity), code);
+    }
+
+    private void compileRun(Program program) {
+        code = new Code(classWriter.pool(), 0);
+        scope.clear();
+        tail = false;
+        for (Symbol global : globals) {
+            code.getstatic("compiler/CompiledProgram", "UNDEFINED", OBJECT_DESC);
+            code.putstatic(CLASS_NAME, globalField(global), OBJECT_DESC);
+        }
+        boolean hasValue = false;
+        for (Expr e : program.expressions()) {
+            if (hasValue) code.pop();
+            if (e instanceof Defn) {
+                code.aconstNull();
+            } else {
+                compileAs(e, Type.OBJECT, null);
+            }
+            hasValue = true;
+        }
+        if (!hasValue) code.aconstNull();
+        code.areturn();
+        classWriter.addMethod(ClassWriter.ACC_STATIC, "run", "()" + OBJECT_DESC, code);
+    }
+
+    // --- Typen und Umwandlungen ---
+
+    private void compileAs(Expr expr, Type want, String operation) {
+        coerce(expr.accept(this), want, operation);
+    }
+
+    private void coerce(Type have, Type want, String operation) {
+        if (have == want) return;
+        switch (want) {
+            case OBJECT -> box(have);
+            case INT -> {
+                if (have == Type.BOOL) box(have);   // schlägt zur Laufzeit in asInt fehl, wie im Interpreter
+                code.sconst(operation);
+                code.invokestatic(VALUES, "asInt", "(" + OBJECT_DESC + "Ljava/lang/String;)I");
+            }
+            case BOOL -> {
+                if (have == Type.INT) {
+                    code.pop();          // jede Zahl ist wahr
+                    code.iconst(1);
+                } else {
+                    code.invokestatic(VALUES, "truthy", "(" + OBJECT_DESC + ")Z");
+                }
+            }
+        }
+    }
+
+    private void box(Type type) {
+        if (type == Type.INT) {
+            code.invokestatic("java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;");
+        } else if (type == Type.BOOL) {
+            code.invokestatic("java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;");
+        }
+    }
+
+    private static Type merge(Type a, Type b) {
+        return a == b ? a : Type.OBJECT;
+    }
+
+    private Local findLocal(Symbol name) {
+        for (int i = scope.size() - 1; i >= 0; i--) {
+            if (scope.get(i).name() == name) return scope.get(i);
+        }
+        return null;
+    }
+
+    // --- Visitor Implementierungen (Codeerzeugung) ---
+
+    @Override
+    public Type visitProgram(Program expr) {
+        throw error("Verschachteltes Program");
+    }
+
+    @Override
+    public Type visitIntLiteral(IntLiteral expr) {
+        code.iconst(expr.value());
+        return Type.INT;
+    }
+
+    @Override
+    public Type visitStringLiteral(StringLiteral expr) {
+        code.sconst(expr.value());
+        return Type.OBJECT;
+    }
+
+    @Override
+    public Type visitBoolLiteral(BoolLiteral expr) {
+        code.iconst(expr.value() ? 1 : 0);
+        return Type.BOOL;
+    }
+
+    @Override
+    public Type visitVariable(Variable expr) {
+        Local local = findLocal(expr.name());
+        if (local != null) {
+            if (local.type() == Type.OBJECT) code.aload(local.slot());
+            else code.iload(local.slot());
+            return local.type();
+        }
+        if (globals.contains(expr.name())) {
+            code.getstatic(CLASS_NAME, globalField(expr.name()), OBJECT_DESC);
+            code.sconst(expr.name().name());
+            code.invokestatic("compiler/CompiledProgram", "defined", "(" + OBJECT_DESC + "Ljava/lang/String;)" + OBJECT_DESC);
+            return Type.OBJECT;
+        }
+        if (functions.containsKey(expr.name()) || isBuiltin(expr.name().name())) {
+            throw error("Funktionen als Werte werden nicht unterstützt: " + expr.name());
+        }
+        throw error("Undefinierter Name: " + expr.name());
+    }
+
+    @Override
+    public Type visitDef(Def expr) {
+        tail = false;
+        compileAs(expr.value(), Type.OBJECT, null);
+        code.dup();
+        code.putstatic(CLASS_NAME, globalField(expr.name()), OBJECT_DESC);
+        return Type.OBJECT;
+    }
+
+    @Override
+    public Type visitDefn(Defn expr) {
+        throw error("defn ist nur auf oberster Ebene unterstützt: " + expr.name());
+    }
+
+    @Override
+    public Type visitLet(Let expr) {
+        boolean bodyTail = tail;
+        int mark = scope.size();
+        for (Binding b : expr.bindings()) {
+            tail = false;
+            Type type = b.value().accept(this);
+            int slot = code.newLocal();
+            if (type == Type.OBJECT) code.astore(slot);
+            else code.istore(slot);
+            scope.add(new Local(b.name(), type, slot));
+        }
+        tail = bodyTail;
+        Type result = expr.body().accept(this);
+        scope.subList(mark, scope.size()).clear();
+        return result;
+    }
+
+    @Override
+    public Type visitIf(If expr) {
+        Type result = merge(inference.of(expr.thenBranch()),
+                expr.elseBranch() != null ? inference.of(expr.elseBranch()) : Type.OBJECT);
+
+        boolean branchTail = tail;
+        Code.Label otherwise = code.newLabel();
+        Code.Label end = code.newLabel();
+        tail = false;
+        compileAs(expr.condition(), Type.BOOL, null);
+        code.ifeq(otherwise);
+        tail = branchTail;
+        compileAs(expr.thenBranch(), result, null);
+        code.goTo(end);
+        code.place(otherwise);
+        if (expr.elseBranch() != null) {
+            tail = branchTail;
+            compileAs(expr.elseBranch(), result, null);
+        } else {
+            code.aconstNull();
+        }
+        code.place(end);
+        return result;
+    }
+
+    @Override
+    public Type visitDo(Do expr) {
+        List<Expr> exprs = expr.expressions();
+        if (exprs.isEmpty()) {
+            code.aconstNull();
+            return Type.OBJECT;
+        }
+        boolean lastTail = tail;
+        for (int i = 0; i < exprs.size() - 1; i++) {
+            tail = false;
+            exprs.get(i).accept(this);
+            code.pop();
+        }
+        tail = lastTail;
+        return exprs.get(exprs.size() - 1).accept(this);
+    }
+
+    @Override
+    public Type visitCall(Call expr) {
+        Symbol name = expr.functionName();
+        List<Expr> args = expr.arguments();
+        boolean tailCall = tail;
+        tail = false;
+        if (findLocal(name) != null) {
+            throw error("Aufruf über lokale Variable wird nicht unterstützt: " + name);
+        }
+        Defn function = functions.get(name);
+        if (function != null) {
+            if (args.size() != function.params().size()) {
+                throw error("'" + name + "' erwartet " + function.params().size() + " Argument(e), bekommen: " + args.size());
+            }
+            for (Expr arg : args) {
+                compileAs(arg, Type.OBJECT, null);
+            }
+            if (tailCall && function == currentFunction) {
+                // Selbstaufruf in Tail-Position: Parameter ersetzen und von vorn beginnen
+                for (int i = args.size() - 1; i >= 0; i--) {
+                    code.astore(i);
+                }
+                code.goTo(functionStart);
+                return Type.OBJECT;   // folgender Code ist unerreichbar
+            }
+            code.invokestatic(CLASS_NAME, functionMethod(name), functionDescriptor(args.size()));
+            return Type.OBJECT;
+        }
+
+        String op = name.name();
+        switch (op) {
+            case "+", "*" -> {
+                code.iconst(op.equals("+") ? 0 : 1);
+                for (Expr arg : args) {
+                    compileAs(arg, Type.INT, op);
+                    if (op.equals("+")) code.iadd(); else code.imul();
+                }
+                return Type.INT;
+            }
+            case "-", "/" -> {
+                if (args.isEmpty()) {
+                    throw error("'" + op + "' erwartet mindestens 1 Argument(e), bekommen: 0");
+                }
+                if (args.size() == 1) {
+                    if (op.equals("-")) {
+                        compileAs(args.get(0), Type.INT, op);
+                        code.ineg();
+                    } else {
+                        code.iconst(1);
+                        compileAs(args.get(0), Type.INT, op);
+                        code.invokestatic(BUILTINS, "divide", "(II)I");
+                    }
+                    return Type.INT;
+                }
+                compileAs(args.get(0), Type.INT, op);
+                for (int i = 1; i < args.size(); i++) {
+                    compileAs(args.get(i), Type.INT, op);
+                    if (op.equals("-")) code.isub(); else code.invokestatic(BUILTINS, "divide", "(II)I");
+                }
+                return Type.INT;
+            }
+            case "<", ">" -> {
+                if (args.size() != 2) return genericBuiltin(op.equals("<") ? "less" : "greater", args);
+                compileAs(args.get(0), Type.INT, op);
+                compileAs(args.get(1), Type.INT, op);
+                return compareResult(op.equals("<") ? Code.Comparison.LT : Code.Comparison.GT);
+            }
+            case "=" -> {
+                if (args.size() != 2) return genericBuiltin("equal", args);
+                Type left = inference.of(args.get(0));
+                Type right = inference.of(args.get(1));
+                if (left == right && left != Type.OBJECT) {
+                    args.get(0).accept(this);
+                    args.get(1).accept(this);
+                    return compareResult(Code.Comparison.EQ);
+                }
+                compileAs(args.get(0), Type.OBJECT, null);
+                compileAs(args.get(1), Type.OBJECT, null);
+                code.invokestatic(VALUES, "equal", "(" + OBJECT_DESC + OBJECT_DESC + ")Z");
+                return Type.BOOL;
+            }
+            case "print" -> {
+                code.getstatic(CLASS_NAME, "out", PRINT_STREAM_DESC);
+                argumentArray(args);
+                code.invokestatic(BUILTINS, "print", "(" + PRINT_STREAM_DESC + "[" + OBJECT_DESC + ")" + OBJECT_DESC);
+                return Type.OBJECT;
+            }
+            default -> {
+                if (ARRAY_BUILTINS.contains(op)) return genericBuiltin(op, args);
+                if (globals.contains(name)) {
+                    throw error("Aufruf über eine def-Variable wird nicht unterstützt: " + name);
+                }
+                throw error("Unbekannte Funktion: " + name);
+            }
+        }
+    }
+
+    // Legt das Ergebnis eines int-Vergleichs als 0/1 auf den Stack
+    private Type compareResult(Code.Comparison comparison) {
+        Code.Label yes = code.newLabel();
+        Code.Label end = code.newLabel();
+        code.ifIcmp(comparison, yes);
+        code.iconst(0);
+        code.goTo(end);
+        code.place(yes);
+        code.iconst(1);
+        code.place(end);
+        return Type.BOOL;
+    }
+
+    private Type genericBuiltin(String method, List<Expr> args) {
+        argumentArray(args);
+        code.invokestatic(BUILTINS, method, "([" + OBJECT_DESC + ")" + OBJECT_DESC);
+        return Type.OBJECT;
+    }
+
+    private void argumentArray(List<Expr> args) {
+        code.iconst(args.size());
+        code.anewarray(OBJECT);
+        for (int i = 0; i < args.size(); i++) {
+            code.dup();
+            code.iconst(i);
+            compileAs(args.get(i), Type.OBJECT, null);
+            code.aastore();
+        }
+    }
+
+    private static boolean isBuiltin(String name) {
+        return ARRAY_BUILTINS.contains(name) || name.equals("print")
+                || Set.of("+", "-", "*", "/", "=", "<", ">").contains(name);
+    }
+
+    private static String globalField(Symbol name) {
+        return "def$" + name.name();
+    }
+
+    private static String functionMethod(Symbol name) {
+        return "defn$" + name.name();
+    }
+
+    private static String functionDescriptor(int arity) {
+        return "(" + OBJECT_DESC.repeat(arity) + ")" + OBJECT_DESC;
+    }
+
+    static RuntimeException error(String message) {
+        return new RuntimeException("Compile Error: " + message);
+    }
+
+    /**
+     * Sammelt def-Namen in beliebiger Tiefe und lehnt verschachtelte defn ab.
+     */
+    private final class DefinitionCollector implements ExprVisitor<Void> {
+        @Override public Void visitProgram(Program expr) { return null; }
+        @Override public Void visitIntLiteral(IntLiteral expr) { return null; }
+        @Override public Void visitStringLiteral(StringLiteral expr) { return null; }
+        @Override public Void visitBoolLiteral(BoolLiteral expr) { return null; }
+        @Override public Void visitVariable(Variable expr) { return null; }
+
+        @Override
+        public Void visitDef(Def expr) {
+            globals.add(expr.name());
+            return expr.value().accept(this);
+        }
+
+        @Override
+        public Void visitDefn(Defn expr) {
+            throw error("defn ist nur auf oberster Ebene unterstützt: " + expr.name());
+        }
+
+        @Override
+        public Void visitLet(Let expr) {
+            for (Binding b : expr.bindings()) {
+                b.value().accept(this);
+            }
+            return expr.body().accept(this);
+        }
+
+        @Override
+        public Void visitIf(If expr) {
+            expr.condition().accept(this);
+            expr.thenBranch().accept(this);
+            if (expr.elseBranch() != null) expr.elseBranch().accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitDo(Do expr) {
+            for (Expr e : expr.expressions()) e.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitCall(Call expr) {
+            for (Expr arg : expr.arguments()) arg.accept(this);
+            return null;
+        }
+    }
+
+    /**
+     * Bestimmt den statischen Typ eines Ausdrucks nach denselben Regeln wie die
+     * Codeerzeugung, ohne Code zu erzeugen (für If und '=').
+     */
+    private final class TypeInference implements ExprVisitor<Type> {
+
+        Type of(Expr expr) {
+            return expr.accept(this);
+        }
+
+        @Override public Type visitProgram(Program expr) { return Type.OBJECT; }
+        @Override public Type visitIntLiteral(IntLiteral expr) { return Type.INT; }
+        @Override public Type visitStringLiteral(StringLiteral expr) { return Type.OBJECT; }
+        @Override public Type visitBoolLiteral(BoolLiteral expr) { return Type.BOOL; }
+        @Override public Type visitDef(Def expr) { return Type.OBJECT; }
+        @Override public Type visitDefn(Defn expr) { return Type.OBJECT; }
+
+        @Override
+        public Type visitVariable(Variable expr) {
+            Local local = findLocal(expr.name());
+            return local != null ? local.type() : Type.OBJECT;
+        }
+
+        @Override
+        public Type visitLet(Let expr) {
+            int mark = scope.size();
+            for (Binding b : expr.bindings()) {
+                scope.add(new Local(b.name(), b.value().accept(this), -1));
+            }
+            Type result = expr.body().accept(this);
+            scope.subList(mark, scope.size()).clear();
+            return result;
+        }
+
+        @Override
+        public Type visitIf(If expr) {
+            return merge(expr.thenBranch().accept(this),
+                    expr.elseBranch() != null ? expr.elseBranch().accept(this) : Type.OBJECT);
+        }
+
+        @Override
+        public Type visitDo(Do expr) {
+            List<Expr> exprs = expr.expressions();
+            return exprs.isEmpty() ? Type.OBJECT : exprs.get(exprs.size() - 1).accept(this);
+        }
+
+        @Override
+        public Type visitCall(Call expr) {
+            if (findLocal(expr.functionName()) != null || functions.containsKey(expr.functionName())) {
+                return Type.OBJECT;
+            }
+            return switch (expr.functionName().name()) {
+                case "+", "-", "*", "/" -> Type.INT;
+                case "<", ">", "=" -> expr.arguments().size() == 2 ? Type.BOOL : Type.OBJECT;
+                default -> Type.OBJECT;
+            };
+        }
+    }
+}
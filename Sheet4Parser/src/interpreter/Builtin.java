@@ -0,0 +1,21 @@
+package interpreter;
+
+/**
+ * Eingebaute Funktion (Operatoren, list, tail, str, print, ...).
+ */
+public record Builtin(String name, Implementation implementation) {
+
+    @FunctionalInterface
+    public interface Implementation {
+        Object apply(Object[] args);
+    }
+
+    public Object apply(Object[] args) {
+        return implementation.apply(args);
+    }
+
+    @Override
+    public String toString() {
+        return "<builtin " + name + ">";
+    }
+}
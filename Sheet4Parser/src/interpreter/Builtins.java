@@ -0,0 +1,150 @@
+package interpreter;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Die eingebauten Funktionen. Die Methoden sind statisch, damit auch andere
+ * Backends sie direkt aufrufen können.
+ */
+public final class Builtins {
+
+    private Builtins() {}
+
+    /**
+     * Alle Builtins; 'print' schreibt auf 'out'.
+     */
+    public static List<Builtin> all(PrintStream out) {
+        List<Builtin> builtins = new ArrayList<>();
+        builtins.add(new Builtin("+", Builtins::add));
+        builtins.add(new Builtin("-", Builtins::subtract));
+        builtins.add(new Builtin("*", Builtins::multiply));
+        builtins.add(new Builtin("/", Builtins::divide));
+        builtins.add(new Builtin("=", Builtins::equal));
+        builtins.add(new Builtin("<", Builtins::less));
+        builtins.add(new Builtin(">", Builtins::greater));
+        builtins.add(new Builtin("list", Builtins::list));
+        builtins.add(new Builtin("head", Builtins::head));
+        builtins.add(new Builtin("tail", Builtins::tail));
+        builtins.add(new Builtin("str", Builtins::str));
+        builtins.add(new Builtin("print", args -> print(out, args)));
+        return builtins;
+    }
+
+    // --- Arithmetik ---
+
+    public static Object add(Object[] args) {
+        int sum = 0;
+        for (Object arg : args) {
+            sum += Values.asInt(arg, "+");
+        }
+        return sum;
+    }
+
+    public static Object subtract(Object[] args) {
+        arity("-", args, 1);
+        int result = Values.asInt(args[0], "-");
+        if (args.length == 1) return -result;
+        for (int i = 1; i < args.length; i++) {
+            result -= Values.asInt(args[i], "-");
+        }
+        return result;
+    }
+
+    public static Object multiply(Object[] args) {
+        int product = 1;
+        for (Object arg : args) {
+            product *= Values.asInt(arg, "*");
+        }
+        return product;
+    }
+
+    public static Object divide(Object[] args) {
+        arity("/", args, 1);
+        int result = Values.asInt(args[0], "/");
+        if (args.length == 1) return divide(1, result);
+        for (int i = 1; i < args.length; i++) {
+            result = divide(result, Values.asInt(args[i], "/"));
+        }
+        return result;
+    }
+
+    public static int divide(int a, int b) {
+        if (b == 0) throw Values.error("Division durch 0");
+        return a / b;
+    }
+
+    // --- Vergleiche (paarweise über alle Argumente) ---
+
+    public static Object equal(Object[] args) {
+        arity("=", args, 1);
+        for (int i = 1; i < args.length; i++) {
+            if (!Values.equal(args[i - 1], args[i])) return false;
+        }
+        return true;
+    }
+
+    public static Object less(Object[] args) {
+        arity("<", args, 1);
+        for (int i = 1; i < args.length; i++) {
+            if (Values.asInt(args[i - 1], "<") >= Values.asInt(args[i], "<")) return false;
+        }
+        return true;
+    }
+
+    public static Object greater(Object[] args) {
+        arity(">", args, 1);
+        for (int i = 1; i < args.length; i++) {
+            if (Values.asInt(args[i - 1], ">") <= Values.asInt(args[i], ">")) return false;
+        }
+        return true;
+    }
+
+    // --- Listen und Strings ---
+
+    public static Object list(Object[] args) {
+        return LispList.of(args);
+    }
+
+    public static Object head(Object[] args) {
+        exactArity("head", args, 1);
+        LispList list = Values.asList(args[0], "head");
+        return list.isEmpty() ? null : list.head();
+    }
+
+    public static Object tail(Object[] args) {
+        exactArity("tail", args, 1);
+        return Values.asList(args[0], "tail").tail();
+    }
+
+    public static Object str(Object[] args) {
+        StringBuilder sb = new StringBuilder();
+        for (Object arg : args) {
+            if (arg != null) sb.append(Values.display(arg));
+        }
+        return sb.toString();
+    }
+
+    public static Object print(PrintStream out, Object[] args) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(Values.display(args[i]));
+        }
+        out.println(sb);
+        return null;
+    }
+
+    private static void arity(String name, Object[] args, int min) {
+        if (args.length < min) {
+            throw Values.error("'" + name + "' erwartet mindestens " + min + " Argument(e), bekommen: " + args.length);
+        }
+    }
+
+    private static void exactArity(String name, Object[] args, int count) {
+        if (args.length != count) {
+            throw Values.error("'" + name + "' erwartet " + count + " Argument(e), bekommen: " + args.length);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package interpreter;
+
+/**
+ * Laufzeit-Umgebung eines Funktionsaufrufs oder Let-Blocks.
+ * Variablen werden über (Tiefe, Slot) adressiert, siehe Resolver.
+ */
+final class Frame {
+    final Object[] slots;
+    final Frame parent;
+
+    Frame(Object[] slots, Frame parent) {
+        this.slots = slots;
+        this.parent = parent;
+    }
+}
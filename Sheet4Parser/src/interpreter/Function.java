@@ -0,0 +1,43 @@
+package interpreter;
+
+import parser.Expr;
+
+/**
+ * Benutzerdefinierte Funktion (defn) zusammen mit der Umgebung ihrer Definition.
+ */
+public final class Function {
+    private final Expr.Defn definition;
+    private final Frame closure;
+    private final MemoCache memo;   // nur bei reinen Funktionen mit aktivierter Memoisierung
+
+    Function(Expr.Defn definition, Frame closure, MemoCache memo) {
+        this.definition = definition;
+        this.closure = closure;
+        this.memo = memo;
+    }
+
+    public Expr.Defn definition() {
+        return definition;
+    }
+
+    public String name() {
+        return definition.name().name();
+    }
+
+    public int arity() {
+        return definition.params().size();
+    }
+
+    Frame closure() {
+        return closure;
+    }
+
+    MemoCache memo() {
+        return memo;
+    }
+
+    @Override
+    public String toString() {
+        return "<fn " + name() + ">";
+    }
+}
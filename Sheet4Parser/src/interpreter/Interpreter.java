@@ -0,0 +1,340 @@
+package interpreter;
+
+import lexer.Symbol;
+import parser.Expr;
+import parser.Expr.*;
+import parser.ExprVisitor;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tree-Walking-Interpreter über dem AST.
+ * Vor der Ausführung löst der Resolver lokale Namen zu (Tiefe, Slot) auf;
+ * globale Namen (def, defn, Builtins) liegen in einem Array mit eigenen, dichten Slots
+ * pro Interpreter. Die Symbol-id taugt dafür nicht: die gemeinsame SymbolTable wächst in
+ * einem langlebigen Prozess (CompileServer) mit jedem je gesehenen Namen.
+ *
+ * Aufrufe in Tail-Position laufen in einer Schleife in apply() statt rekursiv, so
+ * wachsen endrekursive Schleifen nicht den Java-Stack. Im Modus EXPLICIT_STACK
+ * wertet der StackEvaluator ohne Java-Rekursion aus, dann liegt auch tiefe
+ * nicht-endständige Rekursion nur im Heap.
+ *
+ * Optional (setMemoCacheSize) bekommen reine Funktionen (PurityAnalysis) einen
+ * LRU-Cache ihrer Ergebnisse. setCallLimit begrenzt die Funktionsaufrufe pro run();
+ * da die Sprache keine Schleifen kennt, begrenzt das auch die Laufzeit.
+ */
+public final class Interpreter implements ExprVisitor<Object> {
+
+    public enum Mode { RECURSIVE, EXPLICIT_STACK }
+
+    private static final Object UNDEFINED = new Object();
+
+    // Tiefe einer Adresse, deren Slot ein globaler ist
+    private static final int GLOBAL = -1;
+
+    // Ergebnis eines Aufrufs in Tail-Position: wird von apply() ausgeführt statt rekursiv
+    private record TailCall(Function function, Object[] args) {}
+
+    private final Map<Expr, Resolver.Address> locals = new IdentityHashMap<>();
+    private final Set<Expr> tailCalls = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Unsharer unsharer = new Unsharer();
+    private final Set<Defn> pureFunctions = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<String, MemoCache> memoCaches = new LinkedHashMap<>();
+    private int memoCacheSize = 0;
+    private long callLimit = Long.MAX_VALUE;
+    private long calls = 0;
+    private final StackEvaluator stackEvaluator;
+    private final Map<Symbol, Integer> globalSlots = new HashMap<>();
+    private Object[] globals = new Object[64];
+    private Frame frame = null;
+
+    public Interpreter() {
+        this(System.out);
+    }
+
+    public Interpreter(PrintStream out) {
+        this(out, Mode.RECURSIVE);
+    }
+
+    public Interpreter(PrintStream out, Mode mode) {
+        this.stackEvaluator = mode == Mode.EXPLICIT_STACK ? new StackEvaluator(this) : null;
+        Arrays.fill(globals, UNDEFINED);
+        for (Builtin builtin : Builtins.all(out)) {
+            defineGlobal(Symbol.of(builtin.name()), builtin);
+        }
+    }
+
+    /**
+     * Einstiegspunkt: löst Namen auf und führt den Ausdruck (oder das Program) aus.
+     * Ergebnis ist der Wert des letzten Ausdrucks; ein Stapelüberlauf wird als Runtime Error gemeldet.
+     */
+    public Object run(Expr expr) {
+        try {
+            Expr tree = unsharer.unshare(expr);
+            calls = 0;
+            new Resolver(locals, tailCalls).resolve(tree);
+            if (memoCacheSize > 0) {
+                pureFunctions.addAll(PurityAnalysis.analyze(tree));
+            }
+            return stackEvaluator != null ? stackEvaluator.evaluate(tree, null) : tree.accept(this);
+        } catch (StackOverflowError e) {
+            // Im Modus RECURSIVE begrenzt der Java-Stack die Tiefe nicht-endständiger Rekursion
+            throw Values.error("Stapelüberlauf (zu tiefe Rekursion), Modus EXPLICIT_STACK verwenden");
+        }
+    }
+
+    /**
+     * Einträge pro Cache einer reinen Funktion; 0 (Standard) schaltet die Memoisierung ab.
+     * Gilt für Funktionen, die ab dem nächsten run() definiert werden.
+     */
+    public void setMemoCacheSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
+        }
+        this.memoCacheSize = size;
+    }
+
+    /**
+     * Höchstzahl an Funktionsaufrufen (auch Tail-Calls) pro run(), danach bricht die
+     * Ausführung mit einem Laufzeitfehler ab. Builtins zählen nicht.
+     */
+    public void setCallLimit(long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Call limit must not be negative");
+        }
+        this.callLimit = limit;
+    }
+
+    // Caches der memoisierten Funktionen mit Treffer-/Fehlschlag-Zählern, je Name der zuletzt definierte
+    public Collection<MemoCache> memoCaches() {
+        return Collections.unmodifiableCollection(memoCaches.values());
+    }
+
+    public Object global(Symbol name) {
+        Integer slot = globalSlots.get(name);
+        return global(slot != null ? slot : -1, name);
+    }
+
+    private Object global(int slot, Symbol name) {
+        Object value = slot >= 0 ? globals[slot] : UNDEFINED;
+        if (value == UNDEFINED) {
+            throw Values.error("Undefinierter Name: " + name);
+        }
+        return value;
+    }
+
+    public void defineGlobal(Symbol name, Object value) {
+        int slot = globalSlot(name);
+        // Reine Funktionen dürfen globale Namen lesen: nach einer Neudefinition gilt kein Ergebnis mehr
+        if (globals[slot] != UNDEFINED) {
+            memoCaches.values().forEach(MemoCache::clear);
+        }
+        globals[slot] = value;
+    }
+
+    // Slot des globalen Namens, beim ersten Mal neu vergeben
+    private int globalSlot(Symbol name) {
+        Integer slot = globalSlots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        int next = globalSlots.size();
+        if (next == globals.length) {
+            globals = Arrays.copyOf(globals, next * 2);
+            Arrays.fill(globals, next, globals.length, UNDEFINED);
+        }
+        globalSlots.put(name, next);
+        return next;
+    }
+
+    // Funktionswert für eine defn, reine Funktionen ggf. mit eigenem Cache
+    Function function(Defn definition, Frame closure) {
+        MemoCache memo = null;
+        if (memoCacheSize > 0 && pureFunctions.contains(definition)) {
+            memo = new MemoCache(definition.name().name(), memoCacheSize);
+            memoCaches.put(memo.name(), memo);
+        }
+        return new Function(definition, closure, memo);
+    }
+
+    // Wert eines Namens: lokal über die aufgelöste Adresse im Frame 'env', sonst global
+    Object lookup(Expr node, Symbol name, Frame env) {
+        Resolver.Address address = locals.get(node);
+        if (address == null) {
+            // Globaler Name: Slot beim ersten Zugriff vergeben und am Knoten merken
+            address = new Resolver.Address(GLOBAL, globalSlot(name));
+            locals.put(node, address);
+        }
+        if (address.depth() == GLOBAL) {
+            return global(address.slot(), name);
+        }
+        Frame f = env;
+        for (int i = 0; i < address.depth(); i++) {
+            f = f.parent;
+        }
+        return f.slots[address.slot()];
+    }
+
+    public Object apply(Object callee, Object[] args) {
+        if (callee instanceof Builtin builtin) {
+            return builtin.apply(args);
+        }
+        if (callee instanceof Function function) {
+            checkArity(function, args);
+            MemoCache memo = function.memo();
+            if (memo == null) {
+                return invoke(function, args);
+            }
+            Object result = memo.get(args);
+            if (result == MemoCache.MISSING) {
+                result = invoke(function, args);
+                memo.put(args, result);
+            }
+            return result;
+        }
+        throw Values.error(Values.display(callee) + " ist keine Funktion");
+    }
+
+    // Führt den Rumpf aus; Tail-Calls laufen in der Schleife und nutzen dabei nur vorhandene Cache-Treffer
+    private Object invoke(Function function, Object[] args) {
+        if (stackEvaluator != null) {
+            enter();
+            return stackEvaluator.evaluate(function.definition().body(), new Frame(args, function.closure()));
+        }
+        Frame saved = frame;
+        try {
+            while (true) {
+                enter();
+                frame = new Frame(args, function.closure());
+                Object result = function.definition().body().accept(this);
+                if (!(result instanceof TailCall call)) {
+                    return result;
+                }
+                function = call.function();
+                args = call.args();
+                checkArity(function, args);
+                if (function.memo() != null) {
+                    Object cached = function.memo().get(args);
+                    if (cached != MemoCache.MISSING) return cached;
+                }
+            }
+        } finally {
+            frame = saved;
+        }
+    }
+
+    // Zählt einen Funktionsaufruf gegen das Limit
+    void enter() {
+        if (++calls > callLimit) {
+            throw Values.error("Aufruflimit von " + callLimit + " überschritten");
+        }
+    }
+
+    static void checkArity(Function function, Object[] args) {
+        if (args.length != function.arity()) {
+            throw Values.error("'" + function.name() + "' erwartet " + function.arity()
+                    + " Argument(e), bekommen: " + args.length);
+        }
+    }
+
+    // --- Visitor Implementierungen ---
+
+    @Override
+    public Object visitProgram(Program expr) {
+        Object result = null;
+        for (Expr e : expr.expressions()) {
+            result = e.accept(this);
+        }
+        return result;
+    }
+
+    @Override
+    public Object visitIntLiteral(IntLiteral expr) {
+        return expr.value();
+    }
+
+    @Override
+    public Object visitStringLiteral(StringLiteral expr) {
+        return expr.value();
+    }
+
+    @Override
+    public Object visitBoolLiteral(BoolLiteral expr) {
+        return expr.value();
+    }
+
+    @Override
+    public Object visitVariable(Variable expr) {
+        return lookup(expr, expr.name(), frame);
+    }
+
+    @Override
+    public Object visitDef(Def expr) {
+        Object value = expr.value().accept(this);
+        defineGlobal(expr.name(), value);
+        return value;
+    }
+
+    @Override
+    public Object visitDefn(Defn expr) {
+        Function function = function(expr, frame);
+        defineGlobal(expr.name(), function);
+        return function;
+    }
+
+    @Override
+    public Object visitLet(Let expr) {
+        List<Binding> bindings = expr.bindings();
+        Frame scope = new Frame(new Object[bindings.size()], frame);
+        Frame saved = frame;
+        frame = scope;
+        try {
+            for (int i = 0; i < bindings.size(); i++) {
+                scope.slots[i] = bindings.get(i).value().accept(this);
+            }
+            return expr.body().accept(this);
+        } finally {
+            frame = saved;
+        }
+    }
+
+    @Override
+    public Object visitIf(If expr) {
+        if (Values.truthy(expr.condition().accept(this))) {
+            return expr.thenBranch().accept(this);
+        }
+        return expr.elseBranch() != null ? expr.elseBranch().accept(this) : null;
+    }
+
+    @Override
+    public Object visitDo(Do expr) {
+        Object result = null;
+        for (Expr e : expr.expressions()) {
+            result = e.accept(this);
+        }
+        return result;
+    }
+
+    @Override
+    public Object visitCall(Call expr) {
+        Object callee = lookup(expr, expr.functionName(), frame);
+        List<Expr> arguments = expr.arguments();
+        Object[] args = new Object[arguments.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = arguments.get(i).accept(this);
+        }
+        if (callee instanceof Function function && tailCalls.contains(expr)) {
+            return new TailCall(function, args);
+        }
+        return apply(callee, args);
+    }
+}
@@ -0,0 +1,105 @@
+package interpreter;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Unveränderliche, einfach verkettete Liste. 'tail' ist O(1) und teilt sich
+ * den Rest mit der Ausgangsliste. Der Hashwert wird beim Anlegen aus dem des
+ * Rests berechnet, hashCode() ist damit O(1) (Listen sind oft Cache-Schlüssel).
+ */
+public final class LispList implements Iterable<Object> {
+    public static final LispList EMPTY = new LispList(null, null, 0);
+
+    private final Object head;
+    private final LispList tail;
+    private final int size;
+    private final int hash;
+
+    private LispList(Object head, LispList tail, int size) {
+        this.head = head;
+        this.tail = tail;
+        this.size = size;
+        this.hash = tail == null ? 1 : 31 * tail.hash + Objects.hashCode(head);
+    }
+
+    public static LispList of(Object... values) {
+        LispList list = EMPTY;
+        for (int i = values.length - 1; i >= 0; i--) {
+            list = list.prepend(values[i]);
+        }
+        return list;
+    }
+
+    public LispList prepend(Object value) {
+        return new LispList(value, this, size + 1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Object head() {
+        if (isEmpty()) throw new NoSuchElementException("head einer leeren Liste");
+        return head;
+    }
+
+    // Rest der Liste; bei der leeren Liste wieder die leere Liste
+    public LispList tail() {
+        return isEmpty() ? EMPTY : tail;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<>() {
+            private LispList current = LispList.this;
+
+            @Override
+            public boolean hasNext() {
+                return !current.isEmpty();
+            }
+
+            @Override
+            public Object next() {
+                Object value = current.head();
+                current = current.tail;
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LispList other) || other.size != size || other.hash != hash) return false;
+        LispList a = this;
+        LispList b = other;
+        while (!a.isEmpty()) {
+            if (a == b) return true;
+            if (!Values.equal(a.head, b.head)) return false;
+            a = a.tail;
+            b = b.tail;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("(");
+        for (LispList l = this; !l.isEmpty(); l = l.tail) {
+            if (l != this) sb.append(' ');
+            sb.append(Values.display(l.head));
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,67 @@
+package interpreter;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Begrenzter Ergebnis-Cache einer reinen Funktion, Schlüssel sind die Argumente.
+ * Ist er voll, fällt der am längsten nicht benutzte Eintrag heraus (LRU).
+ */
+public final class MemoCache {
+
+    // Rückgabe von get() bei Fehlschlag (nil ist ein gültiges Ergebnis)
+    static final Object MISSING = new Object();
+
+    private final String name;
+    private final Map<List<Object>, Object> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    MemoCache(String name, int capacity) {
+        this.name = name;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    Object get(Object[] args) {
+        Object value = entries.getOrDefault(Arrays.asList(args), MISSING);
+        if (value == MISSING) misses++;
+        else hits++;
+        return value;
+    }
+
+    void put(Object[] args, Object value) {
+        entries.put(Arrays.asList(args.clone()), value);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + hits + " Treffer, " + misses + " Fehlschläge, " + entries.size() + " Einträge";
+    }
+}
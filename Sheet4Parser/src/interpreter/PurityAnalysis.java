@@ -0,0 +1,163 @@
+package interpreter;
+
+import lexer.Symbol;
+import parser.Expr;
+import parser.Expr.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Findet die reinen defn-Funktionen eines Programms: der Rumpf enthält kein def/defn,
+ * ruft keine Builtins mit Wirkung (print) und keine lokal gebundenen (unbekannten)
+ * Funktionen auf, und alle aufgerufenen Funktionen sind selbst rein. Letzteres wird
+ * als Fixpunkt bestimmt, damit auch (wechselseitig) rekursive Funktionen rein sein können.
+ *
+ * Lesen globaler Variablen ist erlaubt; der Interpreter leert die Caches, sobald
+ * ein globaler Name neu definiert wird.
+ */
+public final class PurityAnalysis {
+
+    private static final Set<String> EFFECT_FREE = Set.of(
+            "+", "-", "*", "/", "=", "<", ">", "list", "head", "tail", "str");
+
+    // Ergebnis der lokalen Prüfung eines Rumpfs
+    private static final class Info {
+        boolean pure = true;
+        final Set<Symbol> calls = new HashSet<>();
+    }
+
+    private final Map<Symbol, Integer> definitionCount = new HashMap<>();
+    private final Map<Symbol, Defn> functions = new HashMap<>();
+    private final Map<Defn, Info> infos = new IdentityHashMap<>();
+
+    private PurityAnalysis() {}
+
+    /**
+     * Die nachweislich reinen Defn-Knoten (nach Identität).
+     */
+    public static Set<Defn> analyze(Expr program) {
+        PurityAnalysis analysis = new PurityAnalysis();
+        analysis.collect(program);
+        analysis.visit(program, new ArrayList<>());
+        return analysis.solve();
+    }
+
+    private void collect(Expr expr) {
+        switch (expr) {
+            case Program p -> p.expressions().forEach(this::collect);
+            case Def d -> {
+                definitionCount.merge(d.name(), 1, Integer::sum);
+                collect(d.value());
+            }
+            case Defn d -> {
+                definitionCount.merge(d.name(), 1, Integer::sum);
+                functions.put(d.name(), d);
+                collect(d.body());
+            }
+            case Let l -> {
+                l.bindings().forEach(b -> collect(b.value()));
+                collect(l.body());
+            }
+            case If i -> {
+                collect(i.condition());
+                collect(i.thenBranch());
+                if (i.elseBranch() != null) collect(i.elseBranch());
+            }
+            case Do d -> d.expressions().forEach(this::collect);
+            case Call c -> c.arguments().forEach(this::collect);
+            default -> {}
+        }
+    }
+
+    // Sucht alle Defn-Knoten; 'locals' sind die an der Stelle lokal gebundenen Namen
+    private void visit(Expr expr, List<Symbol> locals) {
+        switch (expr) {
+            case Program p -> p.expressions().forEach(e -> visit(e, locals));
+            case Def d -> visit(d.value(), locals);
+            case Defn d -> {
+                int mark = locals.size();
+                locals.addAll(d.params());
+                Info info = new Info();
+                check(d.body(), locals, info);
+                infos.put(d, info);
+                visit(d.body(), locals);
+                locals.subList(mark, locals.size()).clear();
+            }
+            case Let l -> {
+                int mark = locals.size();
+                for (Binding b : l.bindings()) {
+                    visit(b.value(), locals);
+                    locals.add(b.name());
+                }
+                visit(l.body(), locals);
+                locals.subList(mark, locals.size()).clear();
+            }
+            case If i -> {
+                visit(i.condition(), locals);
+                visit(i.thenBranch(), locals);
+                if (i.elseBranch() != null) visit(i.elseBranch(), locals);
+            }
+            case Do d -> d.expressions().forEach(e -> visit(e, locals));
+            case Call c -> c.arguments().forEach(e -> visit(e, locals));
+            default -> {}
+        }
+    }
+
+    private void check(Expr expr, List<Symbol> locals, Info info) {
+        switch (expr) {
+            case Def d -> info.pure = false;
+            case Defn d -> info.pure = false;
+            case Let l -> {
+                int mark = locals.size();
+                for (Binding b : l.bindings()) {
+                    check(b.value(), locals, info);
+                    locals.add(b.name());
+                }
+                check(l.body(), locals, info);
+                locals.subList(mark, locals.size()).clear();
+            }
+            case If i -> {
+                check(i.condition(), locals, info);
+                check(i.thenBranch(), locals, info);
+                if (i.elseBranch() != null) check(i.elseBranch(), locals, info);
+            }
+            case Do d -> d.expressions().forEach(e -> check(e, locals, info));
+            case Call c -> {
+                Symbol name = c.functionName();
+                if (locals.contains(name)) {
+                    info.pure = false;
+                } else if (definitionCount.getOrDefault(name, 0) == 1 && functions.containsKey(name)) {
+                    info.calls.add(name);
+                } else if (definitionCount.containsKey(name) || !EFFECT_FREE.contains(name.name())) {
+                    info.pure = false;
+                }
+                c.arguments().forEach(e -> check(e, locals, info));
+            }
+            default -> {}
+        }
+    }
+
+    private Set<Defn> solve() {
+        Set<Defn> pure = Collections.newSetFromMap(new IdentityHashMap<>());
+        infos.forEach((defn, info) -> {
+            if (info.pure) pure.add(defn);
+        });
+        boolean changed = true;
+        while (changed) {
+            changed = pure.removeIf(defn -> {
+                for (Symbol callee : infos.get(defn).calls) {
+                    if (!pure.contains(functions.get(callee))) return true;
+                }
+                return false;
+            });
+        }
+        return pure;
+    }
+}
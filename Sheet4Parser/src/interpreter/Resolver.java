@@ -0,0 +1,150 @@
+package interpreter;
+
+import lexer.Symbol;
+import parser.Expr;
+import parser.Expr.*;
+import parser.ExprVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Statische Auflösung lokaler Namen vor der Ausführung.
+ * Jede Variable (und jeder Aufruf eines lokal gebundenen Namens) bekommt die
+ * Koordinaten (Tiefe, Slot): Tiefe = Anzahl Frames nach außen, Slot = Index im Frame.
+ * Nicht gefundene Namen sind global und stehen nicht in der Tabelle.
+ * Optional werden Aufrufe in Tail-Position eines defn-Rumpfs gesammelt
+ * (If-Zweige, letzter Do-Ausdruck, Let-Rumpf).
+ */
+public class Resolver implements ExprVisitor<Void> {
+
+    public record Address(int depth, int slot) {}
+
+    private final Map<Expr, Address> locals;
+    private final Set<Expr> tailCalls;
+    private final List<List<Symbol>> scopes = new ArrayList<>();   // innerster Scope zuletzt
+    private boolean tail = false;
+
+    // 'locals' muss nach Identität vergleichen (IdentityHashMap), gleiche Knoten stehen ggf. in verschiedenen Scopes
+    public Resolver(Map<Expr, Address> locals) {
+        this(locals, null);
+    }
+
+    public Resolver(Map<Expr, Address> locals, Set<Expr> tailCalls) {
+        this.locals = locals;
+        this.tailCalls = tailCalls;
+    }
+
+    public void resolve(Expr expr) {
+        visit(expr, false);
+    }
+
+    private void visit(Expr expr, boolean tailPosition) {
+        boolean saved = tail;
+        tail = tailPosition;
+        expr.accept(this);
+        tail = saved;
+    }
+
+    private void resolveLocal(Expr node, Symbol name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            int slot = scopes.get(i).lastIndexOf(name);
+            if (slot >= 0) {
+                locals.put(node, new Address(scopes.size() - 1 - i, slot));
+                return;
+            }
+        }
+    }
+
+    // --- Visitor Implementierungen ---
+
+    @Override
+    public Void visitProgram(Program expr) {
+        for (Expr e : expr.expressions()) {
+            visit(e, false);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIntLiteral(IntLiteral expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitStringLiteral(StringLiteral expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitBoolLiteral(BoolLiteral expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Variable expr) {
+        resolveLocal(expr, expr.name());
+        return null;
+    }
+
+    @Override
+    public Void visitDef(Def expr) {
+        visit(expr.value(), false);
+        return null;
+    }
+
+    @Override
+    public Void visitDefn(Defn expr) {
+        scopes.add(new ArrayList<>(expr.params()));
+        visit(expr.body(), true);
+        scopes.remove(scopes.size() - 1);
+        return null;
+    }
+
+    @Override
+    public Void visitLet(Let expr) {
+        // Bindings sind sequentiell: jeder Wert sieht die vorherigen Namen
+        List<Symbol> scope = new ArrayList<>();
+        scopes.add(scope);
+        for (Binding b : expr.bindings()) {
+            visit(b.value(), false);
+            scope.add(b.name());
+        }
+        expr.body().accept(this);
+        scopes.remove(scopes.size() - 1);
+        return null;
+    }
+
+    @Override
+    public Void visitIf(If expr) {
+        visit(expr.condition(), false);
+        expr.thenBranch().accept(this);
+        if (expr.elseBranch() != null) {
+            expr.elseBranch().accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitDo(Do expr) {
+        List<Expr> exprs = expr.expressions();
+        for (int i = 0; i < exprs.size(); i++) {
+            visit(exprs.get(i), tail && i == exprs.size() - 1);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitCall(Call expr) {
+        resolveLocal(expr, expr.functionName());
+        if (tail && tailCalls != null) {
+            tailCalls.add(expr);
+        }
+        for (Expr arg : expr.arguments()) {
+            visit(arg, false);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,197 @@
+package interpreter;
+
+import parser.Expr;
+import parser.Expr.*;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Auswertung ohne Java-Rekursion: offene Teilausdrücke liegen als Fortsetzungen
+ * auf einem Heap-Stack. Ein Funktionsaufruf legt keine eigene Fortsetzung an,
+ * der Rumpf wird direkt weiter ausgewertet. Damit sind Tail-Calls automatisch
+ * konstant im Speicher und tiefe Rekursion ist nur durch den Heap begrenzt.
+ */
+final class StackEvaluator {
+
+    // Was mit dem nächsten berechneten Wert geschehen soll
+    private sealed interface Continuation {}
+
+    private record IfBranch(If expr, Frame env) implements Continuation {}
+
+    private record Sequence(List<Expr> expressions, int next, Frame env) implements Continuation {}
+
+    private record LetBinding(Let expr, int index, Frame scope) implements Continuation {}
+
+    private record DefValue(Def expr) implements Continuation {}
+
+    private record CallArgument(Call expr, Object callee, Object[] args, int index, Frame env) implements Continuation {}
+
+    private record MemoStore(MemoCache memo, Object[] args) implements Continuation {}
+
+    private final Interpreter interpreter;
+
+    StackEvaluator(Interpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    Object evaluate(Expr root, Frame frame) {
+        ArrayDeque<Continuation> stack = new ArrayDeque<>();
+        Expr expr = root;
+        Frame env = frame;
+        Object value = null;
+
+        while (true) {
+            // Ausdruck auswerten, bis ein Wert vorliegt oder ein Teilausdruck zuerst dran ist
+            if (expr != null) {
+                Expr current = expr;
+                expr = null;
+                switch (current) {
+                    case IntLiteral e -> value = e.value();
+                    case StringLiteral e -> value = e.value();
+                    case BoolLiteral e -> value = e.value();
+                    case Variable e -> value = interpreter.lookup(e, e.name(), env);
+                    case Defn e -> {
+                        value = interpreter.function(e, env);
+                        interpreter.defineGlobal(e.name(), value);
+                    }
+                    case Def e -> {
+                        stack.push(new DefValue(e));
+                        expr = e.value();
+                    }
+                    case If e -> {
+                        stack.push(new IfBranch(e, env));
+                        expr = e.condition();
+                    }
+                    case Program e -> {
+                        expr = sequence(e.expressions(), env, stack);
+                        if (expr == null) value = null;
+                    }
+                    case Do e -> {
+                        expr = sequence(e.expressions(), env, stack);
+                        if (expr == null) value = null;
+                    }
+                    case Let e -> {
+                        env = new Frame(new Object[e.bindings().size()], env);
+                        if (e.bindings().isEmpty()) {
+                            expr = e.body();
+                        } else {
+                            stack.push(new LetBinding(e, 0, env));
+                            expr = e.bindings().get(0).value();
+                        }
+                    }
+                    case Call e -> {
+                        Object callee = interpreter.lookup(e, e.functionName(), env);
+                        Object[] args = new Object[e.arguments().size()];
+                        if (args.length > 0) {
+                            stack.push(new CallArgument(e, callee, args, 0, env));
+                            expr = e.arguments().get(0);
+                        } else if (callee instanceof Function function) {
+                            Interpreter.checkArity(function, args);
+                            Object cached = cached(function, args, stack);
+                            if (cached == MemoCache.MISSING) {
+                                interpreter.enter();
+                                env = new Frame(args, function.closure());
+                                expr = function.definition().body();
+                            } else {
+                                value = cached;
+                            }
+                        } else {
+                            value = applyBuiltin(callee, args);
+                        }
+                    }
+                    case Expr.Error e -> throw new RuntimeException(e.message());
+                }
+                if (expr != null) continue;
+            }
+
+            // Wert an die oberste Fortsetzung übergeben
+            if (stack.isEmpty()) {
+                return value;
+            }
+            switch (stack.pop()) {
+                case IfBranch k -> {
+                    env = k.env();
+                    if (Values.truthy(value)) {
+                        expr = k.expr().thenBranch();
+                    } else if (k.expr().elseBranch() != null) {
+                        expr = k.expr().elseBranch();
+                    } else {
+                        value = null;
+                    }
+                }
+                case Sequence k -> {
+                    env = k.env();
+                    expr = sequenceFrom(k.expressions(), k.next(), env, stack);
+                }
+                case LetBinding k -> {
+                    k.scope().slots[k.index()] = value;
+                    env = k.scope();
+                    int next = k.index() + 1;
+                    if (next < k.expr().bindings().size()) {
+                        stack.push(new LetBinding(k.expr(), next, k.scope()));
+                        expr = k.expr().bindings().get(next).value();
+                    } else {
+                        expr = k.expr().body();
+                    }
+                }
+                case DefValue k -> interpreter.defineGlobal(k.expr().name(), value);
+                case MemoStore k -> k.memo().put(k.args(), value);
+                case CallArgument k -> {
+                    k.args()[k.index()] = value;
+                    env = k.env();
+                    int next = k.index() + 1;
+                    if (next < k.args().length) {
+                        stack.push(new CallArgument(k.expr(), k.callee(), k.args(), next, env));
+                        expr = k.expr().arguments().get(next);
+                    } else if (k.callee() instanceof Function function) {
+                        // Kein Rücksprung nötig: der Rumpf ersetzt den Aufruf (Tail-Call ohne Zusatzkosten)
+                        Interpreter.checkArity(function, k.args());
+                        Object cached = cached(function, k.args(), stack);
+                        if (cached == MemoCache.MISSING) {
+                            interpreter.enter();
+                            env = new Frame(k.args(), function.closure());
+                            expr = function.definition().body();
+                        } else {
+                            value = cached;
+                        }
+                    } else {
+                        value = applyBuiltin(k.callee(), k.args());
+                    }
+                }
+            }
+        }
+    }
+
+    // Gespeichertes Ergebnis oder MISSING. Bei MISSING wird das Speichern des Ergebnisses
+    // vorgemerkt, außer direkt in Tail-Position einer anderen memoisierten Funktion
+    // (wie im Interpreter speichert nur der äußerste Aufruf, Tail-Calls bleiben konstant im Speicher)
+    private static Object cached(Function function, Object[] args, ArrayDeque<Continuation> stack) {
+        MemoCache memo = function.memo();
+        if (memo == null) return MemoCache.MISSING;
+        Object cached = memo.get(args);
+        if (cached == MemoCache.MISSING && !(stack.peek() instanceof MemoStore)) {
+            stack.push(new MemoStore(memo, args));
+        }
+        return cached;
+    }
+
+    private static Object applyBuiltin(Object callee, Object[] args) {
+        if (callee instanceof Builtin builtin) {
+            return builtin.apply(args);
+        }
+        throw Values.error(Values.display(callee) + " ist keine Funktion");
+    }
+
+    // Erster Ausdruck einer Sequenz; die übrigen werden als Fortsetzung vorgemerkt
+    private static Expr sequence(List<Expr> expressions, Frame env, ArrayDeque<Continuation> stack) {
+        return expressions.isEmpty() ? null : sequenceFrom(expressions, 0, env, stack);
+    }
+
+    private static Expr sequenceFrom(List<Expr> expressions, int index, Frame env, ArrayDeque<Continuation> stack) {
+        if (index + 1 < expressions.size()) {
+            stack.push(new Sequence(expressions, index + 1, env));
+        }
+        return expressions.get(index);
+    }
+}
@@ -0,0 +1,122 @@
+package interpreter;
+
+import parser.Expr;
+import parser.Expr.*;
+import parser.ExprVisitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Der Resolver ordnet Variablen und Aufrufen ihre Adresse per Identität zu.
+ * Steht derselbe Knoten an mehreren Stellen (Hash-Consing, Optimierer) oder
+ * wurde er schon in einem früheren run() aufgelöst, würde er dabei überschrieben.
+ * Solche Knoten werden hier kopiert; alles andere bleibt unverändert geteilt.
+ */
+final class Unsharer implements ExprVisitor<Expr> {
+
+    // Bereits vergebene Variable- und Call-Knoten, über alle Läufe eines Interpreters
+    private final Set<Expr> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    Expr unshare(Expr expr) {
+        return expr.accept(this);
+    }
+
+    private List<Expr> all(List<Expr> exprs) {
+        List<Expr> result = null;
+        for (int i = 0; i < exprs.size(); i++) {
+            Expr e = exprs.get(i);
+            Expr copy = e.accept(this);
+            if (copy != e && result == null) {
+                result = new ArrayList<>(exprs.subList(0, i));
+            }
+            if (result != null) result.add(copy);
+        }
+        return result != null ? result : exprs;
+    }
+
+    @Override
+    public Expr visitProgram(Program expr) {
+        List<Expr> exprs = all(expr.expressions());
+        return exprs == expr.expressions() ? expr : new Program(exprs);
+    }
+
+    @Override
+    public Expr visitIntLiteral(IntLiteral expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitStringLiteral(StringLiteral expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitBoolLiteral(BoolLiteral expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitVariable(Variable expr) {
+        return seen.add(expr) ? expr : fresh(new Variable(expr.name()));
+    }
+
+    @Override
+    public Expr visitDef(Def expr) {
+        Expr value = expr.value().accept(this);
+        return value == expr.value() ? expr : new Def(expr.name(), value);
+    }
+
+    @Override
+    public Expr visitDefn(Defn expr) {
+        Expr body = expr.body().accept(this);
+        return body == expr.body() ? expr : new Defn(expr.name(), expr.params(), body);
+    }
+
+    @Override
+    public Expr visitLet(Let expr) {
+        List<Binding> bindings = new ArrayList<>(expr.bindings().size());
+        boolean changed = false;
+        for (Binding b : expr.bindings()) {
+            Expr value = b.value().accept(this);
+            changed |= value != b.value();
+            bindings.add(value == b.value() ? b : new Binding(b.name(), value));
+        }
+        Expr body = expr.body().accept(this);
+        return !changed && body == expr.body() ? expr : new Let(bindings, body);
+    }
+
+    @Override
+    public Expr visitIf(If expr) {
+        Expr condition = expr.condition().accept(this);
+        Expr thenBranch = expr.thenBranch().accept(this);
+        Expr elseBranch = expr.elseBranch() != null ? expr.elseBranch().accept(this) : null;
+        if (condition == expr.condition() && thenBranch == expr.thenBranch() && elseBranch == expr.elseBranch()) {
+            return expr;
+        }
+        return new If(condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Expr visitDo(Do expr) {
+        List<Expr> exprs = all(expr.expressions());
+        return exprs == expr.expressions() ? expr : new Do(exprs);
+    }
+
+    @Override
+    public Expr visitCall(Call expr) {
+        List<Expr> args = all(expr.arguments());
+        if (seen.add(expr)) {
+            return args == expr.arguments() ? expr : new Call(expr.functionName(), args);
+        }
+        return fresh(new Call(expr.functionName(), args));
+    }
+
+    private Expr fresh(Expr copy) {
+        seen.add(copy);
+        return copy;
+    }
+}
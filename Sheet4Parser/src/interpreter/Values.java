@@ -0,0 +1,41 @@
+package interpreter;
+
+import java.util.Objects;
+
+/**
+ * Hilfsfunktionen für Laufzeitwerte: Integer, Boolean, String, LispList,
+ * Funktionen und nil (null).
+ */
+public final class Values {
+
+    private Values() {}
+
+    // Nur false und nil gelten als falsch
+    public static boolean truthy(Object value) {
+        return value != null && value != Boolean.FALSE;
+    }
+
+    public static boolean equal(Object a, Object b) {
+        return Objects.equals(a, b);
+    }
+
+    public static int asInt(Object value, String operation) {
+        if (value instanceof Integer i) return i;
+        throw error("'" + operation + "' erwartet eine Zahl, gefunden: " + display(value));
+    }
+
+    public static LispList asList(Object value, String operation) {
+        if (value instanceof LispList l) return l;
+        throw error("'" + operation + "' erwartet eine Liste, gefunden: " + display(value));
+    }
+
+    // Darstellung für print/str: Strings ohne Anführungszeichen, nil als "nil"
+    public static String display(Object value) {
+        if (value == null) return "nil";
+        return value.toString();
+    }
+
+    static RuntimeException error(String message) {
+        return new RuntimeException("Runtime Error: " + message);
+    }
+}
@@ -0,0 +1,53 @@
+package lexer;
+
+/**
+ * Sucht im Lexer-Puffer das nächste Stoppzeichen für Whitespace, Kommentare und
+ * String-Inhalte. Die skalare Variante prüft Zeichen für Zeichen, die
+ * vektorisierte (Vector API) viele Zeichen pro Schritt.
+ *
+ * Auswahl über die System-Property 'lexer.simd' (true/false, Standard: true,
+ * sofern das Modul jdk.incubator.vector geladen ist) oder Lexer.setScanner().
+ */
+public interface CharScanner {
+
+    enum Stop {
+        NON_WHITESPACE,     // erstes Zeichen außer ' ', '\t', '\r', '\n'
+        NEWLINE,            // Kommentarende: '\n' (oder EOF-Zeichen)
+        QUOTE               // Stringende: '"' (oder EOF-Zeichen)
+    }
+
+    /**
+     * Index des ersten Stoppzeichens in buf[from, to), sonst 'to'.
+     */
+    int find(Stop stop, char[] buf, int from, int to);
+
+    static boolean isStop(Stop stop, char c) {
+        return switch (stop) {
+            case NON_WHITESPACE -> c != ' ' && c != '\t' && c != '\r' && c != '\n';
+            case NEWLINE -> c == '\n' || c == '\0';
+            case QUOTE -> c == '"' || c == '\0';
+        };
+    }
+
+    static CharScanner scalar() {
+        return ScalarScanner.INSTANCE;
+    }
+
+    static boolean vectorAvailable() {
+        return CharScanners.VECTOR != null;
+    }
+
+    /**
+     * Vektorisierter Scanner; ohne '--add-modules jdk.incubator.vector' nicht verfügbar.
+     */
+    static CharScanner vector() {
+        if (CharScanners.VECTOR == null) {
+            throw new IllegalStateException("Vector API nicht verfügbar (--add-modules jdk.incubator.vector)");
+        }
+        return CharScanners.VECTOR;
+    }
+
+    static CharScanner defaultScanner() {
+        return CharScanners.DEFAULT;
+    }
+}
@@ -0,0 +1,24 @@
+package lexer;
+
+/**
+ * Wählt den Scanner beim Laden aus. VectorScanner wird nur per Reflection
+ * geladen, damit der Lexer auch ohne das Incubator-Modul läuft.
+ */
+final class CharScanners {
+    static final CharScanner VECTOR = loadVector();
+    static final CharScanner DEFAULT =
+            VECTOR != null && !"false".equals(System.getProperty("lexer.simd")) ? VECTOR : ScalarScanner.INSTANCE;
+
+    private CharScanners() {}
+
+    private static CharScanner loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (CharScanner) Class.forName("lexer.VectorScanner").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sammelt Fehler von Lexer und Parser, statt beim ersten abzubrechen
+ * (siehe Lexer.setDiagnostics, Parser.setDiagnostics). Die Einträge liegen in
+ * vorab angelegten Arrays, pro Fehler entsteht nur die Meldung selbst. Über die
+ * Kapazität hinaus wird nur noch gezählt.
+ *
+ * Indizes (get, message, ...) folgen der Meldereihenfolge; list(), format() und
+ * toString() sind nach Startposition sortiert, da tokenize() alle Lexer-Fehler
+ * vor den Parser-Fehlern meldet.
+ */
+public final class Diagnostics {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // Ein Fehler mit Quelltextbereich [start, end)
+    public record Diagnostic(String message, int start, int end) {
+        @Override
+        public String toString() {
+            return message + " [" + start + ".." + end + "]";
+        }
+    }
+
+    private final String[] messages;
+    private final int[] starts;
+    private final int[] ends;
+    private int size = 0;
+    private int total = 0;
+
+    public Diagnostics() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Diagnostics(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        this.messages = new String[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+    }
+
+    public void report(String message, int start, int end) {
+        if (size < messages.length) {
+            messages[size] = message;
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+        total++;
+    }
+
+    // Gespeicherte Fehler (höchstens die Kapazität)
+    public int size() {
+        return size;
+    }
+
+    // Alle gemeldeten Fehler, auch die nicht mehr gespeicherten
+    public int total() {
+        return total;
+    }
+
+    public boolean hasErrors() {
+        return total > 0;
+    }
+
+    public String message(int i) {
+        return messages[checkIndex(i)];
+    }
+
+    public int start(int i) {
+        return starts[checkIndex(i)];
+    }
+
+    public int end(int i) {
+        return ends[checkIndex(i)];
+    }
+
+    // Startposition des zuletzt gespeicherten Fehlers, -1 wenn keiner
+    public int lastStart() {
+        return size > 0 ? starts[size - 1] : -1;
+    }
+
+    public Diagnostic get(int i) {
+        checkIndex(i);
+        return new Diagnostic(messages[i], starts[i], ends[i]);
+    }
+
+    // Nach Startposition sortiert, bei gleicher Position in Meldereihenfolge
+    public List<Diagnostic> list() {
+        List<Diagnostic> list = new ArrayList<>(size);
+        for (int i : byPosition()) {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    public void clear() {
+        Arrays.fill(messages, 0, size, null);
+        size = 0;
+        total = 0;
+    }
+
+    // Indizes nach Startposition; stabil, und die sortierten Läufe von Lexer und Parser
+    // werden von Arrays.sort nur noch zusammengeführt
+    private Integer[] byPosition() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> starts[i]));
+        return order;
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Diagnostic " + i + " of " + size);
+        }
+        return i;
+    }
+
+    // Wie toString(), aber mit "Zeile:Spalte" statt Offsets
+    public String format(LineIndex lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i : byPosition()) {
+            sb.append(lines.format(starts[i])).append(": ").append(messages[i]).append('\n');
+        }
+        if (total > size) {
+            sb.append("... (").append(total - size).append(" weitere)\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i : byPosition()) {
+            sb.append(get(i)).append('\n');
+        }
+        if (total > size) {
+            sb.append("... (").append(total - size).append(" weitere)\n");
+        }
+        return sb.toString();
+    }
+}
@@ -1,34 +1,234 @@
 package lexer;
-import java.lang.StringBuilder;
 
-public class Lexer {
-    private String input;
+import metrics.LexEvent;
+import metrics.LexStats;
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class Lexer implements AutoCloseable {
+    private static final char EOF_CHAR = '\0';
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    // Unveränderliche Token für feste Lexeme, werden nicht bei jedem Aufruf neu erzeugt
+    private static final Token[] FIXED_TOKENS = new Token[TokenType.values().length];
+    private static final Token TRUE_TOKEN = new Token(TokenType.BOOLEAN, "true", true);
+    private static final Token FALSE_TOKEN = new Token(TokenType.BOOLEAN, "false", false);
+    private static final String[] KEYWORDS = new String[8];
+    private static final TokenType[] KEYWORD_TYPES = new TokenType[8];
+    static {
+        registerKeyword("def", TokenType.DEF);
+        registerKeyword("defn", TokenType.DEFN);
+        registerKeyword("let", TokenType.LET);
+        registerKeyword("if", TokenType.IF);
+        registerKeyword("do", TokenType.DO);
+        registerKeyword("true", TokenType.BOOLEAN);
+        registerKeyword("false", TokenType.BOOLEAN);
+
+        for (TokenType type : TokenType.values()) {
+            String lexeme = TokenStream.fixedLexeme(type);
+            if (lexeme != null) FIXED_TOKENS[type.ordinal()] = new Token(type, lexeme);
+        }
+    }
+
+    private static void registerKeyword(String word, TokenType type) {
+        int slot = keywordHash(word.charAt(0), word.charAt(word.length() - 1), word.length());
+        if (KEYWORDS[slot] != null) {
+            throw new IllegalStateException("Keyword-Hash nicht kollisionsfrei: " + word);
+        }
+        KEYWORDS[slot] = word;
+        KEYWORD_TYPES[slot] = type;
+    }
+
+    // Zeichenquelle + Puffer fester Größe, der bei Bedarf nachgeladen wird
+    private final Reader reader;
+    private final CharSequence source;  // komplette Eingabe, falls im Speicher (sonst null)
+    private char[] buf;
+    private int pos = 0;        // nächste Leseposition im Puffer
+    private int limit = 0;      // Ende der gültigen Zeichen im Puffer
+    private int mark = -1;      // Pufferposition des aktuellen Tokenstarts (-1 = kein Token offen)
+    private boolean atEnd = false;
+
     private int index = 0;
     private char peek;
-    private static final char EOF_CHAR = '\0';
+
+    // Ergebnis von scan(): absolute Start-/Endposition (exklusiv) und Literalwert
+    private int tokenStart;
+    private int tokenEnd;
+    private long tokenValue;
+    private Symbol tokenSymbol;
+
+    private SymbolTable symbols = SymbolTable.shared();
+    private CharScanner scanner = CharScanner.defaultScanner();
+    private Diagnostics diagnostics = null;
+    private LineIndex.Builder lines = null;   // Zeilenanfänge, falls eingeschaltet
+    private final LexStats stats = LexStats.create();   // Zähler für nextToken(), null wenn aus
 
     // Constructor, sets 'peek' via 'cosume()'
     public Lexer(String input) {
-        this.input = input;
-        if (!input.isEmpty()){
-            consume();
+        this(new StringReader(input), Math.max(16, Math.min(input.length(), DEFAULT_BUFFER_SIZE)), input);
+    }
+
+    // Streaming: liest aus einem Reader über einen Puffer fester Größe
+    public Lexer(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public Lexer(Reader reader, int bufferSize) {
+        this(reader, bufferSize, null);
+    }
+
+    // Streaming: liest UTF-8 aus einem beliebigen Byte-Kanal
+    public Lexer(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), DEFAULT_BUFFER_SIZE), DEFAULT_BUFFER_SIZE);
+    }
+
+    // Streaming: blendet die Datei fensterweise per Memory-Mapping ein
+    public Lexer(FileChannel channel) {
+        this(new MappedFileReader(channel, MappedFileReader.DEFAULT_WINDOW_SIZE), DEFAULT_BUFFER_SIZE);
+    }
+
+    private Lexer(Reader reader, int bufferSize, CharSequence source) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
         }
+        this.reader = reader;
+        this.source = source;
+        this.buf = new char[bufferSize];
+        consume();
+    }
+
+    // Wechselt zwischen skalarem und vektorisiertem Scannen (Ergebnis ist identisch)
+    public void setScanner(CharScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    // Tabelle für die Bezeichner, sonst SymbolTable.shared(); vor dem ersten Token setzen
+    public void setSymbolTable(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public SymbolTable symbolTable() {
+        return symbols;
+    }
+
+    /**
+     * Diagnosemodus: Fehler werden gesammelt statt geworfen, danach wird weitergelesen
+     * (ungültige Zeichen übersprungen, zu große Zahlen als 0, offene Strings bis zum Ende).
+     */
+    public void setDiagnostics(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Sammelt beim Nachladen des Puffers die Zeilenanfänge mit (ein Durchlauf pro Block,
+     * nicht pro Zeichen). Muss vor dem ersten Token eingeschaltet werden.
+     */
+    public void setLineTracking(boolean enabled) {
+        if (!enabled) {
+            lines = null;
+        } else if (lines == null) {
+            if (index > 1) {
+                throw new IllegalStateException("Zeilenindex muss vor dem Lesen eingeschaltet werden");
+            }
+            // Der erste Block wurde schon im Konstruktor gelesen
+            lines = new LineIndex.Builder();
+            lines.scan(buf, 0, limit, 0);
+        }
+    }
+
+    // Zeilenanfänge der bisher gelesenen Eingabe, null ohne setLineTracking(true)
+    public LineIndex lineIndex() {
+        return lines != null ? lines.build() : null;
+    }
+
+    // Quelltextbereich [tokenStart, tokenEnd) des zuletzt gelieferten Tokens
+    public int tokenStart() {
+        return tokenStart;
+    }
+
+    public int tokenEnd() {
+        return tokenEnd;
     }
 
     // put peek to current Char and consume(), Handling of TokenType
     public Token nextToken(){
+        if (stats == null) {
+            return token(scan());
+        }
+        long start = System.nanoTime();
+        TokenType type = scan();
+        Token token = token(type);
+        stats.token(type, start);
+        if (type == TokenType.EOF) stats.finish(tokenEnd);
+        return token;
+    }
+
+    // Zeit im Token-für-Token-Modus, solange Metrics oder JFR aufzeichnen (sonst 0)
+    public long lexNanos() {
+        return stats != null ? stats.nanos() : 0;
+    }
+
+    private Token token(TokenType type) {
+        return switch (type) {
+            case INTEGER -> new Token(type, text(type), (int) tokenValue);
+            case STRING -> {
+                String text = text(type);
+                yield new Token(type, text, text);
+            }
+            case IDENTIFIER -> new Token(type, tokenSymbol.name());
+            case BOOLEAN -> tokenValue != 0 ? TRUE_TOKEN : FALSE_TOKEN;
+            default -> FIXED_TOKENS[type.ordinal()];
+        };
+    }
+
+    /**
+     * Bulk-Tokenisierung: liest die restliche Eingabe in einen kompakten TokenStream
+     * (inklusive abschließendem EOF-Token). Pro Token entstehen keine Objekte;
+     * Lexeme werden erst bei Bedarf aus der Quelle geholt.
+     */
+    public TokenStream tokenize() {
+        LexEvent event = new LexEvent();
+        event.begin();
+        long start = Metrics.start();
+        TokenStream stream = new TokenStream(source, symbols, source != null ? source.length() / 4 : 1024);
+        TokenType type;
+        do {
+            type = scan();
+            // Ohne Quelle im Speicher müssen variable Lexeme sofort gesichert werden
+            String text = source == null && (type == TokenType.STRING || type == TokenType.INTEGER)
+                    ? text(type) : null;
+            stream.add(type, tokenStart, tokenEnd, tokenValue, text);
+        } while (type != TokenType.EOF);
+        if (lines != null) stream.setLineIndex(lines.build());
+        Metrics.lexed(stream, start, event);
+        return stream;
+    }
+
+    // Erkennt das nächste Token, ohne es zu materialisieren
+    private TokenType scan(){
+        mark = -1;
+        tokenValue = 0;
         while (peek != EOF_CHAR){
             switch (peek){
                 case ' ', '\t', '\r', '\n' -> {WS();continue;}
-                // Einfache Token (consume() aufrufen und Token zurückgeben)
-                case '(' -> { consume(); return new Token(TokenType.LEFT_PAREN, "("); }
-                case ')' -> { consume(); return new Token(TokenType.RIGHT_PAREN, ")"); }
-                case '+' -> { consume(); return new Token(TokenType.PLUS, "+"); }
-                case '*' -> { consume(); return new Token(TokenType.MUL, "*"); }
-                case '/' -> { consume(); return new Token(TokenType.DIV, "/"); }
-                case '=' -> { consume(); return new Token(TokenType.EQUAL, "="); }
-                case '<' -> { consume(); return new Token(TokenType.LESS, "<"); }
-                case '>' -> { consume(); return new Token(TokenType.GREATER, ">"); }
+                // Einfache Token (ein Zeichen konsumieren)
+                case '(' -> { return single(TokenType.LEFT_PAREN); }
+                case ')' -> { return single(TokenType.RIGHT_PAREN); }
+                case '+' -> { return single(TokenType.PLUS); }
+                case '*' -> { return single(TokenType.MUL); }
+                case '/' -> { return single(TokenType.DIV); }
+                case '=' -> { return single(TokenType.EQUAL); }
+                case '<' -> { return single(TokenType.LESS); }
+                case '>' -> { return single(TokenType.GREATER); }
 
                 // Minus: Sonderfall wegen negativen Zahlen oder Operator
                 case '-' -> { return NEG_NUMBER(); }
@@ -43,115 +243,214 @@ public class Lexer {
                         COMMENT(); // Kommentar bis Zeilenende konsumieren
                         continue;
                     } else {
-                        throw error("Erwartetes Zeichen ';' nach ';'");
+                        error("Erwartetes Zeichen ';' nach ';'", offset() - 1, offset());
+                        continue;
                     }
                 }
 
                 // Default: Check for Digit or Letter
                 default -> {
                     if (Character.isDigit(peek)) {
-                        return NUMBER();
+                        startToken();
+                        return NUMBER(false);
                     }
                     if (isLetter(peek)) {
                         return NAME();
                     }
-                    throw error("Ungueltiges Zeichen: " + peek);
+                    error("Ungueltiges Zeichen: " + peek, offset(), offset() + 1);
+                    consume();
                 }
             }
         }
-        return new Token(TokenType.EOF, "<EOF>");
+        tokenStart = tokenEnd = offset();
+        return TokenType.EOF;
+    }
+
+    private TokenType single(TokenType type){
+        tokenStart = offset();
+        consume();
+        tokenEnd = tokenStart + 1;
+        return type;
     }
 
     // Whitespace Handling
     private void WS(){
-        while (peek == ' ' || peek == '\t' || peek == '\n' || peek == '\r'){
-            consume();
-        }
+        skipUntil(CharScanner.Stop.NON_WHITESPACE);
     }
 
-    // Identifier Handling
-    private Token NAME(){
-        StringBuilder buff = new StringBuilder();
+    // Identifier Handling: Hash wird beim Lesen mitgerechnet, der Name direkt aus dem Puffer interniert
+    private TokenType NAME(){
+        startToken();
+        int hash = 0;
 
         while (isLetter(peek) || Character.isDigit(peek) || peek == '-') {
-            buff.append(peek);
+            hash = 31 * hash + peek;
             consume();
         }
+        tokenEnd = offset();
+        int len = tokenEnd - tokenStart;
 
-        String text = buff.toString();
+        TokenType type = keyword(len);
+        if (type == TokenType.IDENTIFIER) {
+            tokenSymbol = symbols.intern(buf, mark, len, hash);
+            tokenValue = tokenSymbol.id();
+        }
+        return type;
+    }
 
-        return switch (text){
-            case "def" -> new Token(TokenType.DEF, text);
-            case "defn" -> new Token(TokenType.DEFN, text);
-            case "let" -> new Token(TokenType.LET, text);
-            case "if" -> new Token(TokenType.IF, text);
-            case "do" -> new Token(TokenType.DO, text);
-            case "true" -> new Token(TokenType.BOOLEAN, text, true);
-            case "false" -> new Token(TokenType.BOOLEAN, text, false);
-            default -> new Token(TokenType.IDENTIFIER, text);
-        };
+    // Keyword-Erkennung direkt auf dem Puffer: ein Tabellenzugriff + ein Textvergleich
+    private TokenType keyword(int len){
+        if (len < 2 || len > 5) return TokenType.IDENTIFIER;
+        int slot = keywordHash(buf[mark], buf[mark + len - 1], len);
+        String word = KEYWORDS[slot];
+        if (word == null || word.length() != len || !isText(word)) return TokenType.IDENTIFIER;
+        if (word.equals("true")) tokenValue = 1;
+        return KEYWORD_TYPES[slot];
     }
 
-    // Number Handling
-    private Token NUMBER(){
-        StringBuilder buff = new StringBuilder();
+    // Perfekter Hash über erstes/letztes Zeichen und Länge, kollisionsfrei für die 7 Keywords
+    private static int keywordHash(char first, char last, int len){
+        return (3 * first + 6 * last + len) & 7;
+    }
+
+    private boolean isText(String word){
+        for (int i = 0; i < word.length(); i++) {
+            if (buf[mark + i] != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // Number Handling (Wert wird direkt beim Lesen berechnet)
+    private TokenType NUMBER(boolean negative){
+        long value = 0;
 
         while (Character.isDigit(peek)){
-            buff.append(peek);
+            if (value <= Integer.MAX_VALUE + 1L) {
+                value = value * 10 + Character.digit(peek, 10);
+            }
             consume();
         }
-        return new Token(TokenType.INTEGER, buff.toString(), Integer.parseInt(buff.toString()));
+        tokenEnd = offset();
+
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            error("Zahl ausserhalb des int-Bereichs: " + text(TokenType.INTEGER), tokenStart, tokenEnd);
+            value = 0;
+        }
+        tokenValue = value;
+        return TokenType.INTEGER;
     }
 
     // Negative Number Handling
-    private Token NEG_NUMBER(){
+    private TokenType NEG_NUMBER(){
+        startToken();
         consume();
 
         if (Character.isDigit(peek)){
-            Token numToken = NUMBER();
-            int value = - (int) numToken.literal();
-            return new Token(TokenType.INTEGER, "-" + numToken.lexeme(), value);
+            return NUMBER(true);
         }
-        return new Token(TokenType.MINUS, "-");
+        tokenEnd = tokenStart + 1;
+        return TokenType.MINUS;
     }
 
     // String Handling
-    private Token STRING(){
+    private TokenType STRING(){
+        tokenStart = offset();
         consume();
-        StringBuilder buff = new StringBuilder();
+        mark = atEnd ? pos : pos - 1;   // Inhalt ohne Anführungszeichen
 
-        while (peek != '"' && peek != EOF_CHAR){
-            buff.append(peek);
-            consume();
-        }
+        skipUntil(CharScanner.Stop.QUOTE);
 
         if (peek == '"'){
+            tokenEnd = offset() + 1;
             consume();
-            return new Token(TokenType.STRING, buff.toString(), buff.toString());
+            return TokenType.STRING;
         }
         else {
-            throw error("String not closed");
+            // Im Diagnosemodus reicht der String bis zum Ende der Eingabe
+            error("String not closed", tokenStart, offset());
+            tokenEnd = offset();
+            return TokenType.STRING;
         }
     }
 
     // Comment Handling
     private void COMMENT(){
-        while (peek != '\n' && peek != EOF_CHAR){
+        skipUntil(CharScanner.Stop.NEWLINE);
+    }
+
+    // Überspringt Zeichen bis zum Stoppzeichen, blockweise über den Puffer statt per consume()
+    private void skipUntil(CharScanner.Stop stop){
+        while (!CharScanner.isStop(stop, peek)){
+            int next = scanner.find(stop, buf, pos, limit);
+            index += next - pos;
+            pos = next;
             consume();
         }
     }
 
     // Setting 'index' up, puts 'peek' to current Char or EOF
     private void consume(){
-        if (index < input.length()){
-            peek = input.charAt(index);
+        if (pos < limit || fill()){
+            peek = buf[pos];
+            pos++;
             index++;
         }
         else {
+            atEnd = true;
             peek = EOF_CHAR;
         }
     }
 
+    // Lädt den Puffer nach. Ein offenes Token wird an den Pufferanfang verschoben,
+    // damit sein Text zusammenhängend bleibt; passt es nicht, wird der Puffer vergrößert.
+    private boolean fill(){
+        int keep = mark >= 0 ? mark : limit;
+        if (keep > 0) {
+            System.arraycopy(buf, keep, buf, 0, limit - keep);
+            limit -= keep;
+            pos -= keep;
+            if (mark >= 0) mark = 0;
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        try {
+            int n;
+            do {
+                n = reader.read(buf, limit, buf.length - limit);
+            } while (n == 0);
+            if (n < 0) return false;
+            if (lines != null) lines.scan(buf, limit, limit + n, index - pos + limit);
+            limit += n;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lexer Error: " + e.getMessage(), e);
+        }
+    }
+
+    // Absolute Position von 'peek'
+    private int offset(){
+        return atEnd ? index : index - 1;
+    }
+
+    // Merkt sich die Position von 'peek' als Tokenstart
+    private void startToken(){
+        tokenStart = offset();
+        mark = atEnd ? pos : pos - 1;
+    }
+
+    // Text des zuletzt gescannten Tokens (bei Strings ohne Anführungszeichen)
+    private String text(TokenType type){
+        int len = tokenEnd - tokenStart;
+        if (type != TokenType.STRING) {
+            return new String(buf, mark, len);
+        }
+        // Ein nicht geschlossener String (Diagnosemodus) hat kein abschließendes Anführungszeichen
+        boolean closed = len >= 2 && buf[mark + len - 2] == '"';
+        return new String(buf, mark, closed ? len - 2 : len - 1);
+    }
+
     // match current Char with peek and consume() it
     private boolean match(char c){
         if (peek == c){
@@ -166,8 +465,20 @@ public class Lexer {
         return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
     }
 
-    // Exception Handling + Message
-    private RuntimeException error(String msg) {
-        return new RuntimeException("Lexer Error: " + msg);
+    // Exception Handling + Message: ohne Diagnostics Abbruch, sonst Fehler vermerken und weiterlesen
+    private void error(String msg, int start, int end) {
+        if (diagnostics == null) {
+            throw new RuntimeException("Lexer Error: " + msg);
+        }
+        diagnostics.report("Lexer Error: " + msg, start, end);
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lexer Error: " + e.getMessage(), e);
+        }
     }
 }
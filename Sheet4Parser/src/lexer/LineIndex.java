@@ -0,0 +1,85 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * Zeilenanfänge einer Quelle als sortiertes int-Array. Positionen werden überall
+ * nur als Offset gespeichert; Zeile und Spalte (beide ab 1) entstehen erst bei
+ * Bedarf per binärer Suche.
+ */
+public final class LineIndex {
+    private final int[] lineStarts;
+    private final int lines;
+
+    private LineIndex(int[] lineStarts, int lines) {
+        this.lineStarts = lineStarts;
+        this.lines = lines;
+    }
+
+    // Nachträglich aus der kompletten Quelle
+    public static LineIndex of(CharSequence source) {
+        Builder builder = new Builder();
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') builder.lineStart(i + 1);
+        }
+        return builder.build();
+    }
+
+    public int lineCount() {
+        return lines;
+    }
+
+    // Zeile (ab 1) zum Offset
+    public int line(int offset) {
+        if (offset < 0) {
+            throw new IndexOutOfBoundsException("offset must not be negative: " + offset);
+        }
+        int i = Arrays.binarySearch(lineStarts, 0, lines, offset);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    // Spalte (ab 1, in Zeichen) zum Offset
+    public int column(int offset) {
+        return offset - lineStart(line(offset)) + 1;
+    }
+
+    // Offset des ersten Zeichens der Zeile (ab 1)
+    public int lineStart(int line) {
+        if (line < 1 || line > lines) {
+            throw new IndexOutOfBoundsException("Zeile " + line + " von " + lines);
+        }
+        return lineStarts[line - 1];
+    }
+
+    // "Zeile:Spalte", z.B. für Fehlermeldungen
+    public String format(int offset) {
+        int line = line(offset);
+        return line + ":" + (offset - lineStarts[line - 1] + 1);
+    }
+
+    /**
+     * Sammelt Zeilenanfänge in aufsteigender Reihenfolge, z.B. blockweise während des Lesens.
+     */
+    public static final class Builder {
+        private int[] lineStarts = new int[64];
+        private int lines = 1;      // Zeile 1 beginnt bei 0
+
+        public void lineStart(int offset) {
+            if (lines == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+            }
+            lineStarts[lines++] = offset;
+        }
+
+        // Durchsucht buf[from, to), dessen erstes Zeichen an Position 'base' der Quelle steht
+        public void scan(char[] buf, int from, int to, int base) {
+            for (int i = from; i < to; i++) {
+                if (buf[i] == '\n') lineStart(base + i - from + 1);
+            }
+        }
+
+        public LineIndex build() {
+            return new LineIndex(Arrays.copyOf(lineStarts, lines), lines);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader über einen FileChannel, der die Datei fensterweise per Memory-Mapping
+ * einblendet und als UTF-8 dekodiert. Es ist immer nur ein Fenster gemappt,
+ * der Heap-Verbrauch hängt also nicht von der Dateigröße ab.
+ */
+class MappedFileReader extends Reader {
+    static final int DEFAULT_WINDOW_SIZE = 1 << 20;
+    private static final int MAX_SEQUENCE = 4;   // längste UTF-8-Bytefolge
+
+    private final FileChannel channel;
+    private final int windowSize;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private boolean eof = false;
+
+    MappedFileReader(FileChannel channel, int windowSize) {
+        this.channel = channel;
+        this.windowSize = Math.max(windowSize, MAX_SEQUENCE);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (eof) return -1;
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        long size = channel.size();
+
+        while (out.hasRemaining()) {
+            long end = window == null ? 0 : windowStart + window.limit();
+            // Neues Fenster ab der ersten nicht dekodierten Position; ein angeschnittenes
+            // UTF-8-Zeichen am Fensterende landet so vollständig im nächsten Fenster
+            if (window == null || (window.remaining() < MAX_SEQUENCE && end < size)) {
+                long next = window == null ? 0 : windowStart + window.position();
+                windowStart = next;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, next, Math.min(windowSize, size - next));
+                end = windowStart + window.limit();
+            }
+            boolean last = end == size;
+            CoderResult result = decoder.decode(window, out, last);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (last && !window.hasRemaining()) {
+                decoder.flush(out);
+                eof = true;
+                break;
+            }
+            if (result.isOverflow()) break;
+        }
+        int n = out.position() - off;
+        return n == 0 && eof ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
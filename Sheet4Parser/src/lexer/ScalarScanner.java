@@ -0,0 +1,15 @@
+package lexer;
+
+final class ScalarScanner implements CharScanner {
+    static final ScalarScanner INSTANCE = new ScalarScanner();
+
+    private ScalarScanner() {}
+
+    @Override
+    public int find(Stop stop, char[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (CharScanner.isStop(stop, buf[i])) return i;
+        }
+        return to;
+    }
+}
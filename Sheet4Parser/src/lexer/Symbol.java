@@ -0,0 +1,39 @@
+package lexer;
+
+/**
+ * Internierter Bezeichner. Pro Name existiert in einer SymbolTable genau eine
+ * Instanz, Vergleiche sind daher reine Referenz- bzw. id-Vergleiche.
+ * Die id ist dicht (0, 1, 2, ...) und eignet sich als Array-Index.
+ */
+public final class Symbol {
+    private final String name;
+    private final int id;
+
+    Symbol(String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    // Kurzform für das Symbol aus der gemeinsamen Tabelle
+    public static Symbol of(String name) {
+        return SymbolTable.shared().intern(name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
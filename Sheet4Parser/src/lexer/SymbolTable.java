@@ -0,0 +1,172 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * Bildet Bezeichner-Text auf dichte int-ids ab. Der Lexer sucht direkt mit dem
+ * Zeichenpuffer nach, ein String entsteht nur beim ersten Auftreten eines Namens.
+ *
+ * Lesen ist ohne Sperre möglich (Symbol ist unveränderlich); nur das Einfügen
+ * neuer Namen ist synchronisiert, damit mehrere Parser dieselbe Tabelle teilen können.
+ *
+ * Eine Tabelle mit Elterntabelle übernimmt deren beim Anlegen bekannte Namen (gleiche
+ * Symbol-Instanzen) und legt neue Namen nur bei sich an, mit ids ab der damaligen
+ * Größe der Elterntabelle. So wächst z.B. die gemeinsame Tabelle im Compile-Server
+ * nicht mit jeder Anfrage.
+ */
+public final class SymbolTable {
+    // Operatoren sind ebenfalls Symbole (Funktionsnamen in Expr.Call)
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "=", "<", ">"};
+
+    private static final SymbolTable SHARED = new SymbolTable();
+
+    private final SymbolTable parent;                    // null bei einer eigenständigen Tabelle
+    private final int base;                              // id des ersten eigenen Symbols
+    private volatile Symbol[] slots = new Symbol[256];   // offene Adressierung, Größe Zweierpotenz
+    private volatile Symbol[] byId = new Symbol[128];
+    private int size = 0;
+
+    public SymbolTable() {
+        this.parent = null;
+        this.base = 0;
+        for (String op : OPERATORS) {
+            intern(op);
+        }
+    }
+
+    // Die Operatoren kommen aus der Elterntabelle
+    public SymbolTable(SymbolTable parent) {
+        this.parent = parent;
+        this.base = parent.size();
+    }
+
+    // Gemeinsame Tabelle für alle Lexer und Parser
+    public static SymbolTable shared() {
+        return SHARED;
+    }
+
+    public Symbol intern(String name) {
+        return intern(name, name.hashCode());
+    }
+
+    /**
+     * Sucht den Namen buf[off, off+len) ohne Zwischen-String.
+     * 'hash' muss wie String.hashCode() berechnet sein (der Lexer tut das beim Scannen).
+     */
+    public Symbol intern(char[] buf, int off, int len, int hash) {
+        Symbol found = inherited(buf, off, len, hash);
+        if (found == null) found = find(slots, buf, off, len, hash);
+        if (found != null) return found;
+        return insert(new String(buf, off, len), hash);
+    }
+
+    public Symbol intern(char[] buf, int off, int len) {
+        int hash = 0;
+        for (int i = 0; i < len; i++) {
+            hash = 31 * hash + buf[off + i];
+        }
+        return intern(buf, off, len, hash);
+    }
+
+    private Symbol intern(String name, int hash) {
+        Symbol found = inherited(name, hash);
+        if (found == null) found = find(name, hash);
+        if (found != null) return found;
+        return insert(name, hash);
+    }
+
+    public Symbol symbol(int id) {
+        if (id >= 0 && id < base) return parent.symbol(id);
+        Symbol[] symbols = byId;
+        if (id < 0 || id - base >= symbols.length || symbols[id - base] == null) {
+            throw new IllegalArgumentException("Unbekannte Symbol-id: " + id);
+        }
+        return symbols[id - base];
+    }
+
+    // Anzahl vergebener ids, einschließlich der aus der Elterntabelle übernommenen
+    public synchronized int size() {
+        return base + size;
+    }
+
+    // Symbol der Elterntabelle, falls es beim Anlegen dieser Tabelle schon existierte
+    private Symbol inherited(char[] buf, int off, int len, int hash) {
+        if (parent == null) return null;
+        Symbol s = parent.inherited(buf, off, len, hash);
+        if (s == null) s = find(parent.slots, buf, off, len, hash);
+        return s != null && s.id() < base ? s : null;
+    }
+
+    private Symbol inherited(String name, int hash) {
+        if (parent == null) return null;
+        Symbol s = parent.inherited(name, hash);
+        if (s == null) s = parent.find(name, hash);
+        return s != null && s.id() < base ? s : null;
+    }
+
+    private Symbol find(String name, int hash) {
+        Symbol[] table = slots;
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            Symbol s = table[i];
+            if (s == null) return null;
+            if (s.name().equals(name)) return s;
+        }
+    }
+
+    private static Symbol find(Symbol[] table, char[] buf, int off, int len, int hash) {
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            Symbol s = table[i];
+            if (s == null) return null;
+            if (s.name().hashCode() == hash && sameText(s.name(), buf, off, len)) return s;
+        }
+    }
+
+    private static boolean sameText(String name, char[] buf, int off, int len) {
+        if (name.length() != len) return false;
+        for (int i = 0; i < len; i++) {
+            if (name.charAt(i) != buf[off + i]) return false;
+        }
+        return true;
+    }
+
+    private synchronized Symbol insert(String name, int hash) {
+        // Erneut unter Sperre suchen, ein anderer Thread kann den Namen inzwischen eingefügt haben
+        Symbol[] table = slots;
+        int mask = table.length - 1;
+        int i = hash & mask;
+        for (; table[i] != null; i = (i + 1) & mask) {
+            if (table[i].name().equals(name)) return table[i];
+        }
+
+        Symbol symbol = new Symbol(name, base + size);
+        if (size == byId.length) {
+            Symbol[] grownIds = Arrays.copyOf(byId, size * 2);
+            grownIds[size] = symbol;
+            byId = grownIds;
+        } else {
+            byId[size] = symbol;
+        }
+        size++;
+
+        // Füllgrad <= 1/2, sonst neu aufbauen
+        if (2 * size > table.length) {
+            Symbol[] grown = new Symbol[table.length * 2];
+            int newMask = grown.length - 1;
+            for (Symbol s : table) {
+                if (s == null) continue;
+                int j = s.name().hashCode() & newMask;
+                while (grown[j] != null) j = (j + 1) & newMask;
+                grown[j] = s;
+            }
+            int j = hash & newMask;
+            while (grown[j] != null) j = (j + 1) & newMask;
+            grown[j] = symbol;
+            slots = grown;
+        } else {
+            table[i] = symbol;
+        }
+        return symbol;
+    }
+}
@@ -0,0 +1,168 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * Kompakter Tokenstrom als "Struct of Arrays": pro Token nur TokenType-Ordinal,
+ * Start-/Endposition in der Quelle und ein long-Literal (Zahlwert, Boolean als 0/1,
+ * Symbol-id bei Bezeichnern).
+ * Lexeme werden erst bei Bedarf aus der Quelle materialisiert.
+ */
+public final class TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final CharSequence source;   // null bei Streaming-Quellen
+    private final SymbolTable symbols;
+    private byte[] types;
+    private int[] starts;
+    private int[] ends;
+    private long[] literals;
+    private String[] texts;              // nur ohne Quelle: gesicherte variable Lexeme
+    private int size = 0;
+    private LineIndex lines;             // vom Lexer mitgesammelt oder bei Bedarf aus der Quelle
+
+    TokenStream(CharSequence source, SymbolTable symbols, int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.source = source;
+        this.symbols = symbols;
+        this.types = new byte[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.literals = new long[capacity];
+        if (source == null) {
+            this.texts = new String[capacity];
+        }
+    }
+
+    void add(TokenType type, int start, int end, long literal, String text) {
+        if (size == types.length) {
+            int capacity = size + (size >> 1);
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            literals = Arrays.copyOf(literals, capacity);
+            if (texts != null) texts = Arrays.copyOf(texts, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        literals[size] = literal;
+        if (texts != null) texts[size] = text;
+        size++;
+    }
+
+    void setLineIndex(LineIndex lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * Zeilenanfänge der Quelle, beim ersten Aufruf aus der Quelle berechnet.
+     * Streaming-Quellen brauchen dafür Lexer.setLineTracking(true).
+     */
+    public LineIndex lineIndex() {
+        if (lines == null) {
+            if (source == null) {
+                throw new IllegalStateException("Kein Zeilenindex: Quelle nicht im Speicher, Lexer.setLineTracking(true) verwenden");
+            }
+            lines = LineIndex.of(source);
+        }
+        return lines;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Tabelle, aus der die Symbol-ids der Bezeichner stammen
+    public SymbolTable symbolTable() {
+        return symbols;
+    }
+
+    public TokenType type(int i) {
+        return TYPES[types[check(i)]];
+    }
+
+    public int start(int i) {
+        return starts[check(i)];
+    }
+
+    public int end(int i) {
+        return ends[check(i)];
+    }
+
+    public long literal(int i) {
+        return literals[check(i)];
+    }
+
+    // Symbol eines IDENTIFIER-Tokens
+    public Symbol symbol(int i) {
+        if (type(i) != TokenType.IDENTIFIER) {
+            throw new IllegalArgumentException("Token " + i + " ist kein Bezeichner: " + type(i));
+        }
+        return symbols.symbol((int) literals[i]);
+    }
+
+    /**
+     * Lexem wie bei Token.lexeme(): feste Lexeme kommen aus einer Tabelle,
+     * Strings ohne Anführungszeichen, alles andere als Ausschnitt der Quelle.
+     */
+    public String lexeme(int i) {
+        TokenType type = type(i);
+        String fixed = type == TokenType.BOOLEAN
+                ? (literals[i] != 0 ? "true" : "false")
+                : fixedLexeme(type);
+        if (fixed != null) return fixed;
+        if (type == TokenType.IDENTIFIER) return symbol(i).name();
+
+        if (source == null) {
+            return texts[i];
+        }
+        if (type != TokenType.STRING) {
+            return source.subSequence(starts[i], ends[i]).toString();
+        }
+        // Nicht geschlossene Strings (Diagnosemodus) reichen ohne Anführungszeichen bis zum Ende
+        boolean closed = ends[i] - starts[i] >= 2 && source.charAt(ends[i] - 1) == '"';
+        return source.subSequence(starts[i] + 1, closed ? ends[i] - 1 : ends[i]).toString();
+    }
+
+    // Materialisiert das i-te Token als Token-Record (z.B. für Fehlermeldungen)
+    public Token token(int i) {
+        TokenType type = type(i);
+        String lexeme = lexeme(i);
+        return switch (type) {
+            case INTEGER -> new Token(type, lexeme, (int) literals[i]);
+            case STRING -> new Token(type, lexeme, lexeme);
+            case BOOLEAN -> new Token(type, lexeme, literals[i] != 0);
+            default -> new Token(type, lexeme);
+        };
+    }
+
+    // Lexem von Token mit festem Text, sonst null
+    static String fixedLexeme(TokenType type) {
+        return switch (type) {
+            case LEFT_PAREN -> "(";
+            case RIGHT_PAREN -> ")";
+            case PLUS -> "+";
+            case MINUS -> "-";
+            case MUL -> "*";
+            case DIV -> "/";
+            case EQUAL -> "=";
+            case GREATER -> ">";
+            case LESS -> "<";
+            case DEF -> "def";
+            case DEFN -> "defn";
+            case LET -> "let";
+            case IF -> "if";
+            case DO -> "do";
+            case EOF -> "<EOF>";
+            case INTEGER, STRING, BOOLEAN, IDENTIFIER -> null;
+        };
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Token index " + i + " out of bounds for size " + size);
+        }
+        return i;
+    }
+}
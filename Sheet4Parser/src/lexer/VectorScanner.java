@@ -0,0 +1,33 @@
+package lexer;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scanner über die Vector API: vergleicht SPECIES.length() Zeichen auf einmal
+ * und nimmt den ersten Treffer der Maske. Der Rest (kürzer als ein Vektor) läuft skalar.
+ * Benötigt '--add-modules jdk.incubator.vector' beim Kompilieren und Ausführen.
+ */
+final class VectorScanner implements CharScanner {
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    public int find(Stop stop, char[] buf, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, buf, i);
+            VectorMask<Short> hits = switch (stop) {
+                case NON_WHITESPACE -> v.eq((short) ' ').or(v.eq((short) '\t'))
+                        .or(v.eq((short) '\r')).or(v.eq((short) '\n')).not();
+                case NEWLINE -> v.eq((short) '\n').or(v.eq((short) 0));
+                case QUOTE -> v.eq((short) '"').or(v.eq((short) 0));
+            };
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        return ScalarScanner.INSTANCE.find(stop, buf, i, to);
+    }
+}
@@ -0,0 +1,26 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR-Event für einen Aufruf von Lexer.tokenize() bzw. eine per nextToken() gelesene Eingabe
+@Name("sheet4.Lex")
+@Label("Lexing")
+@Category({"Sheet4", "Compiler"})
+@Description("Tokenisierung einer Übersetzungseinheit")
+public final class LexEvent extends Event {
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Characters")
+    long characters;
+
+    // Nur im Token-für-Token-Modus; bei tokenize() ist die Dauer des Events die Lexzeit
+    @Label("Lexing Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long lexingTime;
+}
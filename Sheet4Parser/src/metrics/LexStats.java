@@ -0,0 +1,57 @@
+package metrics;
+
+import lexer.TokenType;
+
+/**
+ * Zähler für den Token-für-Token-Modus des Lexers (nextToken), in dem Lexen und
+ * Parsen abwechselnd laufen. Gemessen wird nur die Zeit im Lexer; am Ende der
+ * Eingabe gehen Tokens, Zeichen und Dauer an Metrics (Phase LEX) und an ein
+ * LexEvent. Dessen Dauer umfasst auch das dazwischenliegende Parsen, die reine
+ * Lexzeit steht im Feld lexingTime.
+ */
+public final class LexStats {
+    private final LexEvent event = new LexEvent();
+    private final long[] counts = new long[TokenType.values().length];
+    private long nanos = 0;
+    private boolean finished = false;
+
+    private LexStats() {
+        event.begin();
+    }
+
+    // null, wenn weder Metrics noch die JFR-Aufzeichnung etwas davon brauchen
+    public static LexStats create() {
+        if (Metrics.isEnabled()) {
+            return new LexStats();
+        }
+        LexStats stats = new LexStats();
+        return stats.event.isEnabled() ? stats : null;
+    }
+
+    // Ein geliefertes Token; 'start' ist System.nanoTime() vor dem Scannen
+    public void token(TokenType type, long start) {
+        nanos += System.nanoTime() - start;
+        counts[type.ordinal()]++;
+    }
+
+    // Bisherige Zeit im Lexer in Nanosekunden
+    public long nanos() {
+        return nanos;
+    }
+
+    // Nach dem EOF-Token; weitere Aufrufe werden ignoriert
+    public void finish(long characters) {
+        if (finished) return;
+        finished = true;
+        long tokens = 0;
+        for (long c : counts) tokens += c;
+        event.end();
+        if (event.shouldCommit()) {
+            event.tokens = tokens;
+            event.characters = characters;
+            event.lexingTime = nanos;
+            event.commit();
+        }
+        Metrics.lexed(counts, characters, nanos);
+    }
+}
@@ -0,0 +1,239 @@
+package metrics;
+
+import lexer.TokenStream;
+import lexer.TokenType;
+import parser.Expr;
+import parser.Expr.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Prozessweite Zähler für Lexer, Parser und Printer (threadsicher über LongAdder).
+ * Standardmäßig aus: die Einstiegspunkte prüfen dann nur ein Flag. Unabhängig davon
+ * wird pro Übersetzungseinheit ein JFR-Event (LexEvent, ParseEvent, PrintEvent)
+ * erzeugt, das nur bei laufender Aufzeichnung Kosten verursacht.
+ *
+ * Gezählt werden Tokens aus Lexer.tokenize() und aus dem Token-für-Token-Modus
+ * (nextToken, über LexStats). In diesem Modus wird die Zeit im Lexer aus der
+ * Parse-Zeit herausgerechnet und als Phase LEX gezählt.
+ */
+public final class Metrics {
+
+    public enum Phase { LEX, PARSE, PRINT }
+
+    // Reihenfolge wie in Expr (permits)
+    private static final String[] NODE_KINDS =
+            {"Program", "IntLiteral", "StringLiteral", "BoolLiteral", "Variable", "Def", "Defn", "Let", "If", "Do", "Call", "Error"};
+
+    private static volatile boolean enabled = false;
+
+    private static final LongAdder[] tokens = adders(TokenType.values().length);
+    private static final LongAdder[] nodes = adders(NODE_KINDS.length);
+    private static final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private static final LongAdder charactersLexed = new LongAdder();
+    private static final LongAdder charactersPrinted = new LongAdder();
+    private static final LongAdder[] phaseCount = adders(Phase.values().length);
+    private static final LongAdder[] phaseNanos = adders(Phase.values().length);
+
+    private Metrics() {}
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Startzeit für eine Phase, 0 wenn abgeschaltet
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Nach Lexer.tokenize(): Tokens je Typ, gelesene Zeichen und Dauer.
+     */
+    public static void lexed(TokenStream stream, long start, LexEvent event) {
+        // Ende vor dem Zählen, das gehört nicht mehr zur Phase
+        long end = start != 0 ? System.nanoTime() : 0;
+        event.end();
+        int characters = stream.end(stream.size() - 1);
+        if (event.shouldCommit()) {
+            event.tokens = stream.size();
+            event.characters = characters;
+            event.commit();
+        }
+        if (start == 0 || !enabled) return;
+        long[] counts = new long[tokens.length];
+        for (int i = 0; i < stream.size(); i++) {
+            counts[stream.type(i).ordinal()]++;
+        }
+        lexed(counts, characters, end - start);
+    }
+
+    // Tokens je Typ (nach Ordinal), gelesene Zeichen und Zeit im Lexer
+    static void lexed(long[] counts, long characters, long nanos) {
+        if (!enabled) return;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) tokens[i].add(counts[i]);
+        }
+        charactersLexed.add(characters);
+        phase(Phase.LEX, nanos);
+    }
+
+    /**
+     * Nach Parser.parse(): Knoten je Art, maximale Verschachtelungstiefe und Dauer.
+     * 'lexNanos' ist die darin enthaltene Zeit im Lexer (Token-für-Token-Modus), sie
+     * zählt zur Phase LEX statt PARSE.
+     */
+    public static void parsed(Program program, long start, long lexNanos, ParseEvent event) {
+        // Ende vor dem Durchlauf über den Baum, der gehört nicht mehr zur Phase
+        long end = start != 0 ? System.nanoTime() : 0;
+        event.end();
+        boolean commit = event.shouldCommit();
+        if (!commit && (start == 0 || !enabled)) return;
+
+        // Iterativ, da der iterative Parser beliebig tiefe Bäume liefert
+        long[] counts = new long[NODE_KINDS.length];
+        int depth = 0;
+        ArrayDeque<Expr> pending = new ArrayDeque<>();
+        int[] depths = new int[16];
+        pending.push(program);
+        depths[0] = 0;
+        while (!pending.isEmpty()) {
+            Expr expr = pending.pop();
+            int level = depths[pending.size()];
+            depth = Math.max(depth, level);
+            counts[kind(expr)]++;
+            int before = pending.size();
+            forEachChild(expr, pending::push);
+            // Tiefe der Kinder parallel zum Stapel, ohne Boxing
+            if (pending.size() > depths.length) {
+                depths = Arrays.copyOf(depths, Math.max(pending.size(), depths.length * 2));
+            }
+            Arrays.fill(depths, before, pending.size(), level + 1);
+        }
+
+        long total = 0;
+        for (long c : counts) total += c;
+        if (commit) {
+            event.forms = program.expressions().size();
+            event.nodes = total;
+            event.maxDepth = depth;
+            event.commit();
+        }
+        if (start == 0 || !enabled) return;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) nodes[i].add(counts[i]);
+        }
+        maxDepth.accumulate(depth);
+        phase(Phase.PARSE, end - start - lexNanos);
+    }
+
+    /**
+     * Nach einem Printer-Aufruf: geschriebene Zeichen und Dauer.
+     */
+    public static void printed(String printer, long characters, long start, PrintEvent event) {
+        if (event.shouldCommit()) {
+            event.printer = printer;
+            event.characters = characters;
+            event.commit();
+        }
+        if (start == 0 || !enabled) return;
+        charactersPrinted.add(characters);
+        phase(Phase.PRINT, System.nanoTime() - start);
+    }
+
+    private static void phase(Phase phase, long nanos) {
+        phaseCount[phase.ordinal()].increment();
+        phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * Momentaufnahme aller Zähler, z.B. zum Export an ein Monitoring.
+     * Bei gleichzeitigen Aufrufen nicht atomar über alle Zähler hinweg.
+     */
+    public static MetricsSnapshot snapshot() {
+        Map<TokenType, Long> tokenCounts = new EnumMap<>(TokenType.class);
+        for (TokenType type : TokenType.values()) {
+            tokenCounts.put(type, tokens[type.ordinal()].sum());
+        }
+        Map<String, Long> nodeCounts = new LinkedHashMap<>();
+        for (int i = 0; i < NODE_KINDS.length; i++) {
+            nodeCounts.put(NODE_KINDS[i], nodes[i].sum());
+        }
+        Map<Phase, MetricsSnapshot.PhaseTime> phases = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new MetricsSnapshot.PhaseTime(phaseCount[phase.ordinal()].sum(), phaseNanos[phase.ordinal()].sum()));
+        }
+        return new MetricsSnapshot(tokenCounts, nodeCounts, maxDepth.get(),
+                charactersLexed.sum(), charactersPrinted.sum(), phases);
+    }
+
+    // Setzt alle Zähler zurück (Flag bleibt unverändert)
+    public static void reset() {
+        for (LongAdder a : tokens) a.reset();
+        for (LongAdder a : nodes) a.reset();
+        for (LongAdder a : phaseCount) a.reset();
+        for (LongAdder a : phaseNanos) a.reset();
+        maxDepth.reset();
+        charactersLexed.reset();
+        charactersPrinted.reset();
+    }
+
+    private static int kind(Expr expr) {
+        return switch (expr) {
+            case Program p -> 0;
+            case IntLiteral e -> 1;
+            case StringLiteral e -> 2;
+            case BoolLiteral e -> 3;
+            case Variable e -> 4;
+            case Def e -> 5;
+            case Defn e -> 6;
+            case Let e -> 7;
+            case If e -> 8;
+            case Do e -> 9;
+            case Call e -> 10;
+            case Expr.Error e -> 11;
+        };
+    }
+
+    private static void forEachChild(Expr expr, Consumer<Expr> action) {
+        switch (expr) {
+            case Program p -> p.expressions().forEach(action);
+            case Def d -> action.accept(d.value());
+            case Defn d -> action.accept(d.body());
+            case Let l -> {
+                l.bindings().forEach(b -> action.accept(b.value()));
+                action.accept(l.body());
+            }
+            case If i -> {
+                action.accept(i.condition());
+                action.accept(i.thenBranch());
+                if (i.elseBranch() != null) action.accept(i.elseBranch());
+            }
+            case Do d -> d.expressions().forEach(action);
+            case Call c -> c.arguments().forEach(action);
+            default -> {}
+        }
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
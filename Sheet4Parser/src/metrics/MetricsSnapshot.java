@@ -0,0 +1,62 @@
+package metrics;
+
+import lexer.TokenType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Unveränderliche Momentaufnahme der Zähler aus Metrics.
+ */
+public record MetricsSnapshot(Map<TokenType, Long> tokens,
+                              Map<String, Long> nodes,
+                              long maxDepth,
+                              long charactersLexed,
+                              long charactersPrinted,
+                              Map<Metrics.Phase, PhaseTime> phases) {
+
+    // Anzahl der Durchläufe und gesamte Wandzeit einer Phase
+    public record PhaseTime(long count, long nanos) {}
+
+    public MetricsSnapshot {
+        tokens = Collections.unmodifiableMap(copy(new EnumMap<>(TokenType.class), tokens));
+        nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+        phases = Collections.unmodifiableMap(copy(new EnumMap<>(Metrics.Phase.class), phases));
+    }
+
+    private static <K, V> Map<K, V> copy(Map<K, V> target, Map<K, V> source) {
+        target.putAll(source);
+        return target;
+    }
+
+    public long totalTokens() {
+        return tokens.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long totalNodes() {
+        return nodes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Flache Sicht für den Export, z.B. "tokens.INTEGER", "nodes.Call", "phase.parse.nanos".
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (TokenType type : TokenType.values()) {
+            map.put("tokens." + type, tokens.getOrDefault(type, 0L));
+        }
+        nodes.forEach((kind, count) -> map.put("nodes." + kind, count));
+        map.put("maxDepth", maxDepth);
+        map.put("charactersLexed", charactersLexed);
+        map.put("charactersPrinted", charactersPrinted);
+        for (Metrics.Phase phase : Metrics.Phase.values()) {
+            PhaseTime time = phases.getOrDefault(phase, new PhaseTime(0, 0));
+            String prefix = "phase." + phase.name().toLowerCase() + ".";
+            map.put(prefix + "count", time.count());
+            map.put(prefix + "nanos", time.nanos());
+        }
+        return map;
+    }
+}
@@ -0,0 +1,23 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR-Event für einen Aufruf von Parser.parse() bzw. parseIterative()
+@Name("sheet4.Parse")
+@Label("Parsing")
+@Category({"Sheet4", "Compiler"})
+@Description("Parsen einer Übersetzungseinheit")
+public final class ParseEvent extends Event {
+    @Label("Top-Level Forms")
+    long forms;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Max Depth")
+    int maxDepth;
+}
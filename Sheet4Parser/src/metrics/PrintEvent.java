@@ -0,0 +1,20 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR-Event für eine Ausgabe durch einen der Printer
+@Name("sheet4.Print")
+@Label("Printing")
+@Category({"Sheet4", "Compiler"})
+@Description("Ausgabe eines AST")
+public final class PrintEvent extends Event {
+    @Label("Printer")
+    String printer;
+
+    @Label("Characters")
+    long characters;
+}
@@ -0,0 +1,512 @@
+package optimizer;
+
+import interpreter.Builtin;
+import interpreter.Builtins;
+import lexer.Symbol;
+import parser.Expr;
+import parser.Expr.*;
+import parser.ExprVisitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Optimierungsschritt vor der Ausführung: schreibt den AST bottom-up um.
+ *
+ * - Arithmetik und Vergleiche mit Literal-Argumenten werden ausgerechnet,
+ *   bei + und * werden mehrere Literale zu einem zusammengefasst
+ * - If mit konstanter Bedingung wird durch den gewählten Zweig ersetzt
+ * - verschachtelte Do werden flachgeklopft, wirkungslose Ausdrücke entfernt
+ * - Let-Bindungen an Konstanten werden überall eingesetzt, reine Ausdrücke,
+ *   die genau einmal (unbedingt) benutzt werden, an der Verwendungsstelle
+ *
+ * Ein Operator wird nur gefaltet, wenn er weder lokal gebunden noch im Programm
+ * neu definiert ist. Ergäbe die Auswertung einen Laufzeitfehler (z.B. Division
+ * durch 0), bleibt der Aufruf stehen. Reine Ausdrücke werden nur verschoben, wenn
+ * vor der Verwendungsstelle nichts ausgewertet wird, das fehlschlagen oder etwas
+ * bewirken kann; Fehler werden so in derselben Reihenfolge gemeldet.
+ */
+public class ConstantFolder implements ExprVisitor<Expr> {
+
+    private static final Map<String, Function<Object[], Object>> FOLDABLE = Map.of(
+            "+", Builtins::add,
+            "-", Builtins::subtract,
+            "*", Builtins::multiply,
+            "/", Builtins::divide,
+            "=", Builtins::equal,
+            "<", Builtins::less,
+            ">", Builtins::greater);
+
+    // Namen aller Builtins: ihr Nachschlagen schlägt nie fehl, solange das Programm sie nicht neu definiert
+    private static final Set<String> BUILTIN_NAMES = Builtins.all(System.out).stream()
+            .map(Builtin::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    // Eine lokale Bindung: bekannter Konstantenwert (oder null) und Zahl der verbliebenen Verwendungen
+    private static final class Local {
+        final Expr constant;
+        int uses = 0;
+
+        Local(Expr constant) {
+            this.constant = constant;
+        }
+    }
+
+    private final Set<Symbol> redefined = new HashSet<>();
+    private final List<Map<Symbol, Local>> scopes = new ArrayList<>();   // innerster Scope zuletzt
+    private int removedNodes = 0;
+
+    public Expr optimize(Expr expr) {
+        redefined.clear();
+        scopes.clear();
+        collectDefinitions(expr);
+        Expr result = expr.accept(this);
+        removedNodes = countNodes(expr) - countNodes(result);
+        return result;
+    }
+
+    public Program optimize(Program program) {
+        return (Program) optimize((Expr) program);
+    }
+
+    /**
+     * Anzahl der Knoten, um die der letzte optimize()-Aufruf den AST verkleinert hat.
+     */
+    public int removedNodes() {
+        return removedNodes;
+    }
+
+    // Knotenzahl eines Ausdrucks (auch für die Benchmarks)
+    public static int countNodes(Expr expr) {
+        return switch (expr) {
+            case Program p -> 1 + countAll(p.expressions());
+            case IntLiteral e -> 1;
+            case StringLiteral e -> 1;
+            case BoolLiteral e -> 1;
+            case Variable e -> 1;
+            case Def d -> 1 + countNodes(d.value());
+            case Defn d -> 1 + countNodes(d.body());
+            case Let l -> {
+                int count = 1 + countNodes(l.body());
+                for (Binding b : l.bindings()) count += countNodes(b.value());
+                yield count;
+            }
+            case If i -> 1 + countNodes(i.condition()) + countNodes(i.thenBranch())
+                    + (i.elseBranch() != null ? countNodes(i.elseBranch()) : 0);
+            case Do d -> 1 + countAll(d.expressions());
+            case Call c -> 1 + countAll(c.arguments());
+            case Expr.Error e -> 1;
+        };
+    }
+
+    private static int countAll(List<Expr> exprs) {
+        int count = 0;
+        for (Expr e : exprs) count += countNodes(e);
+        return count;
+    }
+
+    private void collectDefinitions(Expr expr) {
+        switch (expr) {
+            case Program p -> p.expressions().forEach(this::collectDefinitions);
+            case Def d -> {
+                redefined.add(d.name());
+                collectDefinitions(d.value());
+            }
+            case Defn d -> {
+                redefined.add(d.name());
+                collectDefinitions(d.body());
+            }
+            case Let l -> {
+                l.bindings().forEach(b -> collectDefinitions(b.value()));
+                collectDefinitions(l.body());
+            }
+            case If i -> {
+                collectDefinitions(i.condition());
+                collectDefinitions(i.thenBranch());
+                if (i.elseBranch() != null) collectDefinitions(i.elseBranch());
+            }
+            case Do d -> d.expressions().forEach(this::collectDefinitions);
+            case Call c -> c.arguments().forEach(this::collectDefinitions);
+            default -> {}
+        }
+    }
+
+    // --- Hilfsfunktionen ---
+
+    private Local lookup(Symbol name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Local local = scopes.get(i).get(name);
+            if (local != null) return local;
+        }
+        return null;
+    }
+
+    private boolean isBuiltin(Symbol name) {
+        return BUILTIN_NAMES.contains(name.name()) && !redefined.contains(name) && lookup(name) == null;
+    }
+
+    private boolean isPrimitive(Symbol name) {
+        return FOLDABLE.containsKey(name.name()) && !redefined.contains(name) && lookup(name) == null;
+    }
+
+    private static boolean isLiteral(Expr expr) {
+        return expr instanceof IntLiteral || expr instanceof StringLiteral || expr instanceof BoolLiteral;
+    }
+
+    private static Object literalValue(Expr expr) {
+        return switch (expr) {
+            case IntLiteral e -> e.value();
+            case StringLiteral e -> e.value();
+            case BoolLiteral e -> e.value();
+            default -> throw new IllegalArgumentException("Kein Literal: " + expr);
+        };
+    }
+
+    private static Expr literal(Object value) {
+        return switch (value) {
+            case Integer i -> new IntLiteral(i);
+            case Boolean b -> new BoolLiteral(b);
+            case String s -> new StringLiteral(s);
+            default -> null;
+        };
+    }
+
+    private boolean isLocal(Symbol name) {
+        return lookup(name) != null;
+    }
+
+    // Auswertung kann weder fehlschlagen noch etwas bewirken ('local': welche Namen an der Stelle lokal sind)
+    private static boolean isTrivial(Expr expr, Predicate<Symbol> local) {
+        return isLiteral(expr) || expr instanceof Variable v && local.test(v.name());
+    }
+
+    // Ohne Nebenwirkung und unabhängig von globalen Namen (kann aber fehlschlagen)
+    private boolean isPure(Expr expr, Predicate<Symbol> local) {
+        if (isTrivial(expr, local)) return true;
+        if (expr instanceof Call c && isPrimitive(c.functionName())) {
+            for (Expr arg : c.arguments()) {
+                if (!isPure(arg, local)) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private List<Expr> foldAll(List<Expr> exprs) {
+        List<Expr> result = new ArrayList<>(exprs.size());
+        for (Expr e : exprs) {
+            result.add(e.accept(this));
+        }
+        return result;
+    }
+
+    // --- Visitor Implementierungen ---
+
+    @Override
+    public Expr visitProgram(Program expr) {
+        return new Program(foldAll(expr.expressions()));
+    }
+
+    @Override
+    public Expr visitIntLiteral(IntLiteral expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitStringLiteral(StringLiteral expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitBoolLiteral(BoolLiteral expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitVariable(Variable expr) {
+        Local local = lookup(expr.name());
+        if (local == null) return expr;
+        if (local.constant != null) return local.constant;
+        local.uses++;
+        return expr;
+    }
+
+    @Override
+    public Expr visitDef(Def expr) {
+        return new Def(expr.name(), expr.value().accept(this));
+    }
+
+    @Override
+    public Expr visitDefn(Defn expr) {
+        Map<Symbol, Local> scope = new HashMap<>();
+        for (Symbol param : expr.params()) {
+            scope.put(param, new Local(null));
+        }
+        scopes.add(scope);
+        Expr body = expr.body().accept(this);
+        scopes.remove(scopes.size() - 1);
+        return new Defn(expr.name(), expr.params(), body);
+    }
+
+    @Override
+    public Expr visitLet(Let expr) {
+        // Bindings sind sequentiell: jeder Wert sieht die vorherigen Namen
+        Map<Symbol, Local> scope = new HashMap<>();
+        scopes.add(scope);
+        List<Binding> bindings = new ArrayList<>();
+        List<Local> locals = new ArrayList<>();
+        for (Binding b : expr.bindings()) {
+            Expr value = b.value().accept(this);
+            Local local = new Local(isLiteral(value) ? value : null);
+            bindings.add(new Binding(b.name(), value));
+            locals.add(local);
+            scope.put(b.name(), local);
+        }
+        Expr body = expr.body().accept(this);
+        scopes.remove(scopes.size() - 1);
+
+        // Konstante Bindungen sind bereits eingesetzt und fallen weg, wenn nichts mehr auf sie zeigt
+        for (int i = bindings.size() - 1; i >= 0; i--) {
+            Local local = locals.get(i);
+            if (local.constant != null && local.uses == 0) {
+                bindings.remove(i);
+                locals.remove(i);
+            }
+        }
+
+        // Übrige Bindungen an der Verwendungsstelle einsetzen, wo das die Bedeutung nicht ändert.
+        // Ein Wert sieht nur die Namen der Bindungen davor (Werte ändern sich beim Einsetzen).
+        for (int i = 0; i < bindings.size(); ) {
+            Binding b = bindings.get(i);
+            List<Symbol> before = bindings.subList(0, i).stream().map(Binding::name).toList();
+            Predicate<Symbol> local = name -> before.contains(name) || isLocal(name);
+            boolean trivial = isTrivial(b.value(), local);
+            Expr replaced = null;
+            if (trivial || isPure(b.value(), local) && locals.get(i).uses == 1) {
+                Let rest = new Let(bindings.subList(i + 1, bindings.size()), body);
+                Predicate<Symbol> visible = name -> name == b.name() || local.test(name);
+                replaced = new Inliner(b.name(), b.value(), trivial, visible).replace(rest);
+            }
+            if (replaced instanceof Let rest) {
+                List<Binding> remaining = new ArrayList<>(bindings.subList(0, i));
+                remaining.addAll(rest.bindings());
+                bindings = remaining;
+                body = rest.body();
+                locals.remove(i);
+            } else {
+                i++;
+            }
+        }
+
+        return bindings.isEmpty() ? body : new Let(bindings, body);
+    }
+
+    @Override
+    public Expr visitIf(If expr) {
+        Expr condition = expr.condition().accept(this);
+        if (isLiteral(condition)) {
+            // Nur false gilt als falsch (nil kann hier nicht als Literal auftreten)
+            boolean taken = !(condition instanceof BoolLiteral b && !b.value());
+            if (taken) return expr.thenBranch().accept(this);
+            return expr.elseBranch() != null ? expr.elseBranch().accept(this) : new Do(List.of());
+        }
+        Expr thenBranch = expr.thenBranch().accept(this);
+        Expr elseBranch = expr.elseBranch() != null ? expr.elseBranch().accept(this) : null;
+        return new If(condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Expr visitDo(Do expr) {
+        List<Expr> folded = foldAll(expr.expressions());
+        List<Expr> flat = new ArrayList<>();
+        for (int i = 0; i < folded.size(); i++) {
+            // Ein leeres Do am Ende liefert nil und muss als Wert stehen bleiben
+            if (folded.get(i) instanceof Do inner && (!inner.expressions().isEmpty() || i < folded.size() - 1)) {
+                flat.addAll(inner.expressions());
+            } else {
+                flat.add(folded.get(i));
+            }
+        }
+        // Nur der letzte Wert zählt: wirkungslose Ausdrücke davor entfallen
+        for (int i = flat.size() - 2; i >= 0; i--) {
+            if (isTrivial(flat.get(i), this::isLocal)) flat.remove(i);
+        }
+        return flat.size() == 1 ? flat.get(0) : new Do(flat);
+    }
+
+    @Override
+    public Expr visitCall(Call expr) {
+        Local local = lookup(expr.functionName());
+        if (local != null) local.uses++;
+
+        List<Expr> args = foldAll(expr.arguments());
+        if (!isPrimitive(expr.functionName())) {
+            return new Call(expr.functionName(), args);
+        }
+        String operator = expr.functionName().name();
+
+        if (args.stream().allMatch(ConstantFolder::isLiteral)) {
+            Object[] values = args.stream().map(ConstantFolder::literalValue).toArray();
+            try {
+                Expr folded = literal(FOLDABLE.get(operator).apply(values));
+                if (folded != null) return folded;
+            } catch (RuntimeException e) {
+                // Fehler bleibt zur Laufzeit bestehen
+            }
+            return new Call(expr.functionName(), args);
+        }
+
+        // Teilweise Auswertung: + und * sind assoziativ und kommutativ (auch mit Überlauf)
+        if (operator.equals("+") || operator.equals("*")) {
+            List<Expr> rest = new ArrayList<>();
+            List<Object> constants = new ArrayList<>();
+            for (Expr arg : args) {
+                if (arg instanceof IntLiteral i) constants.add(i.value());
+                else rest.add(arg);
+            }
+            if (constants.size() > 1) {
+                rest.add(literal(FOLDABLE.get(operator).apply(constants.toArray())));
+                return new Call(expr.functionName(), rest);
+            }
+        }
+        return new Call(expr.functionName(), args);
+    }
+
+    /**
+     * Ersetzt die Verwendung(en) eines Namens durch einen Ausdruck. Liefert null,
+     * wenn das nicht ohne Bedeutungsänderung geht: ein freier Name des Ausdrucks
+     * wäre an der Stelle verdeckt, der Name wird als Funktion aufgerufen oder
+     * (bei nicht trivialen Ausdrücken) die Stelle wird nicht genau einmal oder
+     * erst nach etwas ausgewertet, das fehlschlagen oder etwas bewirken kann
+     * (auch das Nachschlagen einer aufgerufenen globalen Funktion).
+     */
+    private final class Inliner {
+        private final Symbol name;
+        private final Expr value;
+        private final boolean anywhere;
+        private final Predicate<Symbol> outer;                // lokale Namen am Anfang des Ausdrucks
+        private final List<Symbol> bound = new ArrayList<>(); // darin zusätzlich gebundene Namen
+        private final Set<Symbol> free = new HashSet<>();
+        private int shadowed = 0;       // Anzahl umgebender Scopes, die einen freien Namen verdecken
+        private int conditional = 0;    // Anzahl umgebender If-Zweige und Funktionsrümpfe
+        private boolean found = false;
+        private boolean evaluatedBefore = false;   // vor der Verwendung läuft etwas nicht Triviales
+        private boolean failed = false;
+
+        Inliner(Symbol name, Expr value, boolean anywhere, Predicate<Symbol> outer) {
+            this.name = name;
+            this.value = value;
+            this.anywhere = anywhere;
+            this.outer = outer;
+            collectFree(value);
+        }
+
+        private void collectFree(Expr expr) {
+            if (expr instanceof Variable v) free.add(v.name());
+            if (expr instanceof Call c) {
+                free.add(c.functionName());
+                c.arguments().forEach(this::collectFree);
+            }
+        }
+
+        Expr replace(Expr expr) {
+            Expr result = visit(expr);
+            // Ohne Verwendung darf nur ein trivialer Ausdruck wegfallen
+            return failed || !found && !anywhere ? null : result;
+        }
+
+        private List<Expr> visitAll(List<Expr> exprs) {
+            List<Expr> result = new ArrayList<>(exprs.size());
+            for (Expr e : exprs) result.add(visit(e));
+            return result;
+        }
+
+        private Expr visit(Expr expr) {
+            if (failed) return expr;
+            Expr result = rewrite(expr);
+            if (!found && !(isTrivial(expr, this::visible) || expr instanceof Defn)) {
+                evaluatedBefore = true;
+            }
+            return result;
+        }
+
+        private boolean visible(Symbol symbol) {
+            return bound.contains(symbol) || outer.test(symbol);
+        }
+
+        private Expr rewrite(Expr expr) {
+            return switch (expr) {
+                case Variable v when v.name() == name -> {
+                    if (shadowed > 0 || !anywhere && (conditional > 0 || evaluatedBefore)) failed = true;
+                    found = true;
+                    yield value;
+                }
+                case Program p -> new Program(visitAll(p.expressions()));
+                case Def d -> new Def(d.name(), visit(d.value()));
+                case Defn d -> {
+                    if (d.params().contains(name)) yield d;
+                    boolean hides = d.params().stream().anyMatch(free::contains);
+                    if (hides) shadowed++;
+                    // Der Rumpf wird hier nicht ausgewertet
+                    boolean saved = evaluatedBefore;
+                    int mark = bound.size();
+                    bound.addAll(d.params());
+                    conditional++;
+                    Expr body = visit(d.body());
+                    conditional--;
+                    bound.subList(mark, bound.size()).clear();
+                    evaluatedBefore = saved;
+                    if (hides) shadowed--;
+                    yield new Defn(d.name(), d.params(), body);
+                }
+                case Let l -> {
+                    List<Binding> bindings = new ArrayList<>();
+                    int hides = 0;
+                    int mark = bound.size();
+                    boolean rebound = false;
+                    for (Binding b : l.bindings()) {
+                        bindings.add(rebound ? b : new Binding(b.name(), visit(b.value())));
+                        bound.add(b.name());
+                        if (b.name() == name) rebound = true;
+                        if (free.contains(b.name())) {
+                            shadowed++;
+                            hides++;
+                        }
+                    }
+                    Expr body = rebound ? l.body() : visit(l.body());
+                    bound.subList(mark, bound.size()).clear();
+                    shadowed -= hides;
+                    yield new Let(bindings, body);
+                }
+                case If i -> {
+                    Expr condition = visit(i.condition());
+                    conditional++;
+                    Expr thenBranch = visit(i.thenBranch());
+                    Expr elseBranch = i.elseBranch() != null ? visit(i.elseBranch()) : null;
+                    conditional--;
+                    yield new If(condition, thenBranch, elseBranch);
+                }
+                case Do d -> new Do(visitAll(d.expressions()));
+                case Call c -> {
+                    if (c.functionName() == name) {
+                        failed = true;
+                        found = true;
+                    }
+                    // Ein globaler Name wird vor den Argumenten nachgeschlagen und kann undefiniert sein
+                    if (!found && !visible(c.functionName()) && !isBuiltin(c.functionName())) {
+                        evaluatedBefore = true;
+                    }
+                    yield new Call(c.functionName(), visitAll(c.arguments()));
+                }
+                default -> expr;
+            };
+        }
+    }
+}
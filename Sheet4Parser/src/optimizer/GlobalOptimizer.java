@@ -0,0 +1,363 @@
+package optimizer;
+
+import lexer.Symbol;
+import parser.Expr;
+import parser.Expr.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optimierung über das ganze Programm:
+ *
+ * - kleine, nicht rekursive Funktionen werden an ihren Aufrufstellen eingesetzt:
+ *   (f a b) wird zu (let (p_1 a q_1 b) Rumpf) mit frisch benannten Parametern,
+ *   Argumente werden also weiterhin genau einmal und in Reihenfolge ausgewertet
+ * - Top-Level-Definitionen, die von keinem Einstiegsausdruck aus (über Variablen
+ *   und Aufrufnamen) erreichbar sind, werden entfernt
+ *
+ * Eingesetzt wird nur eine Funktion, die genau einmal (als Top-Level-defn) definiert
+ * ist, und nur an Aufrufstellen hinter dieser Definition. Entfernt werden nur
+ * Definitionen, deren Auswertung weder fehlschlagen noch etwas bewirken kann;
+ * die letzte Form bleibt als Ergebnis des Programms immer stehen.
+ */
+public class GlobalOptimizer {
+
+    public static final int DEFAULT_INLINE_LIMIT = 12;
+
+    // Builtins, deren Aufruf nie fehlschlägt
+    private static final Set<String> SAFE_BUILTINS = Set.of("list", "str");
+
+    private record Candidate(Defn definition, int position, Set<Symbol> free) {}
+
+    private final int inlineLimit;
+    private final Map<Symbol, Integer> definitionCount = new HashMap<>();
+    private final Map<Symbol, Candidate> candidates = new HashMap<>();
+    private final Set<String> usedNames = new HashSet<>();
+    private int removedDefinitions = 0;
+    private int inlinedCalls = 0;
+
+    public GlobalOptimizer() {
+        this(DEFAULT_INLINE_LIMIT);
+    }
+
+    // inlineLimit: maximale Knotenzahl eines Funktionsrumpfs, der noch eingesetzt wird
+    public GlobalOptimizer(int inlineLimit) {
+        this.inlineLimit = inlineLimit;
+    }
+
+    public Program optimize(Program program) {
+        definitionCount.clear();
+        candidates.clear();
+        usedNames.clear();
+        removedDefinitions = 0;
+        inlinedCalls = 0;
+
+        List<Expr> forms = program.expressions();
+        forms.forEach(this::collect);
+        findCandidates(forms);
+
+        List<Expr> inlined = new ArrayList<>(forms.size());
+        for (int i = 0; i < forms.size(); i++) {
+            inlined.add(new Rewriter(i).rewrite(forms.get(i)));
+        }
+        return new Program(removeUnreachable(inlined));
+    }
+
+    public int removedDefinitions() {
+        return removedDefinitions;
+    }
+
+    public int inlinedCalls() {
+        return inlinedCalls;
+    }
+
+    // --- Analyse ---
+
+    private void collect(Expr expr) {
+        switch (expr) {
+            case Program p -> p.expressions().forEach(this::collect);
+            case Variable v -> usedNames.add(v.name().name());
+            case Def d -> {
+                definitionCount.merge(d.name(), 1, Integer::sum);
+                usedNames.add(d.name().name());
+                collect(d.value());
+            }
+            case Defn d -> {
+                definitionCount.merge(d.name(), 1, Integer::sum);
+                usedNames.add(d.name().name());
+                d.params().forEach(p -> usedNames.add(p.name()));
+                collect(d.body());
+            }
+            case Let l -> {
+                for (Binding b : l.bindings()) {
+                    usedNames.add(b.name().name());
+                    collect(b.value());
+                }
+                collect(l.body());
+            }
+            case If i -> {
+                collect(i.condition());
+                collect(i.thenBranch());
+                if (i.elseBranch() != null) collect(i.elseBranch());
+            }
+            case Do d -> d.expressions().forEach(this::collect);
+            case Call c -> {
+                usedNames.add(c.functionName().name());
+                c.arguments().forEach(this::collect);
+            }
+            default -> {}
+        }
+    }
+
+    // Alle Namen, auf die ein Ausdruck über Variablen oder Aufrufe zugreift
+    private static Set<Symbol> references(Expr expr, Set<Symbol> into) {
+        switch (expr) {
+            case Program p -> p.expressions().forEach(e -> references(e, into));
+            case Variable v -> into.add(v.name());
+            case Def d -> references(d.value(), into);
+            case Defn d -> references(d.body(), into);
+            case Let l -> {
+                l.bindings().forEach(b -> references(b.value(), into));
+                references(l.body(), into);
+            }
+            case If i -> {
+                references(i.condition(), into);
+                references(i.thenBranch(), into);
+                if (i.elseBranch() != null) references(i.elseBranch(), into);
+            }
+            case Do d -> d.expressions().forEach(e -> references(e, into));
+            case Call c -> {
+                into.add(c.functionName());
+                c.arguments().forEach(e -> references(e, into));
+            }
+            default -> {}
+        }
+        return into;
+    }
+
+    private static boolean containsDefinition(Expr expr) {
+        return switch (expr) {
+            case Def d -> true;
+            case Defn d -> true;
+            case Program p -> p.expressions().stream().anyMatch(GlobalOptimizer::containsDefinition);
+            case Let l -> l.bindings().stream().anyMatch(b -> containsDefinition(b.value()))
+                    || containsDefinition(l.body());
+            case If i -> containsDefinition(i.condition()) || containsDefinition(i.thenBranch())
+                    || i.elseBranch() != null && containsDefinition(i.elseBranch());
+            case Do d -> d.expressions().stream().anyMatch(GlobalOptimizer::containsDefinition);
+            case Call c -> c.arguments().stream().anyMatch(GlobalOptimizer::containsDefinition);
+            default -> false;
+        };
+    }
+
+    // Namen, die eine Top-Level-Definition (bzw. alle gleichnamigen) direkt benutzen
+    private static Map<Symbol, Set<Symbol>> dependencies(List<Expr> forms) {
+        Map<Symbol, Set<Symbol>> graph = new HashMap<>();
+        for (Expr form : forms) {
+            if (form instanceof Def d) references(d.value(), graph.computeIfAbsent(d.name(), k -> new HashSet<>()));
+            if (form instanceof Defn d) references(d.body(), graph.computeIfAbsent(d.name(), k -> new HashSet<>()));
+        }
+        return graph;
+    }
+
+    private void findCandidates(List<Expr> forms) {
+        Map<Symbol, Set<Symbol>> graph = dependencies(forms);
+        for (int i = 0; i < forms.size(); i++) {
+            if (forms.get(i) instanceof Defn d
+                    && definitionCount.get(d.name()) == 1
+                    && ConstantFolder.countNodes(d.body()) <= inlineLimit
+                    && !containsDefinition(d.body())
+                    && !reachable(graph, graph.get(d.name()), d.name())) {
+                Set<Symbol> free = references(d.body(), new HashSet<>());
+                d.params().forEach(free::remove);
+                candidates.put(d.name(), new Candidate(d, i, free));
+            }
+        }
+    }
+
+    private static boolean reachable(Map<Symbol, Set<Symbol>> graph, Set<Symbol> from, Symbol target) {
+        Set<Symbol> visited = new HashSet<>();
+        ArrayDeque<Symbol> work = new ArrayDeque<>(from);
+        while (!work.isEmpty()) {
+            Symbol name = work.pop();
+            if (name == target) return true;
+            if (visited.add(name)) {
+                work.addAll(graph.getOrDefault(name, Set.of()));
+            }
+        }
+        return false;
+    }
+
+    // --- Entfernen ---
+
+    private List<Expr> removeUnreachable(List<Expr> forms) {
+        Map<Symbol, Set<Symbol>> graph = dependencies(forms);
+        Set<Symbol> live = new HashSet<>();
+        ArrayDeque<Symbol> work = new ArrayDeque<>();
+        for (int i = 0; i < forms.size(); i++) {
+            if (!removable(forms.get(i)) || i == forms.size() - 1) {
+                work.addAll(references(forms.get(i), new HashSet<>()));
+            }
+        }
+        while (!work.isEmpty()) {
+            Symbol name = work.pop();
+            if (live.add(name)) {
+                work.addAll(graph.getOrDefault(name, Set.of()));
+            }
+        }
+
+        List<Expr> result = new ArrayList<>(forms.size());
+        for (int i = 0; i < forms.size(); i++) {
+            Expr form = forms.get(i);
+            Symbol name = form instanceof Def d ? d.name() : form instanceof Defn d ? d.name() : null;
+            if (i < forms.size() - 1 && removable(form) && !live.contains(name)) {
+                removedDefinitions++;
+            } else {
+                result.add(form);
+            }
+        }
+        return result;
+    }
+
+    private boolean removable(Expr form) {
+        return form instanceof Defn || form instanceof Def d && safe(d.value());
+    }
+
+    // Auswertung kann weder fehlschlagen noch etwas bewirken
+    private boolean safe(Expr expr) {
+        return switch (expr) {
+            case IntLiteral e -> true;
+            case StringLiteral e -> true;
+            case BoolLiteral e -> true;
+            case Call c -> SAFE_BUILTINS.contains(c.functionName().name())
+                    && !definitionCount.containsKey(c.functionName())
+                    && c.arguments().stream().allMatch(this::safe);
+            default -> false;
+        };
+    }
+
+    // --- Einsetzen ---
+
+    private Symbol fresh(Symbol name) {
+        for (int n = 1; ; n++) {
+            String candidate = name.name() + "_" + n;
+            if (usedNames.add(candidate)) return Symbol.of(candidate);
+        }
+    }
+
+    /**
+     * Setzt Kandidaten in einer Top-Level-Form ein und merkt sich dabei die lokal
+     * gebundenen Namen, damit weder der Funktionsname noch freie Namen des Rumpfs
+     * an der Aufrufstelle verdeckt sind.
+     */
+    private final class Rewriter {
+        private final int position;
+        private final List<Symbol> locals = new ArrayList<>();
+
+        Rewriter(int position) {
+            this.position = position;
+        }
+
+        Expr rewrite(Expr expr) {
+            return switch (expr) {
+                case Program p -> new Program(rewriteAll(p.expressions()));
+                case Def d -> new Def(d.name(), rewrite(d.value()));
+                case Defn d -> {
+                    int mark = locals.size();
+                    locals.addAll(d.params());
+                    Expr body = rewrite(d.body());
+                    truncate(mark);
+                    yield new Defn(d.name(), d.params(), body);
+                }
+                case Let l -> {
+                    int mark = locals.size();
+                    List<Binding> bindings = new ArrayList<>(l.bindings().size());
+                    for (Binding b : l.bindings()) {
+                        bindings.add(new Binding(b.name(), rewrite(b.value())));
+                        locals.add(b.name());
+                    }
+                    Expr body = rewrite(l.body());
+                    truncate(mark);
+                    yield new Let(bindings, body);
+                }
+                case If i -> new If(rewrite(i.condition()), rewrite(i.thenBranch()),
+                        i.elseBranch() != null ? rewrite(i.elseBranch()) : null);
+                case Do d -> new Do(rewriteAll(d.expressions()));
+                case Call c -> {
+                    List<Expr> args = rewriteAll(c.arguments());
+                    Candidate candidate = candidates.get(c.functionName());
+                    if (candidate != null && canInline(candidate, args.size(), c.functionName())) {
+                        inlinedCalls++;
+                        yield rewrite(inline(candidate.definition(), args));
+                    }
+                    yield new Call(c.functionName(), args);
+                }
+                default -> expr;
+            };
+        }
+
+        private List<Expr> rewriteAll(List<Expr> exprs) {
+            List<Expr> result = new ArrayList<>(exprs.size());
+            for (Expr e : exprs) result.add(rewrite(e));
+            return result;
+        }
+
+        private void truncate(int size) {
+            locals.subList(size, locals.size()).clear();
+        }
+
+        private boolean canInline(Candidate candidate, int argumentCount, Symbol name) {
+            if (candidate.position() >= position) return false;
+            if (candidate.definition().params().size() != argumentCount) return false;
+            if (locals.contains(name)) return false;
+            for (Symbol free : candidate.free()) {
+                if (locals.contains(free)) return false;
+            }
+            return true;
+        }
+    }
+
+    private Expr inline(Defn definition, List<Expr> args) {
+        if (args.isEmpty()) return definition.body();
+        Map<Symbol, Symbol> renaming = new HashMap<>();
+        List<Binding> bindings = new ArrayList<>(args.size());
+        for (int i = 0; i < args.size(); i++) {
+            Symbol param = definition.params().get(i);
+            Symbol name = fresh(param);
+            renaming.put(param, name);   // bei doppeltem Parameternamen gilt wie beim Aufruf der letzte
+            bindings.add(new Binding(name, args.get(i)));
+        }
+        return new Let(bindings, rename(definition.body(), renaming));
+    }
+
+    // Benennt freie Vorkommen um; der Rumpf enthält keine Definitionen
+    private static Expr rename(Expr expr, Map<Symbol, Symbol> renaming) {
+        return switch (expr) {
+            case Variable v -> renaming.containsKey(v.name()) ? new Variable(renaming.get(v.name())) : v;
+            case Let l -> {
+                Map<Symbol, Symbol> inner = renaming;
+                List<Binding> bindings = new ArrayList<>(l.bindings().size());
+                for (Binding b : l.bindings()) {
+                    bindings.add(new Binding(b.name(), rename(b.value(), inner)));
+                    if (inner.containsKey(b.name())) {
+                        inner = new HashMap<>(inner);
+                        inner.remove(b.name());
+                    }
+                }
+                yield new Let(bindings, rename(l.body(), inner));
+            }
+            case If i -> new If(rename(i.condition(), renaming), rename(i.thenBranch(), renaming),
+                    i.elseBranch() != null ? rename(i.elseBranch(), renaming) : null);
+            case Do d -> new Do(d.expressions().stream().map(e -> rename(e, renaming)).toList());
+            case Call c -> new Call(renaming.getOrDefault(c.functionName(), c.functionName()),
+                    c.arguments().stream().map(e -> rename(e, renaming)).toList());
+            default -> expr;
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package parser;
+
+public interface ArenaVisitor<R> {
+    R visitProgram(ExprArena arena, int node);
+    R visitIntLiteral(ExprArena arena, int node);
+    R visitStringLiteral(ExprArena arena, int node);
+    R visitBoolLiteral(ExprArena arena, int node);
+    R visitVariable(ExprArena arena, int node);
+    R visitDef(ExprArena arena, int node);
+    R visitDefn(ExprArena arena, int node);
+    R visitLet(ExprArena arena, int node);
+    R visitIf(ExprArena arena, int node);
+    R visitDo(ExprArena arena, int node);
+    R visitCall(ExprArena arena, int node);
+
+    // Wie ExprVisitor.visitError: nur Programme aus dem Diagnosemodus enthalten Fehlerknoten
+    default R visitError(ExprArena arena, int node) {
+        throw new RuntimeException(arena.errorMessage(node));
+    }
+}
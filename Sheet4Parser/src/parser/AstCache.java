@@ -0,0 +1,116 @@
+package parser;
+
+import lexer.Lexer;
+import lexer.SymbolTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verzeichnis mit binär serialisierten ASTs (BinaryAst), Schlüssel ist der
+ * SHA-256 des Quelltexts. Ein Treffer wird per Memory-Mapping gelesen statt neu
+ * gelext und geparst; bei Fehlschlag oder beschädigtem Eintrag wird geparst und
+ * der Eintrag (atomar über eine temporäre Datei) neu geschrieben.
+ * Kann von mehreren Threads gleichzeitig benutzt werden.
+ */
+public final class AstCache {
+    private static final String SUFFIX = ".ast";
+
+    private final Path directory;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public AstCache(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("AST Cache Error: " + e.getMessage(), e);
+        }
+    }
+
+    public Expr.Program load(Path sourceFile) {
+        try {
+            return load(Files.readString(sourceFile, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("AST Cache Error: " + e.getMessage(), e);
+        }
+    }
+
+    public Expr.Program load(String source) {
+        return load(source, SymbolTable.shared());
+    }
+
+    // Namen des Programms landen in 'symbols' statt in der gemeinsamen Tabelle
+    public Expr.Program load(String source, SymbolTable symbols) {
+        Path entry = directory.resolve(key(source) + SUFFIX);
+        if (Files.isRegularFile(entry)) {
+            try {
+                Expr.Program program = read(entry, symbols);
+                hits.incrementAndGet();
+                return program;
+            } catch (IOException | RuntimeException | StackOverflowError e) {
+                // beschädigt oder alte Version: neu parsen und überschreiben
+            }
+        }
+        misses.incrementAndGet();
+        Lexer lexer = new Lexer(source);
+        lexer.setSymbolTable(symbols);
+        Expr.Program program = new Parser(lexer.tokenize()).parse();
+        store(entry, program);
+        return program;
+    }
+
+    public int hits() {
+        return hits.get();
+    }
+
+    public int misses() {
+        return misses.get();
+    }
+
+    private static Expr.Program read(Path entry, SymbolTable symbols) throws IOException {
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (BinaryAst.read(buffer, symbols) instanceof Expr.Program program) {
+                return program;
+            }
+            throw new IOException("Eintrag ist kein Program: " + entry);
+        }
+    }
+
+    private void store(Path entry, Expr.Program program) {
+        try {
+            Path temp = Files.createTempFile(directory, "ast", ".tmp");
+            try {
+                Files.write(temp, BinaryAst.write(program));
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // Cache ist optional: ohne Schreibrecht wird einfach jedes Mal geparst
+        }
+    }
+
+    // SHA-256 des Quelltexts (UTF-8) als Hex-String
+    public static String key(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package parser;
+
+import lexer.Symbol;
+import lexer.SymbolTable;
+import parser.Expr.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kompaktes Binärformat für einen AST:
+ *
+ *   "S4AST" Version
+ *   Pool:   Anzahl, je Eintrag Länge + UTF-8 (Namen und String-Literale, dedupliziert)
+ *   Knoten: Präfix-Reihenfolge, je ein Tag-Byte + Nutzdaten
+ *
+ * Zahlen (Längen, Pool-Indizes, Literale) sind Varints, Int-Literale zusätzlich
+ * ZigZag-kodiert, damit kleine negative Werte kurz bleiben.
+ */
+public final class BinaryAst implements ExprVisitor<Void> {
+    private static final byte[] MAGIC = "S4AST".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    private static final int PROGRAM = 0, INT = 1, STRING = 2, TRUE = 3, FALSE = 4, VARIABLE = 5,
+            DEF = 6, DEFN = 7, LET = 8, IF = 9, IF_ELSE = 10, DO = 11, CALL = 12, ERROR = 13;
+
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private final List<String> pool = new ArrayList<>();
+    private final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+
+    private BinaryAst() {}
+
+    public static byte[] write(Expr expr) {
+        BinaryAst writer = new BinaryAst();
+        expr.accept(writer);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(writer.nodes.size() + 64);
+        out.writeBytes(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, writer.pool.size());
+        for (String s : writer.pool) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        out.writeBytes(writer.nodes.toByteArray());
+        return out.toByteArray();
+    }
+
+    /**
+     * Liest einen AST ab der aktuellen Position des Puffers (z.B. einer gemappten Datei).
+     */
+    public static Expr read(ByteBuffer in) {
+        return read(in, SymbolTable.shared());
+    }
+
+    // Namen werden in 'symbols' interniert
+    public static Expr read(ByteBuffer in, SymbolTable symbols) {
+        try {
+            for (byte b : MAGIC) {
+                if (in.get() != b) throw error("Kein AST-Format");
+            }
+            int version = in.get();
+            if (version != VERSION) throw error("Unbekannte Version " + version);
+
+            String[] pool = new String[readCount(in)];
+            for (int i = 0; i < pool.length; i++) {
+                byte[] bytes = new byte[readCount(in)];
+                in.get(bytes);
+                pool[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new Reader(in, pool, symbols).node();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw error("Daten unvollständig");
+        }
+    }
+
+    // --- Schreiben ---
+
+    private void tag(int tag) {
+        nodes.write(tag);
+    }
+
+    private void string(String s) {
+        Integer index = poolIndex.get(s);
+        if (index == null) {
+            index = pool.size();
+            pool.add(s);
+            poolIndex.put(s, index);
+        }
+        writeVarint(nodes, index);
+    }
+
+    private void symbol(Symbol symbol) {
+        string(symbol.name());
+    }
+
+    private void all(List<Expr> exprs) {
+        writeVarint(nodes, exprs.size());
+        for (Expr e : exprs) {
+            e.accept(this);
+        }
+    }
+
+    @Override
+    public Void visitProgram(Program expr) {
+        tag(PROGRAM);
+        all(expr.expressions());
+        return null;
+    }
+
+    @Override
+    public Void visitIntLiteral(IntLiteral expr) {
+        tag(INT);
+        int value = expr.value();
+        writeVarint(nodes, (value << 1) ^ (value >> 31));
+        return null;
+    }
+
+    @Override
+    public Void visitStringLiteral(StringLiteral expr) {
+        tag(STRING);
+        string(expr.value());
+        return null;
+    }
+
+    @Override
+    public Void visitBoolLiteral(BoolLiteral expr) {
+        tag(expr.value() ? TRUE : FALSE);
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Variable expr) {
+        tag(VARIABLE);
+        symbol(expr.name());
+        return null;
+    }
+
+    @Override
+    public Void visitDef(Def expr) {
+        tag(DEF);
+        symbol(expr.name());
+        expr.value().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitDefn(Defn expr) {
+        tag(DEFN);
+        symbol(expr.name());
+        writeVarint(nodes, expr.params().size());
+        for (Symbol param : expr.params()) {
+            symbol(param);
+        }
+        expr.body().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitLet(Let expr) {
+        tag(LET);
+        writeVarint(nodes, expr.bindings().size());
+        for (Binding b : expr.bindings()) {
+            symbol(b.name());
+            b.value().accept(this);
+        }
+        expr.body().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitIf(If expr) {
+        tag(expr.elseBranch() != null ? IF_ELSE : IF);
+        expr.condition().accept(this);
+        expr.thenBranch().accept(this);
+        if (expr.elseBranch() != null) {
+            expr.elseBranch().accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitDo(Do expr) {
+        tag(DO);
+        all(expr.expressions());
+        return null;
+    }
+
+    @Override
+    public Void visitCall(Call expr) {
+        tag(CALL);
+        symbol(expr.functionName());
+        all(expr.arguments());
+        return null;
+    }
+
+    @Override
+    public Void visitError(Expr.Error expr) {
+        tag(ERROR);
+        string(expr.message());
+        writeVarint(nodes, expr.start());
+        writeVarint(nodes, expr.end());
+        return null;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    // --- Lesen ---
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw error("Varint zu lang");
+    }
+
+    // Anzahl von Elementen, die je mindestens ein Byte belegen: größere Werte können nur
+    // aus beschädigten Daten stammen und würden sonst riesige Arrays anlegen
+    private static int readCount(ByteBuffer in) {
+        int count = readVarint(in);
+        if (count < 0 || count > in.remaining()) {
+            throw error("Ungültige Anzahl " + count);
+        }
+        return count;
+    }
+
+    private static final class Reader {
+        private final ByteBuffer in;
+        private final String[] pool;
+        private final SymbolTable table;
+        private final Symbol[] symbols;   // Pool-Einträge werden erst bei Bedarf interniert
+
+        Reader(ByteBuffer in, String[] pool, SymbolTable table) {
+            this.in = in;
+            this.pool = pool;
+            this.table = table;
+            this.symbols = new Symbol[pool.length];
+        }
+
+        private String string() {
+            return pool[readVarint(in)];
+        }
+
+        private Symbol symbol() {
+            int index = readVarint(in);
+            Symbol symbol = symbols[index];
+            if (symbol == null) {
+                symbol = symbols[index] = table.intern(pool[index]);
+            }
+            return symbol;
+        }
+
+        private List<Expr> nodes() {
+            int count = readCount(in);
+            List<Expr> exprs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                exprs.add(node());
+            }
+            return exprs;
+        }
+
+        Expr node() {
+            int tag = in.get();
+            return switch (tag) {
+                case PROGRAM -> new Program(nodes());
+                case INT -> {
+                    int zigzag = readVarint(in);
+                    yield new IntLiteral((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+                case STRING -> new StringLiteral(string());
+                case TRUE -> new BoolLiteral(true);
+                case FALSE -> new BoolLiteral(false);
+                case VARIABLE -> new Variable(symbol());
+                case DEF -> {
+                    Symbol name = symbol();
+                    yield new Def(name, node());
+                }
+                case DEFN -> {
+                    Symbol name = symbol();
+                    int count = readCount(in);
+                    List<Symbol> params = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        params.add(symbol());
+                    }
+                    yield new Defn(name, params, node());
+                }
+                case LET -> {
+                    int count = readCount(in);
+                    List<Binding> bindings = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        Symbol name = symbol();
+                        bindings.add(new Binding(name, node()));
+                    }
+                    yield new Let(bindings, node());
+                }
+                case IF, IF_ELSE -> {
+                    Expr condition = node();
+                    Expr thenBranch = node();
+                    yield new If(condition, thenBranch, tag == IF_ELSE ? node() : null);
+                }
+                case DO -> new Do(nodes());
+                case CALL -> {
+                    Symbol name = symbol();
+                    yield new Call(name, nodes());
+                }
+                case ERROR -> {
+                    String message = string();
+                    int start = readVarint(in);
+                    yield new Expr.Error(message, start, readVarint(in));
+                }
+                default -> throw error("Unbekannter Knoten-Tag " + tag);
+            };
+        }
+    }
+
+    private static RuntimeException error(String message) {
+        return new RuntimeException("AST Cache Error: " + message);
+    }
+}
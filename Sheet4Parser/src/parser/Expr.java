@@ -1,11 +1,13 @@
 package parser;
 
+import lexer.Symbol;
+
 import java.util.List;
 
 public sealed interface Expr permits
         Expr.Program,
         Expr.IntLiteral, Expr.StringLiteral, Expr.BoolLiteral, Expr.Variable,
-        Expr.Def, Expr.Defn, Expr.Let, Expr.If, Expr.Do, Expr.Call {
+        Expr.Def, Expr.Defn, Expr.Let, Expr.If, Expr.Do, Expr.Call, Expr.Error {
 
     // Die Visitor-Methode
     <R> R accept(ExprVisitor<R> visitor);
@@ -27,19 +29,19 @@ public sealed interface Expr permits
         @Override public <R> R accept(ExprVisitor<R> visitor) { return visitor.visitBoolLiteral(this); }
     }
 
-    record Variable(String name) implements Expr {
+    record Variable(Symbol name) implements Expr {
         @Override public <R> R accept(ExprVisitor<R> visitor) { return visitor.visitVariable(this); }
     }
 
-    record Def(String name, Expr value) implements Expr {
+    record Def(Symbol name, Expr value) implements Expr {
         @Override public <R> R accept(ExprVisitor<R> visitor) { return visitor.visitDef(this); }
     }
 
-    record Defn(String name, List<String> params, Expr body) implements Expr {
+    record Defn(Symbol name, List<Symbol> params, Expr body) implements Expr {
         @Override public <R> R accept(ExprVisitor<R> visitor) { return visitor.visitDefn(this); }
     }
 
-    record Binding(String name, Expr value) {}
+    record Binding(Symbol name, Expr value) {}
 
     record Let(List<Binding> bindings, Expr body) implements Expr {
         @Override public <R> R accept(ExprVisitor<R> visitor) { return visitor.visitLet(this); }
@@ -53,7 +55,12 @@ public sealed interface Expr permits
         @Override public <R> R accept(ExprVisitor<R> visitor) { return visitor.visitDo(this); }
     }
 
-    record Call(String functionName, List<Expr> arguments) implements Expr {
+    record Call(Symbol functionName, List<Expr> arguments) implements Expr {
         @Override public <R> R accept(ExprVisitor<R> visitor) { return visitor.visitCall(this); }
     }
-}
\ No newline at end of file
+
+    // Platzhalter für eine fehlerhafte Form im Diagnosemodus des Parsers, Bereich [start, end)
+    record Error(String message, int start, int end) implements Expr {
+        @Override public <R> R accept(ExprVisitor<R> visitor) { return visitor.visitError(this); }
+    }
+}
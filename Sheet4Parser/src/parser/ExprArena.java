@@ -0,0 +1,492 @@
+package parser;
+
+import lexer.Symbol;
+import lexer.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flache Darstellung des AST in primitiven Arrays ("Arena").
+ * Ein Knoten ist nur ein int-Index: Art, ein Wert-Feld und ein Bereich im
+ * gemeinsamen children-Array. Namen werden als Symbol-id gespeichert,
+ * String-Literale liegen in einem Pool. Entsteht mit of(Expr) oder direkt
+ * beim Parsen mit Parser.parseArena().
+ *
+ * Belegung pro Art:
+ *   INT_LITERAL    value = Zahl
+ *   BOOL_LITERAL   value = 0/1
+ *   STRING_LITERAL value = Poolindex
+ *   VARIABLE       value = Symbol-id
+ *   DEF            value = Symbol-id,           children = [wert]
+ *   DEFN           value = Symbol-id,           children = [param-Symbol-ids..., rumpf]
+ *   LET            value = Anzahl Bindings,     children = [name0, wert0, name1, wert1, ..., rumpf]
+ *   IF             value = 1 falls Else-Zweig,  children = [bedingung, then, (else)]
+ *   PROGRAM/DO     children = Ausdrücke
+ *   CALL           value = Symbol-id,           children = Argumente
+ *   ERROR          value = Poolindex der Meldung, children = [start, end] (Diagnosemodus)
+ */
+public final class ExprArena {
+
+    public enum Kind {
+        PROGRAM, INT_LITERAL, STRING_LITERAL, BOOL_LITERAL, VARIABLE,
+        DEF, DEFN, LET, IF, DO, CALL, ERROR
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private byte[] kinds;
+    private int[] values;
+    private int[] firstChild;
+    private int[] childCount;
+    private int nodeCount = 0;
+
+    private int[] children;
+    private int childrenSize = 0;
+
+    private final SymbolTable symbols;   // löst die gespeicherten Symbol-ids auf
+    private final List<String> pool = new ArrayList<>();
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+
+    private int root = -1;
+
+    public ExprArena() {
+        this(64);
+    }
+
+    public ExprArena(int expectedNodes) {
+        this(SymbolTable.shared(), expectedNodes);
+    }
+
+    // Für Namen aus einer eigenen Symboltabelle (Parser.parseArena)
+    ExprArena(SymbolTable symbols) {
+        this(symbols, 64);
+    }
+
+    private ExprArena(SymbolTable symbols, int expectedNodes) {
+        int capacity = Math.max(16, expectedNodes);
+        this.symbols = symbols;
+        kinds = new byte[capacity];
+        values = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new int[capacity];
+        children = new int[capacity];
+    }
+
+    // --- Konvertierung ---
+
+    /**
+     * Baut die Arena aus einem Expr-Baum; der oberste Knoten wird zur Wurzel.
+     */
+    public static ExprArena of(Expr expr) {
+        return of(expr, SymbolTable.shared());
+    }
+
+    // Für Bäume, deren Namen aus einer eigenen SymbolTable stammen
+    public static ExprArena of(Expr expr, SymbolTable symbols) {
+        ExprArena arena = new ExprArena(symbols);
+        arena.root = expr.accept(arena.new Builder());
+        return arena;
+    }
+
+    /**
+     * Baut den Teilbaum ab 'node' wieder als Expr-Records auf.
+     */
+    public Expr toExpr(int node) {
+        return accept(node, new ToExpr());
+    }
+
+    public Expr toExpr() {
+        return toExpr(root);
+    }
+
+    public int root() {
+        return root;
+    }
+
+    public int size() {
+        return nodeCount;
+    }
+
+    // --- Cursor-Zugriff ---
+
+    public Kind kind(int node) {
+        return KINDS[kinds[check(node)]];
+    }
+
+    public int intValue(int node) {
+        expect(node, Kind.INT_LITERAL);
+        return values[node];
+    }
+
+    public boolean boolValue(int node) {
+        expect(node, Kind.BOOL_LITERAL);
+        return values[node] != 0;
+    }
+
+    public String stringValue(int node) {
+        expect(node, Kind.STRING_LITERAL);
+        return pool.get(values[node]);
+    }
+
+    // Name bei VARIABLE, DEF, DEFN und CALL
+    public Symbol name(int node) {
+        Kind kind = kind(node);
+        if (kind != Kind.VARIABLE && kind != Kind.DEF && kind != Kind.DEFN && kind != Kind.CALL) {
+            throw new IllegalArgumentException("Knoten " + node + " (" + kind + ") hat keinen Namen");
+        }
+        return symbols.symbol(values[node]);
+    }
+
+    // Ausdrücke von PROGRAM/DO, Argumente von CALL
+    public int childCount(int node) {
+        Kind kind = kind(node);
+        if (kind != Kind.PROGRAM && kind != Kind.DO && kind != Kind.CALL) {
+            throw new IllegalArgumentException("Knoten " + node + " (" + kind + ") hat keine Ausdrucksliste");
+        }
+        return childCount[node];
+    }
+
+    public int child(int node, int i) {
+        return children[firstChild[node] + checkChild(node, i, childCount(node))];
+    }
+
+    public int defValue(int node) {
+        expect(node, Kind.DEF);
+        return children[firstChild[node]];
+    }
+
+    public int paramCount(int node) {
+        expect(node, Kind.DEFN);
+        return childCount[node] - 1;
+    }
+
+    public Symbol param(int node, int i) {
+        return symbols.symbol(children[firstChild[node] + checkChild(node, i, paramCount(node))]);
+    }
+
+    public int bindingCount(int node) {
+        expect(node, Kind.LET);
+        return values[node];
+    }
+
+    public Symbol bindingName(int node, int i) {
+        return symbols.symbol(children[firstChild[node] + 2 * checkChild(node, i, bindingCount(node))]);
+    }
+
+    public int bindingValue(int node, int i) {
+        return children[firstChild[node] + 2 * checkChild(node, i, bindingCount(node)) + 1];
+    }
+
+    // Rumpf von DEFN und LET
+    public int body(int node) {
+        Kind kind = kind(node);
+        if (kind != Kind.DEFN && kind != Kind.LET) {
+            throw new IllegalArgumentException("Knoten " + node + " (" + kind + ") hat keinen Rumpf");
+        }
+        return children[firstChild[node] + childCount[node] - 1];
+    }
+
+    public int condition(int node) {
+        expect(node, Kind.IF);
+        return children[firstChild[node]];
+    }
+
+    public int thenBranch(int node) {
+        expect(node, Kind.IF);
+        return children[firstChild[node] + 1];
+    }
+
+    public boolean hasElse(int node) {
+        expect(node, Kind.IF);
+        return values[node] != 0;
+    }
+
+    // -1 wenn kein Else-Zweig vorhanden
+    public int elseBranch(int node) {
+        return hasElse(node) ? children[firstChild[node] + 2] : -1;
+    }
+
+    public String errorMessage(int node) {
+        expect(node, Kind.ERROR);
+        return pool.get(values[node]);
+    }
+
+    // Quelltextbereich [errorStart, errorEnd) einer fehlerhaften Form
+    public int errorStart(int node) {
+        expect(node, Kind.ERROR);
+        return children[firstChild[node]];
+    }
+
+    public int errorEnd(int node) {
+        expect(node, Kind.ERROR);
+        return children[firstChild[node] + 1];
+    }
+
+    /**
+     * Dispatch auf den passenden visit-Aufruf, analog zu Expr.accept().
+     */
+    public <R> R accept(int node, ArenaVisitor<R> visitor) {
+        return switch (kind(node)) {
+            case PROGRAM -> visitor.visitProgram(this, node);
+            case INT_LITERAL -> visitor.visitIntLiteral(this, node);
+            case STRING_LITERAL -> visitor.visitStringLiteral(this, node);
+            case BOOL_LITERAL -> visitor.visitBoolLiteral(this, node);
+            case VARIABLE -> visitor.visitVariable(this, node);
+            case DEF -> visitor.visitDef(this, node);
+            case DEFN -> visitor.visitDefn(this, node);
+            case LET -> visitor.visitLet(this, node);
+            case IF -> visitor.visitIf(this, node);
+            case DO -> visitor.visitDo(this, node);
+            case CALL -> visitor.visitCall(this, node);
+            case ERROR -> visitor.visitError(this, node);
+        };
+    }
+
+    // --- Aufbau ---
+
+    void setRoot(int node) {
+        root = check(node);
+    }
+
+    // Blatt ohne Kinder
+    int add(Kind kind, int value) {
+        return add(kind, value, NO_CHILDREN, 0);
+    }
+
+    // Die Kinder müssen bereits angelegt sein; Belegung von value und children siehe Klassenkommentar
+    int add(Kind kind, int value, int[] nodeChildren, int count) {
+        if (nodeCount == kinds.length) {
+            int capacity = nodeCount + (nodeCount >> 1);
+            kinds = Arrays.copyOf(kinds, capacity);
+            values = Arrays.copyOf(values, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+        }
+        if (childrenSize + count > children.length) {
+            children = Arrays.copyOf(children, Math.max(childrenSize + count, children.length + (children.length >> 1)));
+        }
+        System.arraycopy(nodeChildren, 0, children, childrenSize, count);
+
+        int node = nodeCount++;
+        kinds[node] = (byte) kind.ordinal();
+        values[node] = value;
+        firstChild[node] = childrenSize;
+        childCount[node] = count;
+        childrenSize += count;
+        return node;
+    }
+
+    int error(String message, int start, int end) {
+        return add(Kind.ERROR, intern(message), new int[]{start, end}, 2);
+    }
+
+    // Index im String-Pool
+    int intern(String text) {
+        return poolIndex.computeIfAbsent(text, t -> {
+            pool.add(t);
+            return pool.size() - 1;
+        });
+    }
+
+    private static final int[] NO_CHILDREN = new int[0];
+
+    // Kinder werden zuerst angelegt, damit die Indizes eines Knotens zusammenhängend bleiben
+    private final class Builder implements ExprVisitor<Integer> {
+
+        private int[] list(List<Expr> exprs) {
+            int[] result = new int[exprs.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = exprs.get(i).accept(this);
+            }
+            return result;
+        }
+
+        @Override
+        public Integer visitProgram(Expr.Program expr) {
+            int[] c = list(expr.expressions());
+            return add(Kind.PROGRAM, 0, c, c.length);
+        }
+
+        @Override
+        public Integer visitIntLiteral(Expr.IntLiteral expr) {
+            return add(Kind.INT_LITERAL, expr.value());
+        }
+
+        @Override
+        public Integer visitStringLiteral(Expr.StringLiteral expr) {
+            return add(Kind.STRING_LITERAL, intern(expr.value()));
+        }
+
+        @Override
+        public Integer visitBoolLiteral(Expr.BoolLiteral expr) {
+            return add(Kind.BOOL_LITERAL, expr.value() ? 1 : 0);
+        }
+
+        @Override
+        public Integer visitVariable(Expr.Variable expr) {
+            return add(Kind.VARIABLE, expr.name().id());
+        }
+
+        @Override
+        public Integer visitDef(Expr.Def expr) {
+            int value = expr.value().accept(this);
+            return add(Kind.DEF, expr.name().id(), new int[]{value}, 1);
+        }
+
+        @Override
+        public Integer visitDefn(Expr.Defn expr) {
+            int[] c = new int[expr.params().size() + 1];
+            for (int i = 0; i < expr.params().size(); i++) {
+                c[i] = expr.params().get(i).id();
+            }
+            c[c.length - 1] = expr.body().accept(this);
+            return add(Kind.DEFN, expr.name().id(), c, c.length);
+        }
+
+        @Override
+        public Integer visitLet(Expr.Let expr) {
+            List<Expr.Binding> bindings = expr.bindings();
+            int[] c = new int[2 * bindings.size() + 1];
+            for (int i = 0; i < bindings.size(); i++) {
+                c[2 * i] = bindings.get(i).name().id();
+                c[2 * i + 1] = bindings.get(i).value().accept(this);
+            }
+            c[c.length - 1] = expr.body().accept(this);
+            return add(Kind.LET, bindings.size(), c, c.length);
+        }
+
+        @Override
+        public Integer visitIf(Expr.If expr) {
+            int cond = expr.condition().accept(this);
+            int then = expr.thenBranch().accept(this);
+            if (expr.elseBranch() == null) {
+                return add(Kind.IF, 0, new int[]{cond, then}, 2);
+            }
+            int otherwise = expr.elseBranch().accept(this);
+            return add(Kind.IF, 1, new int[]{cond, then, otherwise}, 3);
+        }
+
+        @Override
+        public Integer visitDo(Expr.Do expr) {
+            int[] c = list(expr.expressions());
+            return add(Kind.DO, 0, c, c.length);
+        }
+
+        @Override
+        public Integer visitCall(Expr.Call expr) {
+            int[] c = list(expr.arguments());
+            return add(Kind.CALL, expr.functionName().id(), c, c.length);
+        }
+
+        @Override
+        public Integer visitError(Expr.Error expr) {
+            return error(expr.message(), expr.start(), expr.end());
+        }
+    }
+
+    private static final class ToExpr implements ArenaVisitor<Expr> {
+
+        private List<Expr> list(ExprArena arena, int node) {
+            List<Expr> result = new ArrayList<>(arena.childCount(node));
+            for (int i = 0; i < arena.childCount(node); i++) {
+                result.add(arena.accept(arena.child(node, i), this));
+            }
+            return result;
+        }
+
+        @Override
+        public Expr visitProgram(ExprArena arena, int node) {
+            return new Expr.Program(list(arena, node));
+        }
+
+        @Override
+        public Expr visitIntLiteral(ExprArena arena, int node) {
+            return new Expr.IntLiteral(arena.intValue(node));
+        }
+
+        @Override
+        public Expr visitStringLiteral(ExprArena arena, int node) {
+            return new Expr.StringLiteral(arena.stringValue(node));
+        }
+
+        @Override
+        public Expr visitBoolLiteral(ExprArena arena, int node) {
+            return new Expr.BoolLiteral(arena.boolValue(node));
+        }
+
+        @Override
+        public Expr visitVariable(ExprArena arena, int node) {
+            return new Expr.Variable(arena.name(node));
+        }
+
+        @Override
+        public Expr visitDef(ExprArena arena, int node) {
+            return new Expr.Def(arena.name(node), arena.accept(arena.defValue(node), this));
+        }
+
+        @Override
+        public Expr visitDefn(ExprArena arena, int node) {
+            List<Symbol> params = new ArrayList<>(arena.paramCount(node));
+            for (int i = 0; i < arena.paramCount(node); i++) {
+                params.add(arena.param(node, i));
+            }
+            return new Expr.Defn(arena.name(node), params, arena.accept(arena.body(node), this));
+        }
+
+        @Override
+        public Expr visitLet(ExprArena arena, int node) {
+            List<Expr.Binding> bindings = new ArrayList<>(arena.bindingCount(node));
+            for (int i = 0; i < arena.bindingCount(node); i++) {
+                bindings.add(new Expr.Binding(arena.bindingName(node, i), arena.accept(arena.bindingValue(node, i), this)));
+            }
+            return new Expr.Let(bindings, arena.accept(arena.body(node), this));
+        }
+
+        @Override
+        public Expr visitIf(ExprArena arena, int node) {
+            Expr otherwise = arena.hasElse(node) ? arena.accept(arena.elseBranch(node), this) : null;
+            return new Expr.If(arena.accept(arena.condition(node), this), arena.accept(arena.thenBranch(node), this), otherwise);
+        }
+
+        @Override
+        public Expr visitDo(ExprArena arena, int node) {
+            return new Expr.Do(list(arena, node));
+        }
+
+        @Override
+        public Expr visitCall(ExprArena arena, int node) {
+            return new Expr.Call(arena.name(node), list(arena, node));
+        }
+
+        @Override
+        public Expr visitError(ExprArena arena, int node) {
+            return new Expr.Error(arena.errorMessage(node), arena.errorStart(node), arena.errorEnd(node));
+        }
+    }
+
+    // --- Prüfungen ---
+
+    private int check(int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("Knoten " + node + " existiert nicht (Arena-Größe " + nodeCount + ")");
+        }
+        return node;
+    }
+
+    private void expect(int node, Kind kind) {
+        if (kind(node) != kind) {
+            throw new IllegalArgumentException("Knoten " + node + " ist " + kind(node) + ", erwartet " + kind);
+        }
+    }
+
+    private int checkChild(int node, int i, int count) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Index " + i + " ausserhalb von 0.." + (count - 1) + " bei Knoten " + node);
+        }
+        return i;
+    }
+}
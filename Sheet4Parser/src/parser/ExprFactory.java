@@ -0,0 +1,68 @@
+package parser;
+
+import lexer.Symbol;
+
+import java.util.List;
+
+/**
+ * Erzeugt die AST-Knoten für den Parser. Die Standard-Fabrik legt einfach neue
+ * Records an; Unterklassen können Knoten über share() wiederverwenden
+ * (siehe HashConsingFactory).
+ */
+public class ExprFactory {
+
+    public static final ExprFactory DEFAULT = new ExprFactory();
+
+    // Hook für Unterklassen: liefert den Knoten selbst oder einen gleichen, bereits vorhandenen
+    protected <E extends Expr> E share(E node) {
+        return node;
+    }
+
+    public Expr.Program program(List<Expr> expressions) {
+        return new Expr.Program(expressions);
+    }
+
+    public Expr.IntLiteral intLiteral(int value) {
+        return share(new Expr.IntLiteral(value));
+    }
+
+    public Expr.StringLiteral stringLiteral(String value) {
+        return share(new Expr.StringLiteral(value));
+    }
+
+    public Expr.BoolLiteral boolLiteral(boolean value) {
+        return share(new Expr.BoolLiteral(value));
+    }
+
+    public Expr.Variable variable(Symbol name) {
+        return share(new Expr.Variable(name));
+    }
+
+    public Expr.Def def(Symbol name, Expr value) {
+        return share(new Expr.Def(name, value));
+    }
+
+    public Expr.Defn defn(Symbol name, List<Symbol> params, Expr body) {
+        return share(new Expr.Defn(name, params, body));
+    }
+
+    public Expr.Let let(List<Expr.Binding> bindings, Expr body) {
+        return share(new Expr.Let(bindings, body));
+    }
+
+    public Expr.If ifExpr(Expr condition, Expr thenBranch, Expr elseBranch) {
+        return share(new Expr.If(condition, thenBranch, elseBranch));
+    }
+
+    public Expr.Do doExpr(List<Expr> expressions) {
+        return share(new Expr.Do(expressions));
+    }
+
+    public Expr.Call call(Symbol functionName, List<Expr> arguments) {
+        return share(new Expr.Call(functionName, arguments));
+    }
+
+    public Expr.Error error(String message, int start, int end) {
+        return new Expr.Error(message, start, end);
+    }
+}
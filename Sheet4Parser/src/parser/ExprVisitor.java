@@ -12,4 +12,9 @@ public interface ExprVisitor<R> {
     R visitIf(Expr.If expr);
     R visitDo(Expr.Do expr);
     R visitCall(Expr.Call expr);
+
+    // Fehlerknoten gibt es nur in Programmen aus dem Diagnosemodus; wer sie nicht kennt, bricht ab
+    default R visitError(Expr.Error expr) {
+        throw new RuntimeException(expr.message());
+    }
 }
@@ -0,0 +1,151 @@
+package parser;
+
+import java.util.Arrays;
+
+/**
+ * Schneller Vorlauf über den Quelltext: findet die Grenzen der Top-Level-Formen
+ * (Listen und Atome auf Tiefe 0), ohne zu lexen. Beachtet nur Klammertiefe,
+ * String-Literale und ';;'-Kommentare. Ist der Text unausgeglichen (offene
+ * Klammer, ')' zu viel, offener String), ist balanced() false.
+ */
+public final class FormBoundaries {
+    private int[] starts;
+    private int[] ends;
+    private int count = 0;
+    private boolean balanced = true;
+
+    FormBoundaries(int capacity) {
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+    }
+
+    public static FormBoundaries scan(CharSequence source) {
+        return scan(source, 0, source.length());
+    }
+
+    /**
+     * Scannt nur den Bereich [from, to), beginnend auf Tiefe 0 außerhalb von Strings und
+     * Kommentaren; Offsets bleiben absolut. balanced() ist hier nur true, wenn der Bereich
+     * auch so endet, also unabhängig vom Rest geparst werden kann (kein String oder Kommentar
+     * und kein Atom, das über 'to' hinausläuft).
+     */
+    static FormBoundaries scan(CharSequence source, int from, int to) {
+        FormBoundaries forms = new FormBoundaries(16);
+        int n = to;
+        int depth = 0;
+        int formStart = -1;   // Beginn der offenen Form auf Tiefe 0, -1 wenn keine
+
+        for (int i = from; i < n; i++) {
+            char c = source.charAt(i);
+            switch (c) {
+                case '"' -> {
+                    if (depth == 0) {
+                        if (formStart >= 0) forms.add(formStart, i);
+                        formStart = i;
+                    }
+                    int close = indexOf(source, '"', i + 1, n);
+                    if (close < 0) {
+                        forms.balanced = false;
+                        return forms;
+                    }
+                    i = close;
+                    if (depth == 0) {
+                        forms.add(formStart, i + 1);
+                        formStart = -1;
+                    }
+                }
+                case ';' -> {
+                    if (i + 1 < n && source.charAt(i + 1) == ';') {
+                        if (depth == 0 && formStart >= 0) {
+                            forms.add(formStart, i);
+                            formStart = -1;
+                        }
+                        int newline = indexOf(source, '\n', i + 2, n);
+                        if (newline < 0 && n < source.length() && source.charAt(n) != '\n') {
+                            forms.balanced = false;   // Kommentar läuft über den Bereich hinaus
+                            return forms;
+                        }
+                        i = newline < 0 ? n : newline;
+                    } else if (depth == 0 && formStart < 0) {
+                        formStart = i;   // ungültig, der Lexer meldet den Fehler
+                    }
+                }
+                case '(' -> {
+                    if (depth == 0) {
+                        if (formStart >= 0) forms.add(formStart, i);
+                        formStart = i;
+                    }
+                    depth++;
+                }
+                case ')' -> {
+                    if (depth == 0) {
+                        forms.balanced = false;
+                        return forms;
+                    }
+                    if (--depth == 0) {
+                        forms.add(formStart, i + 1);
+                        formStart = -1;
+                    }
+                }
+                case ' ', '\t', '\r', '\n' -> {
+                    if (depth == 0 && formStart >= 0) {
+                        forms.add(formStart, i);
+                        formStart = -1;
+                    }
+                }
+                default -> {
+                    if (depth == 0 && formStart < 0) formStart = i;
+                }
+            }
+        }
+        if (depth != 0 || formStart >= 0 && n < source.length() && !delimiter(source.charAt(n))) {
+            forms.balanced = false;
+        } else if (formStart >= 0) {
+            forms.add(formStart, n);
+        }
+        return forms;
+    }
+
+    // Zeichen, an denen ein Atom endet
+    private static boolean delimiter(char c) {
+        return switch (c) {
+            case ' ', '\t', '\r', '\n', '(', ')', '"', ';' -> true;
+            default -> false;
+        };
+    }
+
+    private static int indexOf(CharSequence source, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    void add(int start, int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    // Offset des ersten Zeichens der Form
+    public int start(int form) {
+        return starts[form];
+    }
+
+    // Offset hinter dem letzten Zeichen der Form
+    public int end(int form) {
+        return ends[form];
+    }
+
+    public boolean balanced() {
+        return balanced;
+    }
+}
@@ -0,0 +1,192 @@
+package parser;
+
+import parser.Expr.*;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+/**
+ * Knotenfabrik mit Hash-Consing: strukturell gleiche Teilbäume werden nur einmal
+ * angelegt und danach geteilt. Da der Parser bottom-up baut, sind die Kinder
+ * eines neuen Knotens bereits geteilt; Gleichheit lässt sich deshalb flach
+ * prüfen (gleiche Werte/Symbole, Kinder per Referenz).
+ *
+ * Die Tabelle hält die Knoten nur schwach, nicht mehr benutzte Knoten werden vom
+ * GC entfernt. Eine Fabrik kann von mehreren Parsern (auch parallel) benutzt
+ * werden; Program-Knoten werden nie geteilt.
+ *
+ * Geteilte Knoten stehen an mehreren Stellen im Baum. Wer Knoten per Identität
+ * Informationen zuordnet (z.B. Adressen im Resolver), muss damit rechnen.
+ */
+public final class HashConsingFactory extends ExprFactory {
+
+    private static final class Entry extends WeakReference<Expr> {
+        final int hash;
+        Entry next;
+
+        Entry(Expr node, int hash, Entry next, ReferenceQueue<Expr> queue) {
+            super(node, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    private final ReferenceQueue<Expr> queue = new ReferenceQueue<>();
+    private Entry[] table = new Entry[1024];
+    private int size = 0;
+    private long hits = 0;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected synchronized <E extends Expr> E share(E node) {
+        expungeStale();
+        int hash = shallowHash(node);
+        int index = hash & (table.length - 1);
+        for (Entry e = table[index]; e != null; e = e.next) {
+            Expr existing = e.get();
+            if (e.hash == hash && existing != null && shallowEquals(existing, node)) {
+                hits++;
+                return (E) existing;
+            }
+        }
+        E compact = compact(node);
+        table[index] = new Entry(compact, hash, table[index], queue);
+        if (++size > table.length - (table.length >> 2)) {
+            resize();
+        }
+        return compact;
+    }
+
+    /**
+     * Anzahl der aktuell eingetragenen (noch lebenden oder noch nicht entfernten) Knoten.
+     */
+    public synchronized int size() {
+        expungeStale();
+        return size;
+    }
+
+    /**
+     * Wie oft ein bereits vorhandener Knoten statt eines neuen geliefert wurde.
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    // --- Tabelle ---
+
+    private void expungeStale() {
+        for (Object ref; (ref = queue.poll()) != null; ) {
+            Entry stale = (Entry) ref;
+            int index = stale.hash & (table.length - 1);
+            Entry prev = null;
+            for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+                if (e == stale) {
+                    if (prev == null) table[index] = e.next;
+                    else prev.next = e.next;
+                    size--;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void resize() {
+        Entry[] old = table;
+        table = new Entry[old.length * 2];
+        for (Entry head : old) {
+            for (Entry e = head; e != null; ) {
+                Entry next = e.next;
+                int index = e.hash & (table.length - 1);
+                e.next = table[index];
+                table[index] = e;
+                e = next;
+            }
+        }
+    }
+
+    // Neu eingetragene Knoten bekommen unveränderliche Listen ohne Reservekapazität
+    @SuppressWarnings("unchecked")
+    private static <E extends Expr> E compact(E node) {
+        return (E) switch (node) {
+            case Defn d -> new Defn(d.name(), List.copyOf(d.params()), d.body());
+            case Let l -> new Let(List.copyOf(l.bindings()), l.body());
+            case Do d -> new Do(List.copyOf(d.expressions()));
+            case Call c -> new Call(c.functionName(), List.copyOf(c.arguments()));
+            default -> node;
+        };
+    }
+
+    // --- Flache Gleichheit ---
+
+    private static int shallowHash(Expr node) {
+        return switch (node) {
+            case Program p -> System.identityHashCode(p);
+            case IntLiteral e -> 1 + 31 * e.value();
+            case StringLiteral e -> 2 + 31 * e.value().hashCode();
+            case BoolLiteral e -> e.value() ? 3 : 4;
+            case Variable e -> 5 + 31 * e.name().hashCode();
+            case Def d -> 6 + 31 * (d.name().hashCode() + 31 * id(d.value()));
+            case Defn d -> 7 + 31 * (d.name().hashCode() + 31 * (d.params().hashCode() + 31 * id(d.body())));
+            case Let l -> {
+                int h = id(l.body());
+                for (Binding b : l.bindings()) {
+                    h = 31 * (31 * h + b.name().hashCode()) + id(b.value());
+                }
+                yield 8 + 31 * h;
+            }
+            case If i -> 9 + 31 * (id(i.condition()) + 31 * (id(i.thenBranch()) + 31 * id(i.elseBranch())));
+            case Do d -> 10 + 31 * ids(d.expressions());
+            case Call c -> 11 + 31 * (c.functionName().hashCode() + 31 * ids(c.arguments()));
+            case Expr.Error e -> System.identityHashCode(e);
+        };
+    }
+
+    private static int id(Expr child) {
+        return System.identityHashCode(child);
+    }
+
+    private static int ids(List<Expr> children) {
+        int h = 1;
+        for (Expr child : children) {
+            h = 31 * h + id(child);
+        }
+        return h;
+    }
+
+    private static boolean shallowEquals(Expr a, Expr b) {
+        return switch (a) {
+            case Program p -> p == b;
+            case IntLiteral x -> b instanceof IntLiteral y && x.value() == y.value();
+            case StringLiteral x -> b instanceof StringLiteral y && x.value().equals(y.value());
+            case BoolLiteral x -> b instanceof BoolLiteral y && x.value() == y.value();
+            case Variable x -> b instanceof Variable y && x.name() == y.name();
+            case Def x -> b instanceof Def y && x.name() == y.name() && x.value() == y.value();
+            case Defn x -> b instanceof Defn y && x.name() == y.name()
+                    && x.params().equals(y.params()) && x.body() == y.body();
+            case Let x -> b instanceof Let y && x.body() == y.body() && sameBindings(x.bindings(), y.bindings());
+            case If x -> b instanceof If y && x.condition() == y.condition()
+                    && x.thenBranch() == y.thenBranch() && x.elseBranch() == y.elseBranch();
+            case Do x -> b instanceof Do y && same(x.expressions(), y.expressions());
+            case Call x -> b instanceof Call y && x.functionName() == y.functionName()
+                    && same(x.arguments(), y.arguments());
+            case Expr.Error x -> x == b;
+        };
+    }
+
+    private static boolean same(List<Expr> a, List<Expr> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameBindings(List<Binding> a, List<Binding> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).name() != b.get(i).name() || a.get(i).value() != b.get(i).value()) return false;
+        }
+        return true;
+    }
+}
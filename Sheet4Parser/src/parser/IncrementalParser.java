@@ -0,0 +1,166 @@
+package parser;
+
+import lexer.Lexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parst nach einer Textänderung nur die betroffenen Top-Level-Formen neu.
+ *
+ * Grundlage ist ein Snapshot aus Quelltext, Program und FormBoundaries. Bei einer
+ * Änderung (Offset, Anzahl gelöschter Zeichen, eingefügter Text) werden die Formen
+ * bestimmt, die die Änderung berühren; nur dieser Bereich wird neu gescannt, gelext
+ * und geparst. Endet der Bereich nicht sauber (z.B. neue offene Klammer oder offener
+ * String), wird er schrittweise verdoppelt. Alle Formen davor und danach werden als
+ * dieselben Expr-Objekte übernommen, neu geparste Formen ebenfalls, wenn sie gleich
+ * geblieben sind.
+ *
+ * Lexen und Parsen kosten so proportional zur Änderung; Text, Grenzen und Formliste
+ * werden dabei nur kopiert. Kann der Bereich nicht sicher abgegrenzt werden (Fehler,
+ * unausgeglichener Text), wird wie mit Parser.parse() komplett geparst, mit denselben
+ * Ergebnissen und Fehlermeldungen.
+ */
+public final class IncrementalParser {
+
+    /**
+     * Ergebnis eines Parse-Vorgangs und Grundlage für die nächste Änderung.
+     * 'incremental' ist false, wenn Formen und Ausdrücke nicht eins zu eins
+     * zusammenpassen; dann wird bei jeder Änderung komplett geparst.
+     */
+    public record Snapshot(String source, Expr.Program program, FormBoundaries forms, boolean incremental) {}
+
+    private int reparsedForms = 0;
+    private int reusedForms = 0;
+    private int reparsedChars = 0;
+
+    public Snapshot parse(String source) {
+        Expr.Program program = parseRange(source, 0, source.length());
+        FormBoundaries forms = FormBoundaries.scan(source);
+        reparsedForms = program.expressions().size();
+        reusedForms = 0;
+        reparsedChars = source.length();
+        return new Snapshot(source, program,
+                forms, forms.balanced() && forms.count() == program.expressions().size());
+    }
+
+    /**
+     * Wendet die Änderung an: 'deletedLength' Zeichen ab 'offset' werden durch 'inserted' ersetzt.
+     */
+    public Snapshot edit(Snapshot previous, int offset, int deletedLength, String inserted) {
+        String old = previous.source();
+        if (offset < 0 || deletedLength < 0 || offset > old.length() - deletedLength) {
+            throw new IllegalArgumentException("Ungültige Änderung: offset=" + offset
+                    + ", deletedLength=" + deletedLength + ", Länge=" + old.length());
+        }
+        String source = old.substring(0, offset) + inserted + old.substring(offset + deletedLength);
+        if (!previous.incremental()) {
+            return parse(source);
+        }
+
+        FormBoundaries forms = previous.forms();
+        int count = forms.count();
+        int editEnd = offset + deletedLength;
+        int delta = inserted.length() - deletedLength;
+
+        // Betroffen sind die Formen [first, next): alle, die die Änderung berühren oder direkt angrenzen
+        int first = firstEndingAtOrAfter(forms, offset);
+        int next = firstStartingAfter(forms, editEnd);
+        int from = first > 0 ? forms.end(first - 1) : 0;
+
+        // Bereich erweitern, bis er auf Tiefe 0 sauber vor einer unveränderten Form endet
+        FormBoundaries region;
+        int step = 1;
+        while (true) {
+            int to = next < count ? forms.start(next) + delta : source.length();
+            region = FormBoundaries.scan(source, from, to);
+            if (region.balanced()) break;
+            if (next == count) {
+                return parse(source);
+            }
+            next = Math.min(count, next + step);
+            step *= 2;
+        }
+
+        int to = next < count ? forms.start(next) + delta : source.length();
+        List<Expr> parsed;
+        try {
+            parsed = parseRange(source, from, to).expressions();
+        } catch (RuntimeException e) {
+            return parse(source);   // Fehler wie beim vollständigen Parsen melden
+        }
+        if (parsed.size() != region.count()) {
+            return parse(source);
+        }
+
+        // Neues Program und neue Grenzen: Anfang übernehmen, Bereich einsetzen, Rest verschieben
+        List<Expr> oldExpressions = previous.program().expressions();
+        List<Expr> expressions = new ArrayList<>(count - (next - first) + parsed.size());
+        FormBoundaries updated = new FormBoundaries(Math.max(16, count - (next - first) + region.count()));
+        for (int i = 0; i < first; i++) {
+            expressions.add(oldExpressions.get(i));
+            updated.add(forms.start(i), forms.end(i));
+        }
+        for (int i = 0; i < parsed.size(); i++) {
+            expressions.add(reuse(parsed.get(i), oldExpressions, first + i, next));
+            updated.add(region.start(i), region.end(i));
+        }
+        for (int i = next; i < count; i++) {
+            expressions.add(oldExpressions.get(i));
+            updated.add(forms.start(i) + delta, forms.end(i) + delta);
+        }
+
+        reparsedForms = parsed.size();
+        reusedForms = count - (next - first);
+        reparsedChars = to - from;
+        return new Snapshot(source, new Expr.Program(expressions), updated, true);
+    }
+
+    // Anzahl der beim letzten Aufruf neu geparsten Formen
+    public int reparsedForms() {
+        return reparsedForms;
+    }
+
+    // Anzahl der beim letzten Aufruf unverändert übernommenen Formen
+    public int reusedForms() {
+        return reusedForms;
+    }
+
+    // Länge des beim letzten Aufruf neu gelexten Bereichs
+    public int reparsedChars() {
+        return reparsedChars;
+    }
+
+    private static Expr.Program parseRange(String source, int from, int to) {
+        return new Parser(new Lexer(source.substring(from, to)).tokenize()).parse();
+    }
+
+    // Eine gleich gebliebene Form behält ihr altes Objekt (für Caches, die an der Identität hängen)
+    private static Expr reuse(Expr form, List<Expr> old, int index, int end) {
+        return index < end && form.equals(old.get(index)) ? old.get(index) : form;
+    }
+
+    // Erste Form mit end >= offset (count, wenn keine)
+    private static int firstEndingAtOrAfter(FormBoundaries forms, int offset) {
+        int lo = 0;
+        int hi = forms.count();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (forms.end(mid) < offset) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Erste Form mit start > offset (count, wenn keine)
+    private static int firstStartingAfter(FormBoundaries forms, int offset) {
+        int lo = 0;
+        int hi = forms.count();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (forms.start(mid) <= offset) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,96 @@
+package parser;
+
+import lexer.Lexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Paralleles Parsen großer Quelltexte in zwei Phasen:
+ * 1. FormBoundaries findet die Grenzen der Top-Level-Formen.
+ * 2. Fork-Join-Tasks lexen und parsen Blöcke aufeinanderfolgender Formen; die
+ *    Ergebnisse werden in Quelltext-Reihenfolge zu einem Program zusammengesetzt.
+ *
+ * Kleine Eingaben und Eingaben mit Fehlern werden sequentiell geparst, damit
+ * Ergebnis und Fehlermeldung genau denen von Parser.parse() entsprechen.
+ */
+public final class ParallelParser {
+    // Unterhalb dieser Größe (in Zeichen) lohnt sich das Aufteilen nicht
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ForkJoinPool pool;
+
+    public ParallelParser() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelParser(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Expr.Program parse(String source) {
+        if (source.length() < 2 * CHUNK_SIZE) {
+            return parseSequential(source);
+        }
+        FormBoundaries forms = FormBoundaries.scan(source);
+        if (!forms.balanced() || forms.count() < 2) {
+            return parseSequential(source);
+        }
+        try {
+            return new Expr.Program(pool.invoke(new ChunkTask(source, forms, 0, forms.count())));
+        } catch (RuntimeException e) {
+            // Fehler sequentiell reproduzieren: so kommt der erste Fehler im Quelltext mit derselben Meldung
+            return parseSequential(source);
+        }
+    }
+
+    private static Expr.Program parseSequential(String source) {
+        return new Parser(new Lexer(source).tokenize()).parse();
+    }
+
+    // Parst die Formen [from, to) und teilt dabei, solange der Block größer als CHUNK_SIZE ist
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveTask<List<Expr>> {
+        private final String source;
+        private final FormBoundaries forms;
+        private final int from;
+        private final int to;
+
+        ChunkTask(String source, FormBoundaries forms, int from, int to) {
+            this.source = source;
+            this.forms = forms;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Expr> compute() {
+            int start = forms.start(from);
+            int end = forms.end(to - 1);
+            if (to - from == 1 || end - start <= CHUNK_SIZE) {
+                return parseSequential(source.substring(start, end)).expressions();
+            }
+            int middle = splitPoint(start + (end - start) / 2);
+            ChunkTask left = new ChunkTask(source, forms, from, middle);
+            left.fork();
+            List<Expr> right = new ChunkTask(source, forms, middle, to).compute();
+            List<Expr> result = new ArrayList<>(left.join());
+            result.addAll(right);
+            return result;
+        }
+
+        // Erste Form, die ab 'offset' beginnt; teilt den Block nach Zeichen statt nach Anzahl Formen
+        private int splitPoint(int offset) {
+            int lo = from + 1;
+            int hi = to - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (forms.start(mid) < offset) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -1,41 +1,109 @@
 package parser;
 import lexer.*;
+import metrics.Metrics;
+import metrics.ParseEvent;
+
+import java.io.Serial;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Parser {
-    private final Lexer lexer;
+    private final Lexer lexer;          // Token-für-Token-Modus
+    private final TokenStream tokens;   // Modus über kompakten TokenStream
     private Token currentToken;
+    private int pos = 0;
+    private TokenType current;
+    private final SymbolTable symbols;  // die des Lexers bzw. TokenStreams
+    private ExprFactory factory = ExprFactory.DEFAULT;
+
+    // Diagnosemodus: Fehler sammeln und an der nächsten passenden Klammer wieder aufsetzen
+    private Diagnostics diagnostics = null;
+    private int depth = 0;              // offene Klammern, zum Finden der schließenden beim Wiederaufsetzen
+    private String lastError;
+    private int lastErrorStart = -1;
+
+    private SourceMap sourceMap = null;
 
     public Parser(Lexer lexer){
         this.lexer = lexer;
+        this.tokens = null;
+        this.symbols = lexer.symbolTable();
         this.currentToken = lexer.nextToken();
+        this.current = currentToken.type();
+    }
+
+    // Liest direkt aus dem TokenStream, ohne Token-Objekte zu erzeugen
+    public Parser(TokenStream tokens){
+        this.lexer = null;
+        this.tokens = tokens;
+        this.symbols = tokens.symbolTable();
+        this.current = tokens.type(0);
+    }
+
+    // Fabrik für die erzeugten Knoten, z.B. eine HashConsingFactory zum Teilen gleicher Teilbäume
+    public void setFactory(ExprFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Diagnosemodus: statt beim ersten Fehler abzubrechen, wird jeder Fehler (mit Quelltextbereich)
+     * gemeldet und hinter der Klammer, die die fehlerhafte Form schließt, weitergelesen; auf oberster
+     * Ebene ab der nächsten '('. Die fehlerhafte Form wird im Program zu einem Expr.Error.
+     * Für Lexer-Fehler den Lexer mit denselben Diagnostics versehen.
+     */
+    public void setDiagnostics(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    // Trägt für jeden erzeugten Knoten den Quelltextbereich in die Seitentabelle ein
+    public void setSourceMap(SourceMap sourceMap) {
+        this.sourceMap = sourceMap;
     }
 
     /**
      * Einstiegspunkt: Program ::= Expr { Expr }
      */
     public Expr.Program parse() {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long start = Metrics.start();
+        long lexStart = lexNanos();
         List<Expr> expressions = new ArrayList<>();
 
-        while (currentToken.type() != TokenType.EOF) {
-            expressions.add(parseExpr());
+        while (current != TokenType.EOF) {
+            try {
+                expressions.add(parseExpr());
+            } catch (Recovery r) {
+                expressions.add(recoverTopLevel());
+            }
         }
 
-        return new Expr.Program(expressions);
+        return parsed(span(factory.program(expressions), 0, tokenStart()), start, lexStart, event);
+    }
+
+    private Expr.Program parsed(Expr.Program program, long start, long lexStart, ParseEvent event) {
+        Metrics.parsed(program, start, lexNanos() - lexStart, event);
+        return program;
+    }
+
+    // Bisherige Zeit im Lexer (Token-für-Token-Modus), zählt nicht zur Parse-Zeit
+    private long lexNanos() {
+        return lexer != null ? lexer.lexNanos() : 0;
     }
 
     /**
      * Expr ::= Atom | SExpr
      */
     private Expr parseExpr() {
-        return switch (currentToken.type()) {
+        return switch (current) {
             case INTEGER -> parseInt();
             case STRING -> parseString();
             case BOOLEAN -> parseBool();
             case IDENTIFIER -> parseVariable();
             case LEFT_PAREN -> parseSExpr();
-            default -> throw error("Erwartet: Ausdruck (Atom oder Liste), Gefunden: " + currentToken);
+            default -> throw error("Erwartet: Ausdruck (Atom oder Liste), Gefunden: " + foundToken());
         };
     }
 
@@ -44,10 +112,20 @@ public class Parser {
      * Hier entscheidet sich anhand des ersten Elements der Liste, was es ist.
      */
     private Expr parseSExpr() {
+        int level = depth;
+        int start = tokenStart();
+        try {
+            return parseForm(start);
+        } catch (Recovery r) {
+            return recover(level, start);
+        }
+    }
+
+    private Expr parseForm(int start) {
         consume(TokenType.LEFT_PAREN);
 
         // Wir schauen auf das Token NACH der Klammer, um zu entscheiden
-        Expr result = switch (currentToken.type()) {
+        Expr result = switch (current) {
             case DEF -> parseDef();
             case DEFN -> parseDefn();
             case LET -> parseLet();
@@ -58,11 +136,12 @@ public class Parser {
             case IDENTIFIER, PLUS, MINUS, MUL, DIV, EQUAL, LESS, GREATER
                     -> parseCall();
 
-            default -> throw error("Erwartet: Funktionsname, Operator oder Keyword nach '(', Gefunden: " + currentToken);
+            default -> throw error("Erwartet: Funktionsname, Operator oder Keyword nach '(', Gefunden: " + foundToken());
         };
 
+        int end = tokenEnd();
         consume(TokenType.RIGHT_PAREN);
-        return result;
+        return span(result, start, end);
     }
 
     // --- Spezifische Parsing-Methoden (Grammatik-Regeln) ---
@@ -70,25 +149,25 @@ public class Parser {
     // DefForm ::= "def" ID Expr
     private Expr parseDef() {
         consume(TokenType.DEF);
-        String name = consume(TokenType.IDENTIFIER).lexeme();
+        Symbol name = consumeIdentifier();
         Expr value = parseExpr();
-        return new Expr.Def(name, value);
+        return factory.def(name, value);
     }
 
     // DefnForm ::= "defn" ID LPAREN { ID } RPAREN Expr
     private Expr parseDefn() {
         consume(TokenType.DEFN);
-        String name = consume(TokenType.IDENTIFIER).lexeme();
+        Symbol name = consumeIdentifier();
 
         consume(TokenType.LEFT_PAREN);
-        List<String> params = new ArrayList<>();
-        while (currentToken.type() == TokenType.IDENTIFIER) {
-            params.add(consume(TokenType.IDENTIFIER).lexeme());
+        List<Symbol> params = new ArrayList<>();
+        while (current == TokenType.IDENTIFIER) {
+            params.add(consumeIdentifier());
         }
         consume(TokenType.RIGHT_PAREN);
 
         Expr body = parseExpr();
-        return new Expr.Defn(name, params, body);
+        return factory.defn(name, params, body);
     }
 
     // LetForm ::= "let" LPAREN { ID Expr } RPAREN Expr
@@ -98,15 +177,15 @@ public class Parser {
 
         List<Expr.Binding> bindings = new ArrayList<>();
         // Solange wir Identifier sehen, kommen Bindings (Paare aus Name + Wert)
-        while (currentToken.type() == TokenType.IDENTIFIER) {
-            String varName = consume(TokenType.IDENTIFIER).lexeme();
+        while (current == TokenType.IDENTIFIER) {
+            Symbol varName = consumeIdentifier();
             Expr varValue = parseExpr();
             bindings.add(new Expr.Binding(varName, varValue));
         }
         consume(TokenType.RIGHT_PAREN);
 
         Expr body = parseExpr();
-        return new Expr.Let(bindings, body);
+        return factory.let(bindings, body);
     }
 
     // IfForm ::= "if" Expr Expr [ Expr ]
@@ -117,81 +196,467 @@ public class Parser {
 
         // Check optionaler Else-Zweig: Wenn noch keine Klammer zu geht, kommt noch was
         Expr elseBranch = null;
-        if (currentToken.type() != TokenType.RIGHT_PAREN) {
+        if (current != TokenType.RIGHT_PAREN) {
             elseBranch = parseExpr();
         }
 
-        return new Expr.If(cond, thenBranch, elseBranch);
+        return factory.ifExpr(cond, thenBranch, elseBranch);
     }
 
     // DoForm ::= "do" { Expr }
     private Expr parseDo() {
         consume(TokenType.DO);
         List<Expr> exprs = new ArrayList<>();
-        while (currentToken.type() != TokenType.RIGHT_PAREN && currentToken.type() != TokenType.EOF) {
+        while (current != TokenType.RIGHT_PAREN && current != TokenType.EOF) {
             exprs.add(parseExpr());
         }
-        return new Expr.Do(exprs);
+        return factory.doExpr(exprs);
     }
 
     // CallForm ::= ( ID | OP ) { Expr }
     private Expr parseCall() {
         // Der Name kann ein Identifier (foo) oder ein Operator (+) sein
-        String funcName = currentToken.lexeme();
-        consume(currentToken.type()); // Wir konsumieren was auch immer es war
+        Symbol funcName = current == TokenType.IDENTIFIER ? symbol() : symbols.intern(lexeme());
+        consume(current); // Wir konsumieren was auch immer es war
 
         List<Expr> args = new ArrayList<>();
-        while (currentToken.type() != TokenType.RIGHT_PAREN && currentToken.type() != TokenType.EOF) {
+        while (current != TokenType.RIGHT_PAREN && current != TokenType.EOF) {
             args.add(parseExpr());
         }
-        return new Expr.Call(funcName, args);
+        return factory.call(funcName, args);
+    }
+
+    // --- Iterativer Modus ---
+
+    /**
+     * Wie parse(), aber mit einem Stack im Heap statt Rekursion: jede offene Liste
+     * ist ein OpenForm-Eintrag. Liefert dasselbe Program und dieselben Fehler,
+     * die Verschachtelungstiefe ist nur durch den Heap begrenzt.
+     */
+    public Expr.Program parseIterative() {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long start = Metrics.start();
+        long lexStart = lexNanos();
+        List<Expr> expressions = new ArrayList<>();
+        ArrayDeque<OpenForm> stack = new ArrayDeque<>();
+
+        while (true) {
+            OpenForm top = stack.peek();
+            int level = depth;
+            int begin = -1;     // Start einer gerade geöffneten, noch nicht auf dem Stack liegenden Liste
+            try {
+                if (top == null && current == TokenType.EOF) {
+                    return parsed(span(factory.program(expressions), 0, tokenStart()), start, lexStart, event);
+                }
+                if (top != null && !wantsChild(top)) {
+                    // Liste vollständig: schließen und an die umgebende Form weitergeben
+                    Expr done = finish(top);
+                    int end = tokenEnd();
+                    consume(TokenType.RIGHT_PAREN);
+                    span(done, top.start, end);
+                    stack.pop();
+                    if (stack.isEmpty()) expressions.add(done);
+                    else stack.peek().children.add(done);
+                    continue;
+                }
+
+                // Nächster Ausdruck: eine neue Liste öffnen oder ein Atom lesen
+                if (current == TokenType.LEFT_PAREN) {
+                    begin = tokenStart();
+                    consume(TokenType.LEFT_PAREN);
+                    OpenForm form = openForm();
+                    form.level = level;
+                    form.start = begin;
+                    stack.push(form);
+                    continue;
+                }
+                Expr atom = switch (current) {
+                    case INTEGER -> parseInt();
+                    case STRING -> parseString();
+                    case BOOLEAN -> parseBool();
+                    case IDENTIFIER -> parseVariable();
+                    default -> throw error("Erwartet: Ausdruck (Atom oder Liste), Gefunden: " + foundToken());
+                };
+                if (top == null) expressions.add(atom);
+                else top.children.add(atom);
+            } catch (Recovery r) {
+                // Fehlerhaft ist die gerade geöffnete Liste, sonst die innerste offene Form
+                Expr error;
+                if (begin >= 0) {
+                    error = recover(level, begin);
+                } else if (top != null) {
+                    stack.pop();
+                    error = recover(top.level, top.start);
+                } else {
+                    expressions.add(recoverTopLevel());
+                    continue;
+                }
+                if (stack.isEmpty()) expressions.add(error);
+                else stack.peek().children.add(error);
+            }
+        }
+    }
+
+    // Eine geöffnete, noch nicht geschlossene Liste
+    private static final class OpenForm {
+        final TokenType kind;                           // DEF, DEFN, LET, IF, DO oder IDENTIFIER für Aufrufe
+        Symbol name;
+        final List<Symbol> names = new ArrayList<>();   // defn-Parameter bzw. let-Namen
+        final List<Expr> children = new ArrayList<>();
+        int[] nodes = NO_NODES;                         // Arena-Modus: Kinder als Knotenindizes
+        int nodeCount;
+        boolean inBindings;                             // let: Binding-Liste noch offen
+        int level;                                      // offene Klammern vor der '(' der Form
+        int start;                                      // Quelltextposition der '('
+
+        OpenForm(TokenType kind) {
+            this.kind = kind;
+        }
+
+        int size() {
+            return children.size() + nodeCount;
+        }
+
+        void add(int node) {
+            if (nodeCount == nodes.length) nodes = Arrays.copyOf(nodes, Math.max(4, 2 * nodeCount));
+            nodes[nodeCount++] = node;
+        }
+    }
+
+    private static final int[] NO_NODES = new int[0];
+
+    // Liest alles bis zum ersten Unterausdruck (wie der Anfang von parseDef, parseDefn, ...)
+    private OpenForm openForm() {
+        OpenForm form;
+        switch (current) {
+            case DEF -> {
+                form = new OpenForm(TokenType.DEF);
+                consume(TokenType.DEF);
+                form.name = consumeIdentifier();
+            }
+            case DEFN -> {
+                form = new OpenForm(TokenType.DEFN);
+                consume(TokenType.DEFN);
+                form.name = consumeIdentifier();
+                consume(TokenType.LEFT_PAREN);
+                while (current == TokenType.IDENTIFIER) {
+                    form.names.add(consumeIdentifier());
+                }
+                consume(TokenType.RIGHT_PAREN);
+            }
+            case LET -> {
+                form = new OpenForm(TokenType.LET);
+                consume(TokenType.LET);
+                consume(TokenType.LEFT_PAREN);
+                form.inBindings = true;
+            }
+            case IF -> {
+                form = new OpenForm(TokenType.IF);
+                consume(TokenType.IF);
+            }
+            case DO -> {
+                form = new OpenForm(TokenType.DO);
+                consume(TokenType.DO);
+            }
+            case IDENTIFIER, PLUS, MINUS, MUL, DIV, EQUAL, LESS, GREATER -> {
+                form = new OpenForm(TokenType.IDENTIFIER);
+                form.name = current == TokenType.IDENTIFIER ? symbol() : symbols.intern(lexeme());
+                consume(current);
+            }
+            default -> throw error("Erwartet: Funktionsname, Operator oder Keyword nach '(', Gefunden: " + foundToken());
+        }
+        return form;
+    }
+
+    // Braucht die Form noch einen Unterausdruck? Liest dabei Trenner wie let-Namen und die schließende Binding-Klammer.
+    private boolean wantsChild(OpenForm form) {
+        return switch (form.kind) {
+            case DEF, DEFN -> form.size() == 0;
+            case LET -> {
+                if (form.inBindings) {
+                    if (current == TokenType.IDENTIFIER) {
+                        form.names.add(consumeIdentifier());
+                    } else {
+                        consume(TokenType.RIGHT_PAREN);
+                        form.inBindings = false;
+                    }
+                    yield true;
+                }
+                yield form.size() == form.names.size();
+            }
+            case IF -> form.size() < 2 || (form.size() == 2 && current != TokenType.RIGHT_PAREN);
+            default -> current != TokenType.RIGHT_PAREN && current != TokenType.EOF;
+        };
+    }
+
+    private Expr finish(OpenForm form) {
+        List<Expr> c = form.children;
+        return switch (form.kind) {
+            case DEF -> factory.def(form.name, c.get(0));
+            case DEFN -> factory.defn(form.name, form.names, c.get(0));
+            case LET -> {
+                List<Expr.Binding> bindings = new ArrayList<>(form.names.size());
+                for (int i = 0; i < form.names.size(); i++) {
+                    bindings.add(new Expr.Binding(form.names.get(i), c.get(i)));
+                }
+                yield factory.let(bindings, c.get(form.names.size()));
+            }
+            case IF -> factory.ifExpr(c.get(0), c.get(1), c.size() > 2 ? c.get(2) : null);
+            case DO -> factory.doExpr(c);
+            default -> factory.call(form.name, c);
+        };
+    }
+
+    // --- Arena-Modus ---
+
+    /**
+     * Wie parseIterative(), legt die Knoten aber direkt in einer ExprArena an,
+     * ohne Expr-Records und Listen. Fehler und Diagnosemodus wie dort; Fehlerknoten
+     * tragen ihren Quelltextbereich selbst, Factory und SourceMap werden nicht benutzt.
+     */
+    public ExprArena parseArena() {
+        ExprArena arena = new ExprArena(symbols);
+        OpenForm program = new OpenForm(TokenType.EOF);
+        ArrayDeque<OpenForm> stack = new ArrayDeque<>();
+
+        while (true) {
+            OpenForm top = stack.peek();
+            int level = depth;
+            int begin = -1;
+            try {
+                if (top == null && current == TokenType.EOF) {
+                    arena.setRoot(arena.add(ExprArena.Kind.PROGRAM, 0, program.nodes, program.nodeCount));
+                    return arena;
+                }
+                if (top != null && !wantsChild(top)) {
+                    int done = finish(top, arena);
+                    consume(TokenType.RIGHT_PAREN);
+                    stack.pop();
+                    (stack.isEmpty() ? program : stack.peek()).add(done);
+                    continue;
+                }
+
+                if (current == TokenType.LEFT_PAREN) {
+                    begin = tokenStart();
+                    consume(TokenType.LEFT_PAREN);
+                    OpenForm form = openForm();
+                    form.level = level;
+                    form.start = begin;
+                    stack.push(form);
+                    continue;
+                }
+                int atom = switch (current) {
+                    case INTEGER -> arena.add(ExprArena.Kind.INT_LITERAL, (int) literal());
+                    case STRING -> arena.add(ExprArena.Kind.STRING_LITERAL, arena.intern(lexeme()));
+                    case BOOLEAN -> arena.add(ExprArena.Kind.BOOL_LITERAL, (int) literal());
+                    case IDENTIFIER -> arena.add(ExprArena.Kind.VARIABLE, symbol().id());
+                    default -> throw error("Erwartet: Ausdruck (Atom oder Liste), Gefunden: " + foundToken());
+                };
+                consume(current);
+                (top != null ? top : program).add(atom);
+            } catch (Recovery r) {
+                int start;
+                int end;
+                if (begin >= 0) {
+                    start = begin;
+                    end = skipForm(level);
+                } else if (top != null) {
+                    stack.pop();
+                    start = top.start;
+                    end = skipForm(top.level);
+                } else {
+                    start = tokenStart();
+                    end = skipToNextForm();
+                }
+                (stack.isEmpty() ? program : stack.peek()).add(arena.error(lastError, start, end));
+            }
+        }
+    }
+
+    private static int finish(OpenForm form, ExprArena arena) {
+        int[] c = form.nodes;
+        int n = form.nodeCount;
+        return switch (form.kind) {
+            case DEF -> arena.add(ExprArena.Kind.DEF, form.name.id(), c, 1);
+            case DEFN -> {
+                int params = form.names.size();
+                int[] d = new int[params + 1];
+                for (int i = 0; i < params; i++) d[i] = form.names.get(i).id();
+                d[params] = c[0];
+                yield arena.add(ExprArena.Kind.DEFN, form.name.id(), d, d.length);
+            }
+            case LET -> {
+                int bindings = form.names.size();
+                int[] d = new int[2 * bindings + 1];
+                for (int i = 0; i < bindings; i++) {
+                    d[2 * i] = form.names.get(i).id();
+                    d[2 * i + 1] = c[i];
+                }
+                d[2 * bindings] = c[bindings];
+                yield arena.add(ExprArena.Kind.LET, bindings, d, d.length);
+            }
+            case IF -> arena.add(ExprArena.Kind.IF, n > 2 ? 1 : 0, c, n);
+            case DO -> arena.add(ExprArena.Kind.DO, 0, c, n);
+            default -> arena.add(ExprArena.Kind.CALL, form.name.id(), c, n);
+        };
     }
 
     // --- Atome ---
 
     private Expr parseInt() {
-        int val = (int) currentToken.literal();
+        Expr node = span(factory.intLiteral((int) literal()));
         consume(TokenType.INTEGER);
-        return new Expr.IntLiteral(val);
+        return node;
     }
 
     private Expr parseString() {
-        String val = (String) currentToken.literal();
+        Expr node = span(factory.stringLiteral(lexeme()));
         consume(TokenType.STRING);
-        return new Expr.StringLiteral(val);
+        return node;
     }
 
     private Expr parseBool() {
-        boolean val = (boolean) currentToken.literal();
+        Expr node = span(factory.boolLiteral(literal() != 0));
         consume(TokenType.BOOLEAN);
-        return new Expr.BoolLiteral(val);
+        return node;
     }
 
     private Expr parseVariable() {
-        String name = currentToken.lexeme();
+        Expr node = span(factory.variable(symbol()));
         consume(TokenType.IDENTIFIER);
-        return new Expr.Variable(name);
+        return node;
     }
 
     // --- Hilfsmethoden für Navigation & Fehler ---
 
     /**
      * Prüft, ob das aktuelle Token den erwarteten Typ hat.
-     * Wenn ja: Gehe zum nächsten Token und gib das alte zurück.
+     * Wenn ja: Gehe zum nächsten Token.
      * Wenn nein: Fehler (Abbruch).
      */
-    private Token consume(TokenType expected) {
-        if (currentToken.type() == expected) {
-            Token old = currentToken;
-            currentToken = lexer.nextToken();
-            return old;
+    private void consume(TokenType expected) {
+        if (current == expected) {
+            if (expected == TokenType.LEFT_PAREN) depth++;
+            else if (expected == TokenType.RIGHT_PAREN) depth--;
+            if (tokens != null) {
+                current = tokens.type(++pos);
+            } else {
+                currentToken = lexer.nextToken();
+                current = currentToken.type();
+            }
         } else {
-            throw error("Erwartetes Token: " + expected + ", Tatsächlich gefunden: " + currentToken.type());
+            throw error("Erwartetes Token: " + expected + ", Tatsächlich gefunden: " + current);
         }
     }
 
+    private Symbol consumeIdentifier() {
+        Symbol name = current == TokenType.IDENTIFIER ? symbol() : null;
+        consume(TokenType.IDENTIFIER);
+        return name;
+    }
+
+    // Zugriff auf das aktuelle Token, unabhängig vom Modus
+    private String lexeme() {
+        return tokens != null ? tokens.lexeme(pos) : currentToken.lexeme();
+    }
+
+    // Im Lexer-Modus ist das Lexem bereits der internierte Name, die Suche trifft sofort
+    private Symbol symbol() {
+        return tokens != null ? tokens.symbol(pos) : symbols.intern(currentToken.lexeme());
+    }
+
+    private long literal() {
+        if (tokens != null) return tokens.literal(pos);
+        Object literal = currentToken.literal();
+        return literal instanceof Boolean b ? (b ? 1 : 0) : (int) literal;
+    }
+
+    private Token foundToken() {
+        return tokens != null ? tokens.token(pos) : currentToken;
+    }
+
+    // Ohne Diagnostics die Exception zum Abbruch, sonst Fehler melden und den Rücksprung zum Wiederaufsetzen
     private RuntimeException error(String message) {
-        return new RuntimeException("Parse Error " + ": " + message);
+        if (diagnostics == null) {
+            return new RuntimeException("Parse Error " + ": " + message);
+        }
+        lastError = "Parse Error " + ": " + message;
+        int start = tokenStart();
+        // Folgefehler an derselben Stelle (z.B. mehrere fehlende ')' am Dateiende) nur einmal melden
+        if (start != lastErrorStart) {
+            diagnostics.report(lastError, start, tokenEnd());
+            lastErrorStart = start;
+        }
+        return Recovery.INSTANCE;
+    }
+
+    // Quelltextbereich eines Knotens in die SourceMap, falls vorhanden
+    private <E extends Expr> E span(E node, int start, int end) {
+        if (sourceMap != null) sourceMap.put(node, start, end);
+        return node;
+    }
+
+    // Knoten aus dem aktuellen Token
+    private <E extends Expr> E span(E node) {
+        return sourceMap != null ? span(node, tokenStart(), tokenEnd()) : node;
+    }
+
+    // Quelltextbereich des aktuellen Tokens
+    private int tokenStart() {
+        return tokens != null ? tokens.start(pos) : lexer.tokenStart();
+    }
+
+    private int tokenEnd() {
+        return tokens != null ? tokens.end(pos) : lexer.tokenEnd();
+    }
+
+    // --- Wiederaufsetzen (Panic Mode) ---
+
+    // Rücksprung zum Wiederaufsetzpunkt: nur einmal angelegt und ohne Stacktrace
+    private static final class Recovery extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        static final Recovery INSTANCE = new Recovery();
+
+        private Recovery() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Überspringt bis einschließlich der ')', die die bei 'level' offenen Klammern geöffnete Form schließt
+    private Expr recover(int level, int start) {
+        int end = skipForm(level);
+        return span(factory.error(lastError, start, end), start, end);
+    }
+
+    // Liefert das Ende des übersprungenen Bereichs
+    private int skipForm(int level) {
+        int end = tokenStart();
+        while (current != TokenType.EOF) {
+            boolean closes = current == TokenType.RIGHT_PAREN && depth == level + 1;
+            end = tokenEnd();
+            consume(current);
+            if (closes) break;
+        }
+        return end;
+    }
+
+    // Auf oberster Ebene: weiter ab der nächsten '('
+    private Expr recoverTopLevel() {
+        int start = tokenStart();
+        int end = skipToNextForm();
+        return span(factory.error(lastError, start, end), start, end);
+    }
+
+    private int skipToNextForm() {
+        int end = tokenStart();
+        while (current != TokenType.EOF && current != TokenType.LEFT_PAREN) {
+            end = tokenEnd();
+            consume(current);
+        }
+        depth = 0;
+        return end;
     }
 }
 
@@ -0,0 +1,115 @@
+package parser;
+
+import lexer.LineIndex;
+
+import java.util.Arrays;
+
+/**
+ * Quelltextbereiche der AST-Knoten als Seitentabelle, damit die Records selbst
+ * klein bleiben. Pro Knoten ein gepackter long (Start in den oberen, Ende in den
+ * unteren 32 Bit) in einer Identitäts-Hashtabelle mit offener Adressierung.
+ * Wird vom Parser gefüllt, siehe Parser.setSourceMap.
+ *
+ * Bei geteilten Knoten (HashConsingFactory) gilt der zuerst eingetragene Bereich.
+ */
+public final class SourceMap {
+    public static final long NONE = -1L;
+
+    private Expr[] keys = new Expr[64];
+    private long[] spans = new long[64];
+    private int size = 0;
+
+    public static long pack(int start, int end) {
+        return (long) start << 32 | (end & 0xFFFFFFFFL);
+    }
+
+    public static int start(long span) {
+        return (int) (span >>> 32);
+    }
+
+    public static int end(long span) {
+        return (int) span;
+    }
+
+    // Trägt den Bereich [start, end) ein; ein vorhandener Eintrag bleibt erhalten
+    public void put(Expr node, int start, int end) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int i = slot(keys, node);
+        if (keys[i] == null) {
+            keys[i] = node;
+            spans[i] = pack(start, end);
+            size++;
+        }
+    }
+
+    // Gepackter Bereich oder NONE
+    public long span(Expr node) {
+        Expr[] k = keys;
+        int i = slot(k, node);
+        return k[i] == null ? NONE : spans[i];
+    }
+
+    public int start(Expr node) {
+        return start(require(node));
+    }
+
+    public int end(Expr node) {
+        return end(require(node));
+    }
+
+    public boolean contains(Expr node) {
+        return span(node) != NONE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // "Zeile:Spalte" des Knotenanfangs
+    public String position(Expr node, LineIndex lines) {
+        return lines.format(start(node));
+    }
+
+    private long require(Expr node) {
+        long span = span(node);
+        if (span == NONE) {
+            throw new IllegalArgumentException("Kein Quelltextbereich für " + node.getClass().getSimpleName());
+        }
+        return span;
+    }
+
+    private static int slot(Expr[] keys, Expr node) {
+        int mask = keys.length - 1;
+        int i = mix(System.identityHashCode(node)) & mask;
+        while (keys[i] != null && keys[i] != node) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        Expr[] oldKeys = keys;
+        long[] oldSpans = spans;
+        keys = new Expr[oldKeys.length * 2];
+        spans = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int j = slot(keys, oldKeys[i]);
+                keys[j] = oldKeys[i];
+                spans[j] = oldSpans[i];
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+}
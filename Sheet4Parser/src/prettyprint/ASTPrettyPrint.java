@@ -1,9 +1,15 @@
 package prettyprint;
 
+import lexer.Symbol;
+import metrics.Metrics;
+import metrics.PrintEvent;
+import parser.ArenaVisitor;
 import parser.Expr;
 import parser.Expr.*; // Importiert Expr, ExprVisitor und alle Records aus dem Parser-Package
+import parser.ExprArena;
 import parser.ExprVisitor;
 
+import java.util.StringJoiner;
 import java.util.stream.Collectors;
 
 /**
@@ -18,7 +24,25 @@ public class ASTPrettyPrint implements ExprVisitor<String> {
      */
     public String print(Expr expr) {
         if (expr == null) return "";
-        return expr.accept(this);
+        PrintEvent event = new PrintEvent();
+        event.begin();
+        long start = Metrics.start();
+        String result = expr.accept(this);
+        Metrics.printed("ASTPrettyPrint", result.length(), start, event);
+        return result;
+    }
+
+    /**
+     * Dieselbe Ausgabe für einen Baum in einer ExprArena (z.B. aus Parser.parseArena()).
+     */
+    public String print(ExprArena arena) {
+        if (arena.root() < 0) return "";
+        PrintEvent event = new PrintEvent();
+        event.begin();
+        long start = Metrics.start();
+        String result = arena.accept(arena.root(), new ArenaPrint());
+        Metrics.printed("ASTPrettyPrint", result.length(), start, event);
+        return result;
     }
 
     // --- Implementierung der Visitor-Methoden ---
@@ -49,7 +73,7 @@ public class ASTPrettyPrint implements ExprVisitor<String> {
 
     @Override
     public String visitVariable(Variable expr) {
-        return expr.name();
+        return expr.name().name();
     }
 
     @Override
@@ -64,6 +88,7 @@ public class ASTPrettyPrint implements ExprVisitor<String> {
 
         // Parameterliste zusammenbauen: (a b c)
         String params = expr.params().stream()
+                .map(Symbol::name)
                 .collect(Collectors.joining(" ", "(", ")"));
 
         return "(defn " + expr.name() + " " + params + " " + expr.body().accept(this) + ")";
@@ -114,4 +139,98 @@ public class ASTPrettyPrint implements ExprVisitor<String> {
         }
         return "(" + expr.functionName() + " " + args + ")";
     }
-}
\ No newline at end of file
+
+    @Override
+    public String visitError(Expr.Error expr) {
+        // Fehlerhafte Form aus dem Diagnosemodus, bewusst nicht wieder einlesbar
+        return "#<Fehler: " + expr.message() + ">";
+    }
+
+    // Läuft über die Knotenindizes der Arena, Format wie oben
+    private static final class ArenaPrint implements ArenaVisitor<String> {
+
+        // Ausdrücke von PROGRAM, DO und CALL, getrennt durch 'separator'
+        private String children(ExprArena arena, int node, String separator) {
+            StringJoiner joiner = new StringJoiner(separator);
+            for (int i = 0; i < arena.childCount(node); i++) {
+                joiner.add(arena.accept(arena.child(node, i), this));
+            }
+            return joiner.toString();
+        }
+
+        @Override
+        public String visitProgram(ExprArena arena, int node) {
+            return children(arena, node, "\n");
+        }
+
+        @Override
+        public String visitIntLiteral(ExprArena arena, int node) {
+            return String.valueOf(arena.intValue(node));
+        }
+
+        @Override
+        public String visitStringLiteral(ExprArena arena, int node) {
+            return "\"" + arena.stringValue(node) + "\"";
+        }
+
+        @Override
+        public String visitBoolLiteral(ExprArena arena, int node) {
+            return String.valueOf(arena.boolValue(node));
+        }
+
+        @Override
+        public String visitVariable(ExprArena arena, int node) {
+            return arena.name(node).name();
+        }
+
+        @Override
+        public String visitDef(ExprArena arena, int node) {
+            return "(def " + arena.name(node) + " " + arena.accept(arena.defValue(node), this) + ")";
+        }
+
+        @Override
+        public String visitDefn(ExprArena arena, int node) {
+            StringJoiner params = new StringJoiner(" ", "(", ")");
+            for (int i = 0; i < arena.paramCount(node); i++) {
+                params.add(arena.param(node, i).name());
+            }
+            return "(defn " + arena.name(node) + " " + params + " " + arena.accept(arena.body(node), this) + ")";
+        }
+
+        @Override
+        public String visitLet(ExprArena arena, int node) {
+            StringJoiner bindings = new StringJoiner(" ");
+            for (int i = 0; i < arena.bindingCount(node); i++) {
+                bindings.add(arena.bindingName(node, i) + " " + arena.accept(arena.bindingValue(node, i), this));
+            }
+            return "(let (" + bindings + ") " + arena.accept(arena.body(node), this) + ")";
+        }
+
+        @Override
+        public String visitIf(ExprArena arena, int node) {
+            String s = "(if " + arena.accept(arena.condition(node), this) + " " + arena.accept(arena.thenBranch(node), this);
+            if (arena.hasElse(node)) {
+                s += " " + arena.accept(arena.elseBranch(node), this);
+            }
+            return s + ")";
+        }
+
+        @Override
+        public String visitDo(ExprArena arena, int node) {
+            return "(do " + children(arena, node, " ") + ")";
+        }
+
+        @Override
+        public String visitCall(ExprArena arena, int node) {
+            if (arena.childCount(node) == 0) {
+                return "(" + arena.name(node) + ")";
+            }
+            return "(" + arena.name(node) + " " + children(arena, node, " ") + ")";
+        }
+
+        @Override
+        public String visitError(ExprArena arena, int node) {
+            return "#<Fehler: " + arena.errorMessage(node) + ">";
+        }
+    }
+}
@@ -1,142 +1,437 @@
 package prettyprint;
 
+import metrics.Metrics;
+import metrics.PrintEvent;
+import parser.ArenaVisitor;
 import parser.Expr;
 import parser.Expr.*;
+import parser.ExprArena;
 import parser.ExprVisitor;
 
-public class ASTTreePrinter implements ExprVisitor<String> {
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Gibt den AST als eingerückten Baum aus. Alles wird direkt in ein einziges
+ * Ziel (Appendable) geschrieben; die Einrückung kommt aus einem wiederverwendeten
+ * Leerzeichen-Puffer. Mit maxDepth und maxChildren lassen sich große Bäume
+ * gekürzt ausgeben, ausgelassene Teile erscheinen als "...".
+ */
+public class ASTTreePrinter implements ExprVisitor<Void> {
+
+    private final int maxDepth;
+    private final int maxChildren;
 
     // Wir merken uns die aktuelle Einrückungstiefe
     private int depth = 0;
+    private Appendable out;
+    private long written = 0;
+    private String spaces = " ".repeat(64);
+
+    public ASTTreePrinter() {
+        this(Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    // maxDepth: tiefste ausgegebene Ebene (Wurzel = 0), maxChildren: Kinder pro Knoten
+    public ASTTreePrinter(int maxDepth, int maxChildren) {
+        if (maxDepth < 0 || maxChildren < 0) {
+            throw new IllegalArgumentException("Limits must not be negative");
+        }
+        this.maxDepth = maxDepth;
+        this.maxChildren = maxChildren;
+    }
 
     public String print(Expr expr) {
-        depth = 0;
-        return expr.accept(this);
+        StringBuilder sb = new StringBuilder();
+        print(expr, sb);
+        return sb.toString();
+    }
+
+    public void print(Expr expr, Appendable out) {
+        print(() -> expr.accept(this), out);
     }
 
-    // Hilfsmethode für die Einrückung (2 Leerzeichen pro Tiefe)
-    private String indent() {
-        return "  ".repeat(depth);
+    // Derselbe Baum aus einer ExprArena, ohne Expr-Records
+    public String print(ExprArena arena) {
+        StringBuilder sb = new StringBuilder();
+        print(arena, sb);
+        return sb.toString();
+    }
+
+    public void print(ExprArena arena, Appendable out) {
+        print(() -> arena.accept(arena.root(), new ArenaTree()), out);
+    }
+
+    private void print(Runnable walk, Appendable out) {
+        PrintEvent event = new PrintEvent();
+        event.begin();
+        long start = Metrics.start();
+        this.out = out;
+        this.depth = 0;
+        this.written = 0;
+        try {
+            walk.run();
+        } finally {
+            this.out = null;
+        }
+        Metrics.printed("ASTTreePrinter", written, start, event);
+    }
+
+    // Schreibt den Baum als UTF-8 in eine Datei
+    public void print(Expr expr, Path file) {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            print(expr, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Print Error: " + e.getMessage(), e);
+        }
+    }
+
+    // --- Ausgabe ---
+
+    // Beginnt eine Zeile auf der aktuellen Tiefe (2 Leerzeichen pro Tiefe)
+    private ASTTreePrinter line() {
+        int width = 2 * depth;
+        while (spaces.length() < width) {
+            spaces = spaces + spaces;
+        }
+        try {
+            out.append(spaces, 0, width);
+            written += width;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Print Error: " + e.getMessage(), e);
+        }
+        return this;
+    }
+
+    private ASTTreePrinter append(Object value) {
+        try {
+            String text = String.valueOf(value);
+            out.append(text);
+            written += text.length();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Print Error: " + e.getMessage(), e);
+        }
+        return this;
+    }
+
+    private void end() {
+        append("\n");
     }
 
     // Hilfsmethode, um Rekursion sauber zu kapseln
-    private String printChild(Expr expr) {
+    private void printChild(Expr expr) {
         depth++;
-        String result = expr.accept(this);
+        if (depth > maxDepth) {
+            line().append("...").end();
+        } else {
+            expr.accept(this);
+        }
         depth--;
-        return result;
+    }
+
+    // Kinder eine Ebene tiefer, höchstens maxChildren davon
+    private void printChildren(List<Expr> children) {
+        int shown = Math.min(children.size(), maxChildren);
+        if (shown > 0 && depth + 1 > maxDepth) {
+            printChild(children.get(0));   // ergibt eine einzelne "..."-Zeile
+        } else {
+            for (int i = 0; i < shown; i++) {
+                printChild(children.get(i));
+            }
+        }
+        omitted(children.size() - shown);
+    }
+
+    private void omitted(int count) {
+        if (count > 0) {
+            depth++;
+            line().append("... (").append(count).append(" weitere)").end();
+            depth--;
+        }
     }
 
     // --- Visitor Implementierungen ---
 
     @Override
-    public String visitProgram(Program expr) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("Program\n");
-
-        for (Expr e : expr.expressions()) {
-            // Wir erhöhen die Tiefe manuell für jedes Kind
-            sb.append(printChild(e));
-        }
-        return sb.toString();
+    public Void visitProgram(Program expr) {
+        line().append("Program").end();
+        printChildren(expr.expressions());
+        return null;
     }
 
     @Override
-    public String visitIntLiteral(IntLiteral expr) {
-        return indent() + "Int: " + expr.value() + "\n";
+    public Void visitIntLiteral(IntLiteral expr) {
+        line().append("Int: ").append(expr.value()).end();
+        return null;
     }
 
     @Override
-    public String visitStringLiteral(StringLiteral expr) {
-        return indent() + "String: \"" + expr.value() + "\"\n";
+    public Void visitStringLiteral(StringLiteral expr) {
+        line().append("String: \"").append(expr.value()).append("\"").end();
+        return null;
     }
 
     @Override
-    public String visitBoolLiteral(BoolLiteral expr) {
-        return indent() + "Bool: " + expr.value() + "\n";
+    public Void visitBoolLiteral(BoolLiteral expr) {
+        line().append("Bool: ").append(expr.value()).end();
+        return null;
     }
 
     @Override
-    public String visitVariable(Variable expr) {
-        return indent() + "Var: " + expr.name() + "\n";
+    public Void visitVariable(Variable expr) {
+        line().append("Var: ").append(expr.name().name()).end();
+        return null;
     }
 
     @Override
-    public String visitDef(Def expr) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("Def (").append(expr.name()).append(")\n");
-        sb.append(printChild(expr.value()));
-        return sb.toString();
+    public Void visitDef(Def expr) {
+        line().append("Def (").append(expr.name().name()).append(")").end();
+        printChild(expr.value());
+        return null;
     }
 
     @Override
-    public String visitDefn(Defn expr) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("Function (").append(expr.name()).append(")\n");
+    public Void visitDefn(Defn expr) {
+        line().append("Function (").append(expr.name().name()).append(")").end();
 
         depth++;
-        sb.append(indent()).append("Params: ").append(expr.params()).append("\n");
+        if (depth > maxDepth) {
+            line().append("...").end();
+            depth--;
+            return null;
+        }
+        line().append("Params: [");
+        for (int i = 0; i < expr.params().size(); i++) {
+            if (i > 0) append(", ");
+            append(expr.params().get(i).name());
+        }
+        append("]").end();
         depth--;
 
-        sb.append(printChild(expr.body()));
-        return sb.toString();
+        printChild(expr.body());
+        return null;
     }
 
     @Override
-    public String visitLet(Let expr) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("Let Scope\n");
+    public Void visitLet(Let expr) {
+        line().append("Let Scope").end();
 
         depth++;
-        for (Expr.Binding b : expr.bindings()) {
-            sb.append(indent()).append("Binding: ").append(b.name()).append("\n");
-            sb.append(printChild(b.value()));
+        if (depth > maxDepth) {
+            line().append("...").end();
+            depth--;
+            return null;
+        }
+        int shown = Math.min(expr.bindings().size(), maxChildren);
+        for (int i = 0; i < shown; i++) {
+            Binding b = expr.bindings().get(i);
+            line().append("Binding: ").append(b.name().name()).end();
+            printChild(b.value());
         }
         depth--;
+        omitted(expr.bindings().size() - shown);
 
-        sb.append(indent()).append("Body:\n");
-        sb.append(printChild(expr.body()));
-        return sb.toString();
+        line().append("Body:").end();
+        printChild(expr.body());
+        return null;
     }
 
     @Override
-    public String visitIf(If expr) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("If\n");
+    public Void visitIf(If expr) {
+        line().append("If").end();
+        if (depth + 1 > maxDepth) {
+            printChild(expr.condition());   // ergibt eine einzelne "..."-Zeile
+            return null;
+        }
 
-        sb.append(indent()).append("  Condition:\n");
-        sb.append(printChild(expr.condition()));
+        line().append("  Condition:").end();
+        printChild(expr.condition());
 
-        sb.append(indent()).append("  Then:\n");
-        sb.append(printChild(expr.thenBranch()));
+        line().append("  Then:").end();
+        printChild(expr.thenBranch());
 
         if (expr.elseBranch() != null) {
-            sb.append(indent()).append("  Else:\n");
-            sb.append(printChild(expr.elseBranch()));
+            line().append("  Else:").end();
+            printChild(expr.elseBranch());
         }
-        return sb.toString();
+        return null;
     }
 
     @Override
-    public String visitDo(Do expr) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("Do Block\n");
-        for (Expr e : expr.expressions()) {
-            sb.append(printChild(e));
-        }
-        return sb.toString();
+    public Void visitDo(Do expr) {
+        line().append("Do Block").end();
+        printChildren(expr.expressions());
+        return null;
     }
 
     @Override
-    public String visitCall(Call expr) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("Call: ").append(expr.functionName()).append("\n");
+    public Void visitCall(Call expr) {
+        line().append("Call: ").append(expr.functionName().name()).end();
+        printChildren(expr.arguments());
+        return null;
+    }
+
+    @Override
+    public Void visitError(Expr.Error expr) {
+        line().append("Error: ").append(expr.message()).end();
+        return null;
+    }
 
-        depth++; // Einrückung erhöhen für Argumente
-        for (Expr arg : expr.arguments()) {
-            sb.append(arg.accept(this)); // Hier accept direkt, da wir in depth++ sind
+    // Läuft über die Knotenindizes der Arena, Ausgabe und Kürzung wie oben
+    private final class ArenaTree implements ArenaVisitor<Void> {
+
+        private void printChild(ExprArena arena, int node) {
+            depth++;
+            if (depth > maxDepth) {
+                line().append("...").end();
+            } else {
+                arena.accept(node, this);
+            }
+            depth--;
+        }
+
+        // Ausdrücke von PROGRAM, DO und CALL
+        private void printChildren(ExprArena arena, int node) {
+            int count = arena.childCount(node);
+            int shown = Math.min(count, maxChildren);
+            if (shown > 0 && depth + 1 > maxDepth) {
+                printChild(arena, arena.child(node, 0));
+            } else {
+                for (int i = 0; i < shown; i++) {
+                    printChild(arena, arena.child(node, i));
+                }
+            }
+            omitted(count - shown);
+        }
+
+        @Override
+        public Void visitProgram(ExprArena arena, int node) {
+            line().append("Program").end();
+            printChildren(arena, node);
+            return null;
+        }
+
+        @Override
+        public Void visitIntLiteral(ExprArena arena, int node) {
+            line().append("Int: ").append(arena.intValue(node)).end();
+            return null;
+        }
+
+        @Override
+        public Void visitStringLiteral(ExprArena arena, int node) {
+            line().append("String: \"").append(arena.stringValue(node)).append("\"").end();
+            return null;
+        }
+
+        @Override
+        public Void visitBoolLiteral(ExprArena arena, int node) {
+            line().append("Bool: ").append(arena.boolValue(node)).end();
+            return null;
+        }
+
+        @Override
+        public Void visitVariable(ExprArena arena, int node) {
+            line().append("Var: ").append(arena.name(node).name()).end();
+            return null;
+        }
+
+        @Override
+        public Void visitDef(ExprArena arena, int node) {
+            line().append("Def (").append(arena.name(node).name()).append(")").end();
+            printChild(arena, arena.defValue(node));
+            return null;
+        }
+
+        @Override
+        public Void visitDefn(ExprArena arena, int node) {
+            line().append("Function (").append(arena.name(node).name()).append(")").end();
+
+            depth++;
+            if (depth > maxDepth) {
+                line().append("...").end();
+                depth--;
+                return null;
+            }
+            line().append("Params: [");
+            for (int i = 0; i < arena.paramCount(node); i++) {
+                if (i > 0) append(", ");
+                append(arena.param(node, i).name());
+            }
+            append("]").end();
+            depth--;
+
+            printChild(arena, arena.body(node));
+            return null;
+        }
+
+        @Override
+        public Void visitLet(ExprArena arena, int node) {
+            line().append("Let Scope").end();
+
+            depth++;
+            if (depth > maxDepth) {
+                line().append("...").end();
+                depth--;
+                return null;
+            }
+            int count = arena.bindingCount(node);
+            int shown = Math.min(count, maxChildren);
+            for (int i = 0; i < shown; i++) {
+                line().append("Binding: ").append(arena.bindingName(node, i).name()).end();
+                printChild(arena, arena.bindingValue(node, i));
+            }
+            depth--;
+            omitted(count - shown);
+
+            line().append("Body:").end();
+            printChild(arena, arena.body(node));
+            return null;
+        }
+
+        @Override
+        public Void visitIf(ExprArena arena, int node) {
+            line().append("If").end();
+            if (depth + 1 > maxDepth) {
+                printChild(arena, arena.condition(node));
+                return null;
+            }
+
+            line().append("  Condition:").end();
+            printChild(arena, arena.condition(node));
+
+            line().append("  Then:").end();
+            printChild(arena, arena.thenBranch(node));
+
+            if (arena.hasElse(node)) {
+                line().append("  Else:").end();
+                printChild(arena, arena.elseBranch(node));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitDo(ExprArena arena, int node) {
+            line().append("Do Block").end();
+            printChildren(arena, node);
+            return null;
+        }
+
+        @Override
+        public Void visitCall(ExprArena arena, int node) {
+            line().append("Call: ").append(arena.name(node).name()).end();
+            printChildren(arena, node);
+            return null;
+        }
+
+        @Override
+        public Void visitError(ExprArena arena, int node) {
+            line().append("Error: ").append(arena.errorMessage(node)).end();
+            return null;
         }
-        depth--;
-        return sb.toString();
     }
-}
\ No newline at end of file
+}
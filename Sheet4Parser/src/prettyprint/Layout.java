@@ -0,0 +1,232 @@
+package prettyprint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Layout-Algorithmus nach Wadler/Oppen für eine Folge von Ereignissen
+ * (text, line, open/close einer Gruppe, align). Eine Gruppe wird flach in eine
+ * Zeile gesetzt, wenn sie samt dem Text dahinter bis zum nächsten Umbruch einer
+ * umgebenden Gruppe (z.B. den schließenden Klammern) in die Zeilenbreite passt,
+ * wie 'fits' bei Wadler; sonst werden ihre Zeilenumbrüche ausgeführt.
+ *
+ * Gepuffert werden nur die noch unentschiedenen Gruppen. Sobald der Puffer
+ * breiter als die Restzeile ist, bricht die äußerste Gruppe und ihr Text wird
+ * sofort geschrieben. Der Speicher ist so durch die Zeilenbreite begrenzt,
+ * die Laufzeit linear in der Ausgabe.
+ *
+ * Einrückungen sind spaltenbezogen (align): sie werden erst beim Schreiben
+ * aus der tatsächlichen Spalte berechnet, denn vorher ist nicht bekannt, ob
+ * die umgebenden Gruppen brechen.
+ */
+final class Layout {
+
+    // Zeilenumbruch der Gruppe in Verschachtelungstiefe 'depth'
+    private record Line(int depth) {}
+
+    private record Align(int offset) {}
+
+    private static final Object UNALIGN = new Object();
+
+    // Unentschiedene Gruppe; ihre Elemente liegen ab Index 'first' im gemeinsamen Puffer.
+    // Geschlossen bleibt sie unentschieden, bis ihr Folgetext feststeht.
+    private static final class Group {
+        final long start;
+        final long first;
+        final int depth;
+        boolean closed;
+
+        Group(long start, long first, int depth) {
+            this.start = start;
+            this.first = first;
+            this.depth = depth;
+        }
+    }
+
+    private final Appendable out;
+    private final int width;
+    private final ArrayDeque<Group> pending = new ArrayDeque<>();    // äußerste zuerst
+    private final ArrayDeque<Group> open = new ArrayDeque<>();       // davon die noch offenen
+    private final ArrayDeque<Object> buffer = new ArrayDeque<>();    // Strings, Lines, Aligns, UNALIGN
+    private final IntStack indents = new IntStack();
+    private long buffered = 0;   // Anzahl aller je gepufferten Elemente (Index hinter dem letzten)
+    private long taken = 0;      // Index des ersten Elements im Puffer
+    private int depth = 0;       // Anzahl offener Gruppen, gebrochene eingeschlossen
+    private int indent = 0;
+    private int column = 0;
+    private long position = 0;   // Länge der Ausgabe, wenn alles flach gesetzt würde
+    private long limit;          // 'position', ab der die äußerste offene Gruppe nicht mehr passt
+    private long written = 0;    // tatsächlich geschriebene Zeichen
+
+    Layout(Appendable out, int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        this.out = out;
+        this.width = width;
+    }
+
+    void text(String text) {
+        position += text.length();
+        if (pending.isEmpty()) {
+            write(text);
+        } else {
+            add(text);
+            breakOverfullGroups();
+        }
+    }
+
+    // Leerzeichen, wenn die Gruppe flach bleibt, sonst Zeilenumbruch mit aktueller Einrückung
+    void line() {
+        settle(depth);
+        if (pending.isEmpty()) {
+            newline(indent);
+        } else {
+            add(new Line(depth));
+            position++;
+            breakOverfullGroups();
+        }
+    }
+
+    // Folgende Zeilenumbrüche rücken bis zur Spalte ein, an der align steht, plus 'offset'
+    void align(int offset) {
+        if (pending.isEmpty()) {
+            pushIndent(offset);
+        } else {
+            add(new Align(offset));
+        }
+    }
+
+    void unalign() {
+        if (pending.isEmpty()) {
+            indent = indents.pop();
+        } else {
+            add(UNALIGN);
+        }
+    }
+
+    // Zeilenumbruch in jedem Fall; alle offenen Gruppen brechen
+    void hardLine() {
+        settle(depth);
+        limit = -1;
+        breakOverfullGroups();
+        newline(indent);
+    }
+
+    void open() {
+        if (pending.isEmpty()) {
+            limit = position + width - column;
+        }
+        Group group = new Group(position, buffered, ++depth);
+        pending.addLast(group);
+        open.addLast(group);
+    }
+
+    void close() {
+        if (!open.isEmpty() && open.peekLast().depth == depth) {
+            // Entschieden wird erst am nächsten Umbruch einer umgebenden Gruppe,
+            // bis dahin zählt der folgende Text mit
+            open.removeLast().closed = true;
+        }
+        // Sonst wurde die Gruppe bereits gebrochen
+        depth--;
+    }
+
+    // Am Ende der Ausgabe: alle noch unentschiedenen Gruppen passen
+    void flush() {
+        settle(0);
+    }
+
+    long written() {
+        return written;
+    }
+
+    private void add(Object item) {
+        buffer.addLast(item);
+        buffered++;
+    }
+
+    /**
+     * Ein Umbruch in Tiefe 'd' beendet den Folgetext der geschlossenen Gruppen
+     * darunter; bis hier gab es keinen Überlauf, sie bleiben also flach. Ihre
+     * Umbrüche bleiben im Puffer und werden flach geschrieben, wenn eine umgebende
+     * Gruppe bricht (Tiefe ungleich).
+     */
+    private void settle(int d) {
+        while (!pending.isEmpty() && pending.peekLast().closed && pending.peekLast().depth > d) {
+            pending.removeLast();
+        }
+        if (pending.isEmpty()) {
+            writeBuffered(Long.MAX_VALUE, -1);
+        }
+    }
+
+    private void breakOverfullGroups() {
+        while (!pending.isEmpty() && position > limit) {
+            Group group = pending.removeFirst();
+            if (!group.closed) open.removeFirst();
+            // Bis zur nächsten unentschiedenen Gruppe schreiben; nur eigene Umbrüche brechen
+            writeBuffered(pending.isEmpty() ? Long.MAX_VALUE : pending.peekFirst().first, group.depth);
+            if (!pending.isEmpty()) {
+                limit = pending.peekFirst().start + width - column;
+            }
+        }
+    }
+
+    // Schreibt die gepufferten Elemente vor Index 'end'; Umbrüche der Tiefe 'broken' brechen
+    private void writeBuffered(long end, int broken) {
+        while (taken < end && !buffer.isEmpty()) {
+            Object item = buffer.removeFirst();
+            taken++;
+            switch (item) {
+                case String text -> write(text);
+                case Line line when line.depth() == broken -> newline(indent);
+                case Line line -> write(" ");
+                case Align a -> pushIndent(a.offset());
+                default -> indent = indents.pop();
+            }
+        }
+    }
+
+    // Höchstens bis zur Zeilenbreite: tiefer hilft keiner Zeile mehr, die Ausgabe
+    // würde aber quadratisch in der Verschachtelungstiefe
+    private void pushIndent(int offset) {
+        indents.push(indent);
+        indent = Math.min(column + offset, width);
+    }
+
+    private void newline(int indentation) {
+        write("\n");
+        write(" ".repeat(indentation));
+    }
+
+    private void write(String text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Print Error: " + e.getMessage(), e);
+        }
+        written += text.length();
+        int newline = text.lastIndexOf('\n');
+        column = newline < 0 ? column + text.length() : text.length() - newline - 1;
+    }
+
+    // Einrückungsstapel ohne Boxing, tiefe Verschachtelung ist üblich
+    private static final class IntStack {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void push(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+    }
+}
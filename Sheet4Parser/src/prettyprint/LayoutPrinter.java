@@ -0,0 +1,236 @@
+package prettyprint;
+
+import metrics.Metrics;
+import metrics.PrintEvent;
+import parser.Expr;
+import parser.Expr.*;
+import parser.ExprVisitor;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pretty Printer, der in einem Durchlauf direkt in ein Appendable schreibt.
+ * Formen, die in die Zeilenbreite passen, stehen in einer Zeile (wie bei
+ * ASTPrettyPrint), längere defn/let/if/do/Aufrufe werden umgebrochen und eingerückt:
+ *
+ *   (defn list-len (lst)
+ *     (if (= lst empty-list)
+ *       0
+ *       (+ 1 (list-len (tail lst)))))
+ *
+ * Eingerückt wird relativ zur Spalte, an der die Form beginnt. Die Visitor-Methoden
+ * schreiben nicht selbst, sondern legen ihre Schritte (Text, Umbruch, Gruppen,
+ * Kind-Ausdrücke) auf einen Heap-Stack; so ist auch beliebig tief verschachtelter
+ * Code ohne Java-Rekursion druckbar.
+ */
+public class LayoutPrinter implements ExprVisitor<Void> {
+    public static final int DEFAULT_WIDTH = 80;
+    private static final int INDENT = 2;
+
+    // Layout-Schritte neben Strings (Text) und Ausdrücken auf dem Stack
+    private enum Step { OPEN, CLOSE, LINE, HARD_LINE, ALIGN, ALIGN_INDENT, UNALIGN }
+
+    private final Appendable out;
+    private final Layout layout;
+    private final ArrayDeque<Object> work = new ArrayDeque<>();
+    private final List<Object> steps = new ArrayList<>();
+
+    public LayoutPrinter(Appendable out) {
+        this(out, DEFAULT_WIDTH);
+    }
+
+    public LayoutPrinter(Appendable out, int width) {
+        this.out = out;
+        this.layout = new Layout(out, width);
+    }
+
+    // Schreibt UTF-8; print() leert den Puffer am Ende
+    public LayoutPrinter(OutputStream out, int width) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), width);
+    }
+
+    /**
+     * Schreibt den Ausdruck (oder das Program) und leert danach das Ziel, falls möglich.
+     */
+    public void print(Expr expr) {
+        PrintEvent event = new PrintEvent();
+        event.begin();
+        long start = Metrics.start();
+        long before = layout.written();
+        work.clear();
+        steps.clear();
+        work.push(expr);
+        run();
+        layout.flush();
+        if (out instanceof Flushable flushable) {
+            try {
+                flushable.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Print Error: " + e.getMessage(), e);
+            }
+        }
+        Metrics.printed("LayoutPrinter", layout.written() - before, start, event);
+    }
+
+    public static String print(Expr expr, int width) {
+        StringBuilder sb = new StringBuilder();
+        new LayoutPrinter(sb, width).print(expr);
+        return sb.toString();
+    }
+
+    private void run() {
+        while (!work.isEmpty()) {
+            switch (work.pop()) {
+                case Expr e -> {
+                    e.accept(this);
+                    // Schritte des Knotens in Ausgabereihenfolge vor die übrigen legen
+                    for (int i = steps.size() - 1; i >= 0; i--) {
+                        work.push(steps.get(i));
+                    }
+                    steps.clear();
+                }
+                case String text -> layout.text(text);
+                case Step step -> {
+                    switch (step) {
+                        case OPEN -> layout.open();
+                        case CLOSE -> layout.close();
+                        case LINE -> layout.line();
+                        case HARD_LINE -> layout.hardLine();
+                        case ALIGN -> layout.align(0);
+                        case ALIGN_INDENT -> layout.align(INDENT);
+                        case UNALIGN -> layout.unalign();
+                    }
+                }
+                default -> throw new IllegalStateException("Unbekannter Schritt");
+            }
+        }
+    }
+
+    private void emit(Object... items) {
+        Collections.addAll(steps, items);
+    }
+
+    // --- Visitor Implementierungen ---
+
+    @Override
+    public Void visitProgram(Program expr) {
+        for (int i = 0; i < expr.expressions().size(); i++) {
+            if (i > 0) emit(Step.HARD_LINE);
+            emit(expr.expressions().get(i));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIntLiteral(IntLiteral expr) {
+        emit(String.valueOf(expr.value()));
+        return null;
+    }
+
+    @Override
+    public Void visitStringLiteral(StringLiteral expr) {
+        emit("\"" + expr.value() + "\"");
+        return null;
+    }
+
+    @Override
+    public Void visitBoolLiteral(BoolLiteral expr) {
+        emit(String.valueOf(expr.value()));
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Variable expr) {
+        emit(expr.name().name());
+        return null;
+    }
+
+    @Override
+    public Void visitDef(Def expr) {
+        // (def name
+        //   wert)
+        emit(Step.OPEN, Step.ALIGN_INDENT, "(def " + expr.name(), Step.LINE, expr.value(),
+                Step.UNALIGN, ")", Step.CLOSE);
+        return null;
+    }
+
+    @Override
+    public Void visitDefn(Defn expr) {
+        // (defn name (p1 p2)
+        //   body)
+        StringBuilder head = new StringBuilder("(defn ").append(expr.name()).append(" (");
+        for (int i = 0; i < expr.params().size(); i++) {
+            if (i > 0) head.append(' ');
+            head.append(expr.params().get(i).name());
+        }
+        emit(Step.OPEN, Step.ALIGN_INDENT, head.append(')').toString(), Step.LINE, expr.body(),
+                Step.UNALIGN, ")", Step.CLOSE);
+        return null;
+    }
+
+    @Override
+    public Void visitLet(Let expr) {
+        // (let (n1 v1
+        //       n2 v2)
+        //   body)
+        emit(Step.OPEN, Step.ALIGN_INDENT, "(let (", Step.OPEN, Step.ALIGN);
+        for (int i = 0; i < expr.bindings().size(); i++) {
+            Binding b = expr.bindings().get(i);
+            if (i > 0) emit(Step.LINE);
+            emit(b.name().name() + " ", b.value());
+        }
+        emit(Step.UNALIGN, ")", Step.CLOSE, Step.LINE, expr.body(), Step.UNALIGN, ")", Step.CLOSE);
+        return null;
+    }
+
+    @Override
+    public Void visitIf(If expr) {
+        // (if cond
+        //   then
+        //   else)
+        emit(Step.OPEN, Step.ALIGN_INDENT, "(if ", expr.condition(), Step.LINE, expr.thenBranch());
+        if (expr.elseBranch() != null) {
+            emit(Step.LINE, expr.elseBranch());
+        }
+        emit(Step.UNALIGN, ")", Step.CLOSE);
+        return null;
+    }
+
+    @Override
+    public Void visitDo(Do expr) {
+        list("(do", expr.expressions());
+        return null;
+    }
+
+    @Override
+    public Void visitCall(Call expr) {
+        list("(" + expr.functionName(), expr.arguments());
+        return null;
+    }
+
+    @Override
+    public Void visitError(Expr.Error expr) {
+        // Wie ASTPrettyPrint: fehlerhafte Form, bewusst nicht wieder einlesbar
+        emit("#<Fehler: " + expr.message() + ">");
+        return null;
+    }
+
+    // (kopf a b c) bzw. umgebrochen mit je einem Element pro Zeile
+    private void list(String head, List<Expr> elements) {
+        emit(Step.OPEN, Step.ALIGN_INDENT, head);
+        for (Expr e : elements) {
+            emit(Step.LINE, e);
+        }
+        emit(Step.UNALIGN, ")", Step.CLOSE);
+    }
+}
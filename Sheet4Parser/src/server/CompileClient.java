@@ -0,0 +1,112 @@
+package server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Dünner Client für den CompileServer. Läuft kein Daemon (Verbindungsaufbau
+ * scheitert), wird die Anfrage im eigenen Prozess ausgeführt, mit demselben
+ * Ergebnis. Bricht eine bestehende Verbindung ab, wird nicht wiederholt: die
+ * Anfrage kann schon ausgeführt worden sein, das Ergebnis ist dann ein Fehler.
+ *
+ * Aufruf: java server.CompileClient [--socket=Pfad] parse|pretty|tree|eval Datei
+ */
+public final class CompileClient {
+
+    // Rückfall ohne Daemon, erst bei Bedarf angelegt
+    private static final class Local {
+        static final CompileService SERVICE = new CompileService();
+    }
+
+    private CompileClient() {}
+
+    public static CompileService.Result execute(CompileService.Operation operation, String source) {
+        return execute(CompileServer.defaultSocket(), operation, source);
+    }
+
+    public static CompileService.Result execute(Path socket, CompileService.Operation operation, String source) {
+        SocketChannel channel = connect(socket);
+        if (channel == null) {
+            return Local.SERVICE.execute(operation, source);
+        }
+        try (channel) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            Protocol.writeRequest(out, operation, source);
+            return Protocol.readResult(in);
+        } catch (IOException e) {
+            return new CompileService.Result(false, "Client Error: Verbindung zum Server abgebrochen: " + e.getMessage());
+        }
+    }
+
+    // Verbundener Kanal, oder null, wenn unter dem Pfad kein Daemon erreichbar ist
+    private static SocketChannel connect(Path socket) {
+        if (!Files.exists(socket)) {
+            return null;
+        }
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            return channel;
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Kanal war nie verbunden
+                }
+            }
+            return null;
+        }
+    }
+
+    // Nimmt unter dem Pfad ein Server Verbindungen an?
+    static boolean isRunning(Path socket) {
+        SocketChannel channel = connect(socket);
+        if (channel == null) {
+            return false;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nur Verbindungstest
+        }
+        return true;
+    }
+
+    public static void main(String[] args) {
+        Path socket = CompileServer.defaultSocket();
+        int i = 0;
+        if (i < args.length && args[i].startsWith("--socket=")) {
+            socket = Path.of(args[i++].substring("--socket=".length()));
+        }
+        if (args.length - i != 2) {
+            System.err.println("Aufruf: CompileClient [--socket=Pfad] parse|pretty|tree|eval Datei");
+            System.exit(2);
+        }
+        CompileService.Operation operation = CompileService.Operation.valueOf(args[i].toUpperCase(Locale.ROOT));
+        String source;
+        try {
+            source = Files.readString(Path.of(args[i + 1]), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Client Error: " + e.getMessage(), e);
+        }
+        CompileService.Result result = execute(socket, operation, source);
+        String output = result.output();
+        (result.ok() ? System.out : System.err).print(output.isEmpty() || output.endsWith("\n") ? output : output + "\n");
+        System.exit(result.ok() ? 0 : 1);
+    }
+}
@@ -0,0 +1,135 @@
+package server;
+
+import parser.AstCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Langlebiger Daemon auf einem Unix-Domain-Socket. Jede Verbindung läuft auf
+ * einem eigenen virtuellen Thread, der ihre Anfragen nacheinander an den
+ * gemeinsamen CompileService gibt; Lexer, Parser und Printer bleiben so über
+ * alle Anfragen hinweg warm, die Caches werden geteilt.
+ *
+ * Aufruf: java server.CompileServer [--socket=Pfad] [--cache=Verzeichnis] [--call-limit=n]
+ */
+public final class CompileServer implements AutoCloseable {
+
+    private final Path socket;
+    private final CompileService service;
+    private final ServerSocketChannel channel;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CompileServer(Path socket, CompileService service) {
+        this.socket = socket;
+        this.service = service;
+        try {
+            if (Files.exists(socket)) {
+                if (CompileClient.isRunning(socket)) {
+                    throw new IllegalStateException("Server läuft bereits: " + socket);
+                }
+                Files.delete(socket);   // übrig von einem beendeten Server
+            }
+            this.channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.bind(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Server Error: " + e.getMessage(), e);
+        }
+    }
+
+    // Standardpfad des Sockets, pro Benutzer im temporären Verzeichnis
+    public static Path defaultSocket() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "sheet4parser-" + System.getProperty("user.name") + ".sock");
+    }
+
+    public Path socket() {
+        return socket;
+    }
+
+    /**
+     * Nimmt Verbindungen an, bis close() aufgerufen wird.
+     */
+    public void serve() {
+        while (channel.isOpen()) {
+            SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Server Error: " + e.getMessage(), e);
+            }
+            connections.execute(() -> handle(client));
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (client;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)))) {
+            Protocol.Request request;
+            while ((request = Protocol.readRequest(in)) != null) {
+                Protocol.writeResult(out, execute(request));
+            }
+        } catch (IOException e) {
+            // Verbindung abgebrochen oder fehlerhafte Anfrage: nur diese Verbindung ist betroffen
+        }
+    }
+
+    // Jede Anfrage bekommt eine Antwort, auch wenn die Ausführung unerwartet scheitert
+    private CompileService.Result execute(Protocol.Request request) {
+        try {
+            return service.execute(request.operation(), request.source());
+        } catch (RuntimeException | Error e) {
+            // z.B. OutOfMemoryError einer einzelnen Anfrage: der Speicher ist danach wieder frei
+            return new CompileService.Result(false, "Server Error: " + e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            connections.shutdownNow();
+            Files.deleteIfExists(socket);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Server Error: " + e.getMessage(), e);
+        }
+    }
+
+    public static void main(String[] args) {
+        Path socket = defaultSocket();
+        AstCache astCache = null;
+        long callLimit = CompileService.DEFAULT_CALL_LIMIT;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            String value = parts.length > 1 ? parts[1] : "";
+            switch (parts[0]) {
+                case "--socket" -> socket = Path.of(value);
+                case "--cache" -> astCache = new AstCache(Path.of(value));
+                case "--call-limit" -> callLimit = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unbekannte Option: " + arg);
+            }
+        }
+        CompileService service = new CompileService(astCache, CompileService.DEFAULT_CACHE_SIZE);
+        service.setCallLimit(callLimit);
+        CompileServer server = new CompileServer(socket, service);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Compile-Server wartet auf " + socket);
+        server.serve();
+    }
+}
@@ -0,0 +1,142 @@
+package server;
+
+import interpreter.Builtin;
+import interpreter.Builtins;
+import interpreter.Interpreter;
+import interpreter.Values;
+import lexer.Diagnostics;
+import lexer.Lexer;
+import lexer.Symbol;
+import lexer.SymbolTable;
+import lexer.TokenStream;
+import parser.AstCache;
+import parser.Expr;
+import parser.Parser;
+import prettyprint.ASTPrettyPrint;
+import prettyprint.ASTTreePrinter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Die Operationen des Compile-Servers, unabhängig vom Transport: im Daemon
+ * (CompileServer) von vielen Threads gleichzeitig genutzt, im Client als
+ * Rückfall ohne Daemon. Geparste Programme werden in einem gemeinsamen
+ * LRU-Cache (Schlüssel: Quelltext) und optional in einem AstCache gehalten;
+ * die Programme sind unveränderlich und können geteilt werden.
+ * Jedes Programm bekommt eine eigene SymbolTable über der gemeinsamen, damit
+ * die Namen aus Anfragen nicht für immer in der gemeinsamen Tabelle bleiben.
+ * EVAL ist durch ein Aufruflimit begrenzt, damit eine Endlosrekursion keinen
+ * Thread des Daemons dauerhaft belegt.
+ */
+public final class CompileService {
+    public static final int DEFAULT_CACHE_SIZE = 256;
+    public static final long DEFAULT_CALL_LIMIT = 10_000_000;
+
+    public enum Operation { PARSE, PRETTY, TREE, EVAL }
+
+    // ok: Operation erfolgreich; output: Ausgabe bzw. Fehlermeldung
+    public record Result(boolean ok, String output) {}
+
+    // Die Namen der Builtins müssen in der gemeinsamen Tabelle stehen, bevor die erste
+    // Anfragetabelle angelegt wird, sonst träfe "print" nicht das Symbol des Interpreters
+    static {
+        for (Builtin builtin : Builtins.all(System.out)) {
+            Symbol.of(builtin.name());
+        }
+    }
+
+    private final AstCache astCache;
+    private final Map<String, Expr.Program> programs;
+    private volatile long callLimit = DEFAULT_CALL_LIMIT;
+
+    public CompileService() {
+        this(null, DEFAULT_CACHE_SIZE);
+    }
+
+    // astCache darf null sein
+    public CompileService(AstCache astCache, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
+        }
+        this.astCache = astCache;
+        this.programs = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expr.Program> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    // Höchstzahl an Funktionsaufrufen pro EVAL
+    public void setCallLimit(long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Call limit must not be negative");
+        }
+        this.callLimit = limit;
+    }
+
+    public Result execute(Operation operation, String source) {
+        try {
+            return switch (operation) {
+                case PARSE -> check(source);
+                case PRETTY -> new Result(true, new ASTPrettyPrint().print(program(source)));
+                case TREE -> new Result(true, new ASTTreePrinter().print(program(source)));
+                case EVAL -> new Result(true, evaluate(program(source)));
+            };
+        } catch (RuntimeException e) {
+            return new Result(false, String.valueOf(e.getMessage()));
+        } catch (StackOverflowError e) {
+            // zu tief verschachtelter Quelltext oder nicht-endständige Rekursion
+            return new Result(false, "Runtime Error: Stapelüberlauf");
+        }
+    }
+
+    // Parsen im Diagnosemodus: alle Fehler mit Zeile:Spalte, sonst eine kurze Zusammenfassung
+    private Result check(String source) {
+        Diagnostics diagnostics = new Diagnostics();
+        Lexer lexer = lexer(source);
+        lexer.setDiagnostics(diagnostics);
+        TokenStream tokens = lexer.tokenize();
+        Parser parser = new Parser(tokens);
+        parser.setDiagnostics(diagnostics);
+        Expr.Program program = parser.parse();
+        if (diagnostics.hasErrors()) {
+            return new Result(false, diagnostics.format(tokens.lineIndex()));
+        }
+        programs.putIfAbsent(source, program);
+        return new Result(true, program.expressions().size() + " Formen, " + (tokens.size() - 1) + " Tokens\n");
+    }
+
+    private Expr.Program program(String source) {
+        Expr.Program program = programs.get(source);
+        if (program == null) {
+            program = astCache != null
+                    ? astCache.load(source, new SymbolTable(SymbolTable.shared()))
+                    : new Parser(lexer(source).tokenize()).parse();
+            programs.put(source, program);
+        }
+        return program;
+    }
+
+    private static Lexer lexer(String source) {
+        Lexer lexer = new Lexer(source);
+        lexer.setSymbolTable(new SymbolTable(SymbolTable.shared()));
+        return lexer;
+    }
+
+    // Eigener Interpreter pro Aufruf; Ausgaben von print werden gesammelt, danach der Wert
+    private String evaluate(Expr.Program program) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        Interpreter interpreter = new Interpreter(out);
+        interpreter.setCallLimit(callLimit);
+        Object result = interpreter.run(program);
+        out.println("=> " + Values.display(result));
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rahmenformat zwischen Client und Daemon.
+ * Anfrage: Operation (writeUTF), Länge (int), Quelltext (UTF-8).
+ * Antwort: ok (boolean), Länge (int), Ausgabe (UTF-8).
+ */
+final class Protocol {
+    private static final int MAX_LENGTH = 256 * 1024 * 1024;
+
+    record Request(CompileService.Operation operation, String source) {}
+
+    private Protocol() {}
+
+    static void writeRequest(DataOutputStream out, CompileService.Operation operation, String source) throws IOException {
+        out.writeUTF(operation.name());
+        writeText(out, source);
+        out.flush();
+    }
+
+    // null am Ende des Datenstroms (Client hat die Verbindung geschlossen)
+    static Request readRequest(DataInputStream in) throws IOException {
+        String name;
+        try {
+            name = in.readUTF();
+        } catch (EOFException e) {
+            return null;
+        }
+        CompileService.Operation operation;
+        try {
+            operation = CompileService.Operation.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unbekannte Operation: " + name);
+        }
+        return new Request(operation, readText(in));
+    }
+
+    static void writeResult(DataOutputStream out, CompileService.Result result) throws IOException {
+        out.writeBoolean(result.ok());
+        writeText(out, result.output());
+        out.flush();
+    }
+
+    static CompileService.Result readResult(DataInputStream in) throws IOException {
+        boolean ok = in.readBoolean();
+        return new CompileService.Result(ok, readText(in));
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IOException("Ungültige Länge: " + length);
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Nachricht unvollständig");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,431 @@
+package vm;
+
+import lexer.Symbol;
+import parser.Expr;
+import parser.Expr.*;
+import parser.ExprVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Übersetzt den AST in Register-Bytecode für die VM.
+ *
+ * Jeder Ausdruck wird in ein Zielregister übersetzt. Parameter und let-Variablen
+ * belegen feste Register, Zwischenergebnisse liegen darüber und werden nach dem
+ * Ausdruck wieder freigegeben. Variablen einer umgebenden Funktion werden beim
+ * Erzeugen der Closure kopiert (GET_CAPTURED).
+ *
+ * Operatoren mit zwei Argumenten werden direkt als Instruktion ausgegeben, solange
+ * das Programm sie nicht selbst per def/defn neu definiert oder lokal überdeckt.
+ * Globale Namen werden zu den Slots der VM übersetzt, für die der Compiler erzeugt wurde.
+ */
+public class BytecodeCompiler implements ExprVisitor<Void> {
+
+    private record Local(Symbol name, int register) {}
+
+    // Quelle >= 0: Register der umgebenden Funktion, < 0: -(Index + 1) in deren Captures
+    private record Capture(Symbol name, int source) {}
+
+    private static final class FunctionState {
+        final FunctionState enclosing;
+        final String name;
+        final int arity;
+        final List<Local> locals = new ArrayList<>();
+        final List<Capture> captures = new ArrayList<>();
+        final List<Object> constants = new ArrayList<>();
+        int[] code = new int[64];
+        int size = 0;
+        int nextRegister;
+        int maxRegisters;
+
+        FunctionState(FunctionState enclosing, String name, int arity) {
+            this.enclosing = enclosing;
+            this.name = name;
+            this.arity = arity;
+            this.nextRegister = arity;
+            this.maxRegisters = arity;
+        }
+
+        Integer localRegister(Symbol name) {
+            for (int i = locals.size() - 1; i >= 0; i--) {
+                if (locals.get(i).name() == name) return locals.get(i).register();
+            }
+            return null;
+        }
+    }
+
+    private final VM vm;
+    private final Set<Symbol> redefined = new HashSet<>();
+    private FunctionState function;
+    private int target;
+
+    public BytecodeCompiler(VM vm) {
+        this.vm = vm;
+    }
+
+    /**
+     * Übersetzt ein Programm (oder einen einzelnen Ausdruck) in den Prototyp des Skripts.
+     */
+    public Prototype compile(Expr program) {
+        redefined.clear();
+        collectDefinitions(program);
+        function = new FunctionState(null, "script", 0);
+        int result = allocate();
+        compile(program, result);
+        emit(Op.RETURN, result);
+        return finish();
+    }
+
+    private Prototype finish() {
+        FunctionState f = function;
+        return new Prototype(vm, f.name, f.arity, f.maxRegisters, f.captures.size(),
+                Arrays.copyOf(f.code, f.size), f.constants.toArray());
+    }
+
+    private void compile(Expr expr, int dst) {
+        int saved = target;
+        target = dst;
+        expr.accept(this);
+        target = saved;
+    }
+
+    // Register, in dem der Wert von 'expr' liegt: lokale Variablen direkt, sonst ein neues Zwischenregister
+    private int operand(Expr expr) {
+        if (expr instanceof Variable v) {
+            Integer register = function.localRegister(v.name());
+            if (register != null) return register;
+        }
+        int register = allocate();
+        compile(expr, register);
+        return register;
+    }
+
+    private int allocate() {
+        int register = function.nextRegister++;
+        if (function.nextRegister > function.maxRegisters) {
+            function.maxRegisters = function.nextRegister;
+        }
+        return register;
+    }
+
+    // --- Code-Puffer ---
+
+    private void emit(int... words) {
+        FunctionState f = function;
+        if (f.size + words.length > f.code.length) {
+            f.code = Arrays.copyOf(f.code, Math.max(f.code.length * 2, f.size + words.length));
+        }
+        System.arraycopy(words, 0, f.code, f.size, words.length);
+        f.size += words.length;
+    }
+
+    // Gibt einen Sprung aus und liefert die Position des Ziel-Operanden zum späteren Eintragen
+    private int emitJump(int... words) {
+        emit(words);
+        return function.size - 1;
+    }
+
+    private void patch(int operandPosition) {
+        function.code[operandPosition] = function.size;
+    }
+
+    private int constant(Object value) {
+        List<Object> constants = function.constants;
+        for (int i = 0; i < constants.size(); i++) {
+            if (constants.get(i).equals(value)) return i;
+        }
+        constants.add(value);
+        return constants.size() - 1;
+    }
+
+    // --- Namensauflösung ---
+
+    private int captureIndex(FunctionState f, Symbol name) {
+        if (f.enclosing == null) return -1;
+        for (int i = 0; i < f.captures.size(); i++) {
+            if (f.captures.get(i).name() == name) return i;
+        }
+        Integer register = f.enclosing.localRegister(name);
+        int source;
+        if (register != null) {
+            source = register;
+        } else {
+            int outer = captureIndex(f.enclosing, name);
+            if (outer < 0) return -1;
+            source = -(outer + 1);
+        }
+        f.captures.add(new Capture(name, source));
+        return f.captures.size() - 1;
+    }
+
+    // Operator darf als Instruktion ausgegeben werden: weder lokal gebunden noch vom Programm neu definiert
+    private boolean isPrimitive(Symbol name) {
+        return !redefined.contains(name)
+                && function.localRegister(name) == null
+                && captureIndex(function, name) < 0;
+    }
+
+    private void collectDefinitions(Expr expr) {
+        switch (expr) {
+            case Program p -> p.expressions().forEach(this::collectDefinitions);
+            case Def d -> {
+                redefined.add(d.name());
+                collectDefinitions(d.value());
+            }
+            case Defn d -> {
+                redefined.add(d.name());
+                collectDefinitions(d.body());
+            }
+            case Let l -> {
+                l.bindings().forEach(b -> collectDefinitions(b.value()));
+                collectDefinitions(l.body());
+            }
+            case If i -> {
+                collectDefinitions(i.condition());
+                collectDefinitions(i.thenBranch());
+                if (i.elseBranch() != null) collectDefinitions(i.elseBranch());
+            }
+            case Do d -> d.expressions().forEach(this::collectDefinitions);
+            case Call c -> c.arguments().forEach(this::collectDefinitions);
+            default -> {}
+        }
+    }
+
+    // --- Visitor Implementierungen ---
+
+    @Override
+    public Void visitProgram(Program expr) {
+        if (expr.expressions().isEmpty()) {
+            emit(Op.LOAD_NIL, target);
+        }
+        for (Expr e : expr.expressions()) {
+            compile(e, target);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIntLiteral(IntLiteral expr) {
+        emit(Op.LOAD_INT, target, expr.value());
+        return null;
+    }
+
+    @Override
+    public Void visitStringLiteral(StringLiteral expr) {
+        emit(Op.LOAD_CONST, target, constant(expr.value()));
+        return null;
+    }
+
+    @Override
+    public Void visitBoolLiteral(BoolLiteral expr) {
+        emit(Op.LOAD_CONST, target, constant(expr.value()));
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Variable expr) {
+        Integer register = function.localRegister(expr.name());
+        if (register != null) {
+            if (register != target) emit(Op.MOVE, target, register);
+            return null;
+        }
+        int captured = captureIndex(function, expr.name());
+        if (captured >= 0) {
+            emit(Op.GET_CAPTURED, target, captured);
+        } else {
+            emit(Op.GET_GLOBAL, target, vm.globalSlot(expr.name()));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitDef(Def expr) {
+        compile(expr.value(), target);
+        emit(Op.SET_GLOBAL, vm.globalSlot(expr.name()), target);
+        return null;
+    }
+
+    @Override
+    public Void visitDefn(Defn expr) {
+        FunctionState enclosing = function;
+        function = new FunctionState(enclosing, expr.name().name(), expr.params().size());
+        for (int i = 0; i < expr.params().size(); i++) {
+            function.locals.add(new Local(expr.params().get(i), i));
+        }
+        int result = allocate();
+        compile(expr.body(), result);
+        emit(Op.RETURN, result);
+        List<Capture> captures = function.captures;
+        Prototype prototype = finish();
+        function = enclosing;
+
+        int[] instruction = new int[4 + captures.size()];
+        instruction[0] = Op.CLOSURE;
+        instruction[1] = target;
+        instruction[2] = constant(prototype);
+        instruction[3] = captures.size();
+        for (int i = 0; i < captures.size(); i++) {
+            instruction[4 + i] = captures.get(i).source();
+        }
+        emit(instruction);
+        emit(Op.SET_GLOBAL, vm.globalSlot(expr.name()), target);
+        return null;
+    }
+
+    @Override
+    public Void visitLet(Let expr) {
+        int registerMark = function.nextRegister;
+        int localMark = function.locals.size();
+        for (Binding b : expr.bindings()) {
+            int register = allocate();
+            compile(b.value(), register);
+            function.locals.add(new Local(b.name(), register));
+        }
+        compile(expr.body(), target);
+        function.locals.subList(localMark, function.locals.size()).clear();
+        function.nextRegister = registerMark;
+        return null;
+    }
+
+    @Override
+    public Void visitIf(If expr) {
+        int elseJump = compileCondition(expr.condition());
+        compile(expr.thenBranch(), target);
+        int endJump = emitJump(Op.JUMP, 0);
+        patch(elseJump);
+        if (expr.elseBranch() != null) {
+            compile(expr.elseBranch(), target);
+        } else {
+            emit(Op.LOAD_NIL, target);
+        }
+        patch(endJump);
+        return null;
+    }
+
+    // Springt, wenn die Bedingung falsch ist; Vergleiche werden zu einer einzigen Instruktion verschmolzen
+    private int compileCondition(Expr condition) {
+        int mark = function.nextRegister;
+        int jump;
+        if (condition instanceof Call call && call.arguments().size() == 2
+                && comparison(call.functionName().name()) >= 0 && isPrimitive(call.functionName())) {
+            int opcode = comparison(call.functionName().name());
+            int a = operand(call.arguments().get(0));
+            if (call.arguments().get(1) instanceof IntLiteral literal) {
+                jump = emitJump(opcode + (Op.JUMP_IF_NOT_LT_I - Op.JUMP_IF_NOT_LT), a, literal.value(), 0);
+            } else {
+                int b = operand(call.arguments().get(1));
+                jump = emitJump(opcode, a, b, 0);
+            }
+        } else {
+            jump = emitJump(Op.JUMP_IF_FALSE, operand(condition), 0);
+        }
+        function.nextRegister = mark;
+        return jump;
+    }
+
+    private static int comparison(String operator) {
+        return switch (operator) {
+            case "<" -> Op.JUMP_IF_NOT_LT;
+            case ">" -> Op.JUMP_IF_NOT_GT;
+            case "=" -> Op.JUMP_IF_NOT_EQ;
+            default -> -1;
+        };
+    }
+
+    @Override
+    public Void visitDo(Do expr) {
+        if (expr.expressions().isEmpty()) {
+            emit(Op.LOAD_NIL, target);
+        }
+        for (Expr e : expr.expressions()) {
+            compile(e, target);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitCall(Call expr) {
+        Symbol name = expr.functionName();
+        List<Expr> args = expr.arguments();
+        int mark = function.nextRegister;
+
+        if (isPrimitive(name) && compilePrimitive(name.name(), args)) {
+            function.nextRegister = mark;
+            return null;
+        }
+
+        // Die Funktion wird wie im Interpreter vor den Argumenten geholt: ein undefinierter
+        // Name scheitert vor deren Seiteneffekten, ein def in den Argumenten wirkt erst danach.
+        // CALL_GLOBAL nur, wenn die Argumente weder scheitern noch etwas verändern können.
+        Integer local = function.localRegister(name);
+        int captured = local == null ? captureIndex(function, name) : -1;
+        int callee = -1;
+        if (local != null) {
+            callee = local;
+        } else if (captured >= 0) {
+            callee = allocate();
+            emit(Op.GET_CAPTURED, callee, captured);
+        } else if (!args.stream().allMatch(this::isSimple)) {
+            callee = allocate();
+            emit(Op.GET_GLOBAL, callee, vm.globalSlot(name));
+        }
+        // Argumente in aufeinanderfolgende Register
+        int first = function.nextRegister;
+        for (int i = 0; i < args.size(); i++) {
+            allocate();
+        }
+        for (int i = 0; i < args.size(); i++) {
+            compile(args.get(i), first + i);
+        }
+        if (callee >= 0) {
+            emit(Op.CALL, target, callee, first, args.size());
+        } else {
+            emit(Op.CALL_GLOBAL, target, vm.globalSlot(name), first, args.size());
+        }
+        function.nextRegister = mark;
+        return null;
+    }
+
+    // Literal oder lokal gebundene Variable: Auswertung ohne Seiteneffekte und Fehler
+    private boolean isSimple(Expr expr) {
+        return switch (expr) {
+            case IntLiteral l -> true;
+            case StringLiteral l -> true;
+            case BoolLiteral l -> true;
+            case Variable v -> function.localRegister(v.name()) != null || captureIndex(function, v.name()) >= 0;
+            default -> false;
+        };
+    }
+
+    private boolean compilePrimitive(String operator, List<Expr> args) {
+        if (args.size() == 1 && operator.equals("-")) {
+            emit(Op.NEG, target, operand(args.get(0)));
+            return true;
+        }
+        if (args.size() != 2) return false;
+
+        int opcode = switch (operator) {
+            case "+" -> Op.ADD;
+            case "-" -> Op.SUB;
+            case "*" -> Op.MUL;
+            case "/" -> Op.DIV;
+            case "<" -> Op.LT;
+            case ">" -> Op.GT;
+            case "=" -> Op.EQ;
+            default -> -1;
+        };
+        if (opcode < 0) return false;
+
+        int a = operand(args.get(0));
+        if ((opcode == Op.ADD || opcode == Op.SUB) && args.get(1) instanceof IntLiteral literal) {
+            emit(opcode == Op.ADD ? Op.ADD_I : Op.SUB_I, target, a, literal.value());
+        } else {
+            emit(opcode, target, a, operand(args.get(1)));
+        }
+        return true;
+    }
+}
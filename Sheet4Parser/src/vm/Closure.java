@@ -0,0 +1,28 @@
+package vm;
+
+/**
+ * Laufzeitwert einer defn: der Prototyp und die Werte der gefangenen
+ * Variablen. Da let-Bindungen unveränderlich sind, genügt eine Kopie der Werte.
+ */
+public final class Closure {
+    final Prototype prototype;
+    final Object[] captured;
+
+    Closure(Prototype prototype, Object[] captured) {
+        this.prototype = prototype;
+        this.captured = captured;
+    }
+
+    public String name() {
+        return prototype.name();
+    }
+
+    public int arity() {
+        return prototype.arity();
+    }
+
+    @Override
+    public String toString() {
+        return "<fn " + prototype.name() + ">";
+    }
+}
@@ -0,0 +1,69 @@
+package vm;
+
+/**
+ * Opcodes der Register-VM. Eine Instruktion ist der Opcode gefolgt von ihren
+ * Operanden im selben int[]; Register sind Indizes in das Register-Array des
+ * aktuellen Aufrufs, Sprungziele sind absolute Positionen im Code.
+ */
+final class Op {
+
+    private Op() {}
+
+    static final int LOAD_INT = 0;          // dst, wert
+    static final int LOAD_CONST = 1;        // dst, konstante
+    static final int LOAD_NIL = 2;          // dst
+    static final int MOVE = 3;              // dst, src
+    static final int GET_GLOBAL = 4;        // dst, global-slot
+    static final int SET_GLOBAL = 5;        // global-slot, src
+    static final int GET_CAPTURED = 6;      // dst, index
+    static final int ADD = 7;               // dst, a, b
+    static final int SUB = 8;               // dst, a, b
+    static final int MUL = 9;               // dst, a, b
+    static final int DIV = 10;              // dst, a, b
+    static final int NEG = 11;              // dst, a
+    static final int LT = 12;               // dst, a, b
+    static final int GT = 13;               // dst, a, b
+    static final int EQ = 14;               // dst, a, b
+    static final int JUMP = 15;             // ziel
+    static final int JUMP_IF_FALSE = 16;    // bedingung, ziel
+    static final int CALL = 17;             // dst, funktion, erstes-argument, anzahl
+    static final int CALL_GLOBAL = 18;      // dst, global-slot, erstes-argument, anzahl
+    static final int CLOSURE = 19;          // dst, konstante, n, quelle_1 .. quelle_n
+    static final int RETURN = 20;           // src
+
+    // Superinstruktionen für häufige Muster
+    static final int ADD_I = 21;            // dst, a, wert          (+ a 1)
+    static final int SUB_I = 22;            // dst, a, wert          (- n 1)
+    static final int JUMP_IF_NOT_LT = 23;   // a, b, ziel            (if (< a b) ...)
+    static final int JUMP_IF_NOT_GT = 24;   // a, b, ziel
+    static final int JUMP_IF_NOT_EQ = 25;   // a, b, ziel
+    static final int JUMP_IF_NOT_LT_I = 26; // a, wert, ziel         (if (< n 2) ...)
+    static final int JUMP_IF_NOT_GT_I = 27; // a, wert, ziel
+    static final int JUMP_IF_NOT_EQ_I = 28; // a, wert, ziel
+
+    private static final String[] NAMES = {
+            "LOAD_INT", "LOAD_CONST", "LOAD_NIL", "MOVE", "GET_GLOBAL", "SET_GLOBAL", "GET_CAPTURED",
+            "ADD", "SUB", "MUL", "DIV", "NEG", "LT", "GT", "EQ", "JUMP", "JUMP_IF_FALSE",
+            "CALL", "CALL_GLOBAL", "CLOSURE", "RETURN",
+            "ADD_I", "SUB_I", "JUMP_IF_NOT_LT", "JUMP_IF_NOT_GT", "JUMP_IF_NOT_EQ",
+            "JUMP_IF_NOT_LT_I", "JUMP_IF_NOT_GT_I", "JUMP_IF_NOT_EQ_I"
+    };
+
+    private static final int[] OPERANDS = {
+            2, 2, 1, 2, 2, 2, 2,
+            3, 3, 3, 3, 2, 3, 3, 3, 1, 2,
+            4, 4, -1, 1,
+            3, 3, 3, 3, 3,
+            3, 3, 3
+    };
+
+    static String name(int opcode) {
+        return NAMES[opcode];
+    }
+
+    // Länge der Instruktion an 'pc' inklusive Opcode
+    static int length(int[] code, int pc) {
+        int opcode = code[pc];
+        return opcode == CLOSURE ? 4 + code[pc + 3] : 1 + OPERANDS[opcode];
+    }
+}
@@ -0,0 +1,82 @@
+package vm;
+
+/**
+ * Übersetzte Funktion (oder das Top-Level-Skript): Code, Konstanten und die
+ * Anzahl benötigter Register. Unveränderlich; globale Namen sind Slots der VM,
+ * für die übersetzt wurde.
+ */
+public final class Prototype {
+    final VM vm;
+    private final String name;
+    private final int arity;
+    private final int registers;
+    private final int captures;
+    final int[] code;
+    final Object[] constants;
+
+    Prototype(VM vm, String name, int arity, int registers, int captures, int[] code, Object[] constants) {
+        this.vm = vm;
+        this.name = name;
+        this.arity = arity;
+        this.registers = registers;
+        this.captures = captures;
+        this.code = code;
+        this.constants = constants;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int arity() {
+        return arity;
+    }
+
+    public int registers() {
+        return registers;
+    }
+
+    public int captures() {
+        return captures;
+    }
+
+    // Ungefährer Speicherbedarf in Bytes (Code + Konstanten-Slots), ohne verschachtelte Funktionen
+    public int size() {
+        return code.length * Integer.BYTES + constants.length * 8;
+    }
+
+    /**
+     * Lesbare Auflistung des Codes, verschachtelte Funktionen folgen darunter.
+     */
+    public String disassemble() {
+        StringBuilder sb = new StringBuilder();
+        disassemble(sb);
+        return sb.toString();
+    }
+
+    private void disassemble(StringBuilder sb) {
+        sb.append("== ").append(name).append(" (").append(arity).append(" Parameter, ")
+                .append(registers).append(" Register) ==\n");
+        for (int pc = 0; pc < code.length; pc += Op.length(code, pc)) {
+            sb.append(String.format("%4d  %-17s", pc, Op.name(code[pc])));
+            for (int i = pc + 1; i < pc + Op.length(code, pc); i++) {
+                sb.append(' ').append(code[i]);
+            }
+            if (code[pc] == Op.LOAD_CONST || code[pc] == Op.CLOSURE) {
+                sb.append("   ; ").append(constants[code[pc + 2]] instanceof Prototype p ? "<fn " + p.name + ">" : constants[code[pc + 2]]);
+            }
+            sb.append('\n');
+        }
+        for (Object constant : constants) {
+            if (constant instanceof Prototype p) {
+                sb.append('\n');
+                p.disassemble(sb);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<prototype " + name + ">";
+    }
+}
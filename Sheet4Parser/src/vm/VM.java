@@ -0,0 +1,274 @@
+package vm;
+
+import interpreter.Builtin;
+import interpreter.Builtins;
+import interpreter.Values;
+import lexer.Symbol;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Register-VM: führt Prototypen des BytecodeCompilers in einer einzigen
+ * Dispatch-Schleife aus. Aufrufe legen einen Frame auf einen eigenen Stack statt
+ * Java-Rekursion zu nutzen. Globale Namen liegen wie im Interpreter in einem
+ * Array mit eigenen, dichten Slots pro VM und bleiben zwischen run()-Aufrufen
+ * erhalten. Der BytecodeCompiler vergibt die Slots beim Übersetzen, ein Prototyp
+ * läuft daher nur in der VM, für die er übersetzt wurde.
+ */
+public final class VM {
+
+    private static final Object UNDEFINED = new Object();
+    private static final Object[] NO_CAPTURES = new Object[0];
+    private static final int MAX_DEPTH = 100_000;
+
+    private static final class CallFrame {
+        final Closure closure;
+        final Object[] registers;
+        final int returnRegister;
+        int pc;
+
+        CallFrame(Closure closure, Object[] registers, int returnRegister) {
+            this.closure = closure;
+            this.registers = registers;
+            this.returnRegister = returnRegister;
+        }
+    }
+
+    private final Map<Symbol, Integer> globalSlots = new HashMap<>();
+    private Object[] globals = new Object[64];
+    private Symbol[] names = new Symbol[64];   // Name je Slot, für Fehlermeldungen
+
+    public VM() {
+        this(System.out);
+    }
+
+    public VM(PrintStream out) {
+        Arrays.fill(globals, UNDEFINED);
+        for (Builtin builtin : Builtins.all(out)) {
+            defineGlobal(Symbol.of(builtin.name()), builtin);
+        }
+    }
+
+    public Object run(Prototype script) {
+        if (script.vm != this) {
+            throw new IllegalArgumentException("Prototyp wurde für eine andere VM übersetzt");
+        }
+        return execute(new Closure(script, NO_CAPTURES), new Object[script.registers()]);
+    }
+
+    public Object global(Symbol name) {
+        Integer slot = globalSlots.get(name);
+        if (slot == null) {
+            throw error("Undefinierter Name: " + name);
+        }
+        return global(slot);
+    }
+
+    public void defineGlobal(Symbol name, Object value) {
+        globals[globalSlot(name)] = value;
+    }
+
+    // Slot des globalen Namens, beim ersten Mal neu vergeben (auch vom BytecodeCompiler)
+    int globalSlot(Symbol name) {
+        Integer slot = globalSlots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        int next = globalSlots.size();
+        if (next == globals.length) {
+            globals = Arrays.copyOf(globals, next * 2);
+            Arrays.fill(globals, next, globals.length, UNDEFINED);
+            names = Arrays.copyOf(names, next * 2);
+        }
+        globalSlots.put(name, next);
+        names[next] = name;
+        return next;
+    }
+
+    private Object global(int slot) {
+        Object value = globals[slot];
+        if (value == UNDEFINED) {
+            throw error("Undefinierter Name: " + names[slot]);
+        }
+        return value;
+    }
+
+    /**
+     * Ruft eine Closure oder ein Builtin mit den gegebenen Argumenten auf.
+     */
+    public Object apply(Object callee, Object[] args) {
+        if (callee instanceof Closure closure) {
+            checkArity(closure, args.length);
+            return execute(closure, Arrays.copyOf(args, closure.prototype.registers()));
+        }
+        if (callee instanceof Builtin builtin) {
+            return builtin.apply(args);
+        }
+        throw error(Values.display(callee) + " ist keine Funktion");
+    }
+
+    private Object execute(Closure entry, Object[] entryRegisters) {
+        CallFrame[] stack = new CallFrame[16];
+        int depth = 0;
+        CallFrame frame = new CallFrame(entry, entryRegisters, -1);
+        int[] code = entry.prototype.code;
+        Object[] constants = entry.prototype.constants;
+        Object[] captured = entry.captured;
+        Object[] r = entryRegisters;
+        int pc = 0;
+
+        while (true) {
+            switch (code[pc]) {
+                case Op.LOAD_INT -> {
+                    r[code[pc + 1]] = code[pc + 2];
+                    pc += 3;
+                }
+                case Op.LOAD_CONST -> {
+                    r[code[pc + 1]] = constants[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.LOAD_NIL -> {
+                    r[code[pc + 1]] = null;
+                    pc += 2;
+                }
+                case Op.MOVE -> {
+                    r[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.GET_GLOBAL -> {
+                    r[code[pc + 1]] = global(code[pc + 2]);
+                    pc += 3;
+                }
+                case Op.SET_GLOBAL -> {
+                    globals[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.GET_CAPTURED -> {
+                    r[code[pc + 1]] = captured[code[pc + 2]];
+                    pc += 3;
+                }
+                case Op.ADD -> {
+                    r[code[pc + 1]] = Values.asInt(r[code[pc + 2]], "+") + Values.asInt(r[code[pc + 3]], "+");
+                    pc += 4;
+                }
+                case Op.SUB -> {
+                    r[code[pc + 1]] = Values.asInt(r[code[pc + 2]], "-") - Values.asInt(r[code[pc + 3]], "-");
+                    pc += 4;
+                }
+                case Op.MUL -> {
+                    r[code[pc + 1]] = Values.asInt(r[code[pc + 2]], "*") * Values.asInt(r[code[pc + 3]], "*");
+                    pc += 4;
+                }
+                case Op.DIV -> {
+                    r[code[pc + 1]] = Builtins.divide(Values.asInt(r[code[pc + 2]], "/"), Values.asInt(r[code[pc + 3]], "/"));
+                    pc += 4;
+                }
+                case Op.NEG -> {
+                    r[code[pc + 1]] = -Values.asInt(r[code[pc + 2]], "-");
+                    pc += 3;
+                }
+                case Op.ADD_I -> {
+                    r[code[pc + 1]] = Values.asInt(r[code[pc + 2]], "+") + code[pc + 3];
+                    pc += 4;
+                }
+                case Op.SUB_I -> {
+                    r[code[pc + 1]] = Values.asInt(r[code[pc + 2]], "-") - code[pc + 3];
+                    pc += 4;
+                }
+                case Op.LT -> {
+                    r[code[pc + 1]] = Values.asInt(r[code[pc + 2]], "<") < Values.asInt(r[code[pc + 3]], "<");
+                    pc += 4;
+                }
+                case Op.GT -> {
+                    r[code[pc + 1]] = Values.asInt(r[code[pc + 2]], ">") > Values.asInt(r[code[pc + 3]], ">");
+                    pc += 4;
+                }
+                case Op.EQ -> {
+                    r[code[pc + 1]] = Values.equal(r[code[pc + 2]], r[code[pc + 3]]);
+                    pc += 4;
+                }
+                case Op.JUMP -> pc = code[pc + 1];
+                case Op.JUMP_IF_FALSE -> pc = Values.truthy(r[code[pc + 1]]) ? pc + 3 : code[pc + 2];
+                case Op.JUMP_IF_NOT_LT ->
+                        pc = Values.asInt(r[code[pc + 1]], "<") < Values.asInt(r[code[pc + 2]], "<") ? pc + 4 : code[pc + 3];
+                case Op.JUMP_IF_NOT_GT ->
+                        pc = Values.asInt(r[code[pc + 1]], ">") > Values.asInt(r[code[pc + 2]], ">") ? pc + 4 : code[pc + 3];
+                case Op.JUMP_IF_NOT_EQ ->
+                        pc = Values.equal(r[code[pc + 1]], r[code[pc + 2]]) ? pc + 4 : code[pc + 3];
+                case Op.JUMP_IF_NOT_LT_I ->
+                        pc = Values.asInt(r[code[pc + 1]], "<") < code[pc + 2] ? pc + 4 : code[pc + 3];
+                case Op.JUMP_IF_NOT_GT_I ->
+                        pc = Values.asInt(r[code[pc + 1]], ">") > code[pc + 2] ? pc + 4 : code[pc + 3];
+                case Op.JUMP_IF_NOT_EQ_I ->
+                        pc = r[code[pc + 1]] instanceof Integer i && i == code[pc + 2] ? pc + 4 : code[pc + 3];
+                case Op.CLOSURE -> {
+                    int count = code[pc + 3];
+                    Object[] values = count == 0 ? NO_CAPTURES : new Object[count];
+                    for (int i = 0; i < count; i++) {
+                        int source = code[pc + 4 + i];
+                        values[i] = source >= 0 ? r[source] : captured[-source - 1];
+                    }
+                    r[code[pc + 1]] = new Closure((Prototype) constants[code[pc + 2]], values);
+                    pc += 4 + count;
+                }
+                case Op.CALL, Op.CALL_GLOBAL -> {
+                    Object callee = code[pc] == Op.CALL ? r[code[pc + 2]] : global(code[pc + 2]);
+                    int dst = code[pc + 1];
+                    int first = code[pc + 3];
+                    int count = code[pc + 4];
+                    pc += 5;
+                    if (callee instanceof Closure closure) {
+                        checkArity(closure, count);
+                        Object[] registers = new Object[closure.prototype.registers()];
+                        System.arraycopy(r, first, registers, 0, count);
+                        frame.pc = pc;
+                        if (depth == stack.length) {
+                            if (depth >= MAX_DEPTH) throw error("Maximale Aufruftiefe überschritten");
+                            stack = Arrays.copyOf(stack, depth * 2);
+                        }
+                        stack[depth++] = frame;
+                        frame = new CallFrame(closure, registers, dst);
+                        code = closure.prototype.code;
+                        constants = closure.prototype.constants;
+                        captured = closure.captured;
+                        r = registers;
+                        pc = 0;
+                    } else if (callee instanceof Builtin builtin) {
+                        r[dst] = builtin.apply(Arrays.copyOfRange(r, first, first + count));
+                    } else {
+                        throw error(Values.display(callee) + " ist keine Funktion");
+                    }
+                }
+                case Op.RETURN -> {
+                    Object result = r[code[pc + 1]];
+                    if (depth == 0) {
+                        return result;
+                    }
+                    int dst = frame.returnRegister;
+                    frame = stack[--depth];
+                    code = frame.closure.prototype.code;
+                    constants = frame.closure.prototype.constants;
+                    captured = frame.closure.captured;
+                    r = frame.registers;
+                    pc = frame.pc;
+                    r[dst] = result;
+                }
+                default -> throw new IllegalStateException("Unbekannter Opcode " + code[pc] + " bei " + pc);
+            }
+        }
+    }
+
+    private static void checkArity(Closure closure, int count) {
+        if (count != closure.arity()) {
+            throw error("'" + closure.name() + "' erwartet " + closure.arity()
+                    + " Argument(e), bekommen: " + count);
+        }
+    }
+
+    static RuntimeException error(String message) {
+        return new RuntimeException("Runtime Error: " + message);
+    }
+}